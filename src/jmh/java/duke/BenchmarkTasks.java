@@ -0,0 +1,73 @@
+package duke;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * Shared set up for the benchmarks: building task lists of a given size and keeping Duke quiet.
+ */
+final class BenchmarkTasks {
+    private static final String[] WORDS = {
+        "read", "book", "return", "library", "play", "game", "buy", "milk", "write", "essay",
+        "call", "mum", "fix", "bike", "clean", "room", "submit", "report", "plan", "trip"
+    };
+    /** The first date of the deadlines and events, which take dates in the year from it. */
+    static final LocalDate START = LocalDate.of(2023, 1, 1);
+    private static final PrintStream CONSOLE = System.out;
+
+    private BenchmarkTasks() {
+    }
+
+    /**
+     * Build a list with an even mix of todos, deadlines and events, and index it.
+     *
+     * @param count The number of tasks in the list.
+     * @return The list of tasks.
+     */
+    static TaskList generate(int count) {
+        final TaskList list = new TaskList();
+        list.addAll(generateTasks(count));
+        return list;
+    }
+
+    /**
+     * Build an even mix of todos, deadlines and events without indexing them.
+     *
+     * @param count The number of tasks.
+     * @return The tasks.
+     */
+    static ArrayList<Task> generateTasks(int count) {
+        final ArrayList<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i += 1) {
+            final String description = WORDS[i % WORDS.length] + " " + WORDS[(i / 7) % WORDS.length]
+                    + " " + WORDS[(i / 13) % WORDS.length] + " " + i;
+            final Task task;
+            switch (i % 3) {
+            case 0:
+                task = new Todo(description);
+                break;
+            case 1:
+                task = new Deadline(description, START.plusDays(i % 365));
+                break;
+            default:
+                task = new Event(description, START.plusDays(i % 365), START.plusDays(i % 365 + i % 5));
+                break;
+            }
+            if (i % 4 == 0) {
+                task.markAsDone();
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    static void silenceOutput() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    static void restoreOutput() {
+        System.setOut(CONSOLE);
+    }
+}
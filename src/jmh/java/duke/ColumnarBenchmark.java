@@ -0,0 +1,123 @@
+package duke;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the columnar store with an ArrayList of tasks: getting a task, which the store has to build,
+ * and the scans the columns are laid out for. Running the class itself instead of through JMH prints
+ * how much heap each takes for a million tasks:
+ * java -cp build/libs/duke-jmh.jar duke.ColumnarBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ColumnarBenchmark {
+    private static final int FOOTPRINT_SIZE = 1000000;
+
+    @Param({"1000000"})
+    public int size;
+
+    private ArrayList<Task> list;
+    private TaskColumns columns;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        list = BenchmarkTasks.generateTasks(size);
+        columns = TaskColumns.of(list);
+    }
+
+    @Benchmark
+    public Task getArrayList() {
+        return list.get(ThreadLocalRandom.current().nextInt(size));
+    }
+
+    @Benchmark
+    public Task getColumns() {
+        return columns.get(ThreadLocalRandom.current().nextInt(size));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int countDoneArrayList() {
+        int done = 0;
+        for (Task task : list) {
+            if (task.isDone) {
+                done += 1;
+            }
+        }
+        return done;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int countDoneColumns() {
+        return columns.countDone();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int countDueArrayList() {
+        final long day = BenchmarkTasks.START.plusDays(100).toEpochDay();
+        int due = 0;
+        for (Task task : list) {
+            if (task instanceof Deadline && ((Deadline) task).by.toEpochDay() <= day) {
+                due += 1;
+            }
+        }
+        return due;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int countDueColumns() {
+        final long day = BenchmarkTasks.START.plusDays(100).toEpochDay();
+        int due = 0;
+        for (int i = 0; i < columns.size(); i += 1) {
+            if (columns.getType(i) == TaskColumns.DEADLINE && columns.getFirstDay(i) <= day) {
+                due += 1;
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Print the heap taken by a million tasks in an ArrayList and in the columnar store.
+     * Each is measured as the heap in use after a full collection with it, less the heap in use without it.
+     *
+     * @param args Unused.
+     */
+    public static void main(String[] args) {
+        final long empty = usedHeap();
+        ArrayList<Task> tasks = BenchmarkTasks.generateTasks(FOOTPRINT_SIZE);
+        final long listBytes = usedHeap() - empty;
+        final TaskColumns store = TaskColumns.of(tasks);
+        tasks = null;
+        final long columnsBytes = usedHeap() - empty;
+        System.out.printf("%-12s %14s %14s%n", "store", "heap bytes", "bytes/task");
+        System.out.printf("%-12s %14d %14.1f%n", "ArrayList", listBytes, (double) listBytes / FOOTPRINT_SIZE);
+        System.out.printf("%-12s %14d %14.1f%n", "TaskColumns", columnsBytes, (double) columnsBytes / store.size());
+        System.out.printf("TaskColumns counts %d bytes in its own arrays.%n", store.getMemoryBytes());
+    }
+
+    private static long usedHeap() {
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i += 1) {
+            memory.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,94 @@
+package duke;
+
+import duke.exceptions.InvalidCommandException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Command.execute for each type of command on a list of 1000 tasks.
+ * Commands that add a task are paired with a delete, so the list keeps its size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CommandBenchmark {
+    private TaskList tasks;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        BenchmarkTasks.silenceOutput();
+        tasks = BenchmarkTasks.generate(1000);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        BenchmarkTasks.restoreOutput();
+    }
+
+    @Benchmark
+    public void list() throws InvalidCommandException {
+        Command.execute(tasks, "list all");
+    }
+
+    @Benchmark
+    public void todoThenDelete() throws InvalidCommandException {
+        Command.execute(tasks, "todo read the new book");
+        Command.execute(tasks, "delete " + tasks.snapshot().size());
+    }
+
+    @Benchmark
+    public void deadlineThenDelete() throws InvalidCommandException {
+        Command.execute(tasks, "deadline return library book by: 2023-03-04");
+        Command.execute(tasks, "delete " + tasks.snapshot().size());
+    }
+
+    @Benchmark
+    public void eventThenDelete() throws InvalidCommandException {
+        Command.execute(tasks, "event trip to Malaysia from: 2023-03-04 to: 2023-03-10");
+        Command.execute(tasks, "delete " + tasks.snapshot().size());
+    }
+
+    @Benchmark
+    public void markThenUnmark() throws InvalidCommandException {
+        Command.execute(tasks, "mark 2");
+        Command.execute(tasks, "unmark 2");
+    }
+
+    @Benchmark
+    public void find() throws InvalidCommandException {
+        Command.execute(tasks, "find library");
+    }
+
+    @Benchmark
+    public void findQuery() throws InvalidCommandException {
+        Command.execute(tasks, "search book AND NOT lib*");
+    }
+
+    @Benchmark
+    public void due() throws InvalidCommandException {
+        Command.execute(tasks, "due 2023-02-01");
+    }
+
+    @Benchmark
+    public void help() throws InvalidCommandException {
+        Command.execute(tasks, "help");
+    }
+
+    @Benchmark
+    public void invalid() {
+        try {
+            Command.execute(tasks, "blah");
+        } catch (InvalidCommandException e) {
+            // the cost of rejecting the command is what is measured
+        }
+    }
+}
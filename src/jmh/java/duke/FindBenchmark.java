@@ -0,0 +1,57 @@
+package duke;
+
+import duke.exceptions.FormatException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Command.find and Command.search for each way a keyword is answered, as the list grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FindBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private TaskList tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkTasks.silenceOutput();
+        tasks = BenchmarkTasks.generate(size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkTasks.restoreOutput();
+    }
+
+    /** A rare keyword, narrowed down by the trigram index. */
+    @Benchmark
+    public void findRareSubstring() throws FormatException {
+        Command.find(tasks, "12345");
+    }
+
+    /** A keyword too short for the trigram index, which goes through the whole list. */
+    @Benchmark
+    public void findShortSubstring() throws FormatException {
+        Command.find(tasks, "9x");
+    }
+
+    /** A boolean query, answered by the word index. */
+    @Benchmark
+    public void findWordQuery() throws FormatException {
+        Command.search(tasks, "library AND mum AND NOT essay");
+    }
+}
@@ -0,0 +1,101 @@
+package duke;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures undoing and redoing changes to a large list. Running the class itself instead of through JMH
+ * fills the history of a million task list with single and bulk changes, and prints the heap the history
+ * takes next to its estimate and its bound:
+ * java -cp build/libs/duke-jmh.jar duke.HistoryBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HistoryBenchmark {
+    private static final int FOOTPRINT_SIZE = 1000000;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private TaskList tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = BenchmarkTasks.generate(size);
+        tasks.add(new Todo("read book"));
+    }
+
+    @Benchmark
+    public String deleteThenUndo() {
+        tasks.remove(ThreadLocalRandom.current().nextInt(size));
+        return tasks.undo();
+    }
+
+    @Benchmark
+    public String markThenUndo() {
+        final int index = ThreadLocalRandom.current().nextInt(size);
+        tasks.setDone(index, !tasks.snapshot().get(index).isDone);
+        return tasks.undo();
+    }
+
+    @Benchmark
+    public String undoThenRedo() {
+        tasks.undo();
+        return tasks.redo();
+    }
+
+    /**
+     * Print the heap held by the history of a million task list after single and bulk changes.
+     * The heap the history holds is told apart from the rest by dropping the history and measuring again.
+     *
+     * @param args Unused.
+     */
+    public static void main(String[] args) {
+        final TaskList tasks = BenchmarkTasks.generate(FOOTPRINT_SIZE);
+        for (int i = 0; i < 100; i += 1) {
+            tasks.remove(ThreadLocalRandom.current().nextInt(tasks.snapshot().size()));
+        }
+        report("100 deletes", tasks);
+        for (int i = 0; i < 100; i += 1) {
+            final int first = ThreadLocalRandom.current().nextInt(tasks.snapshot().size() - 1000);
+            tasks.remove(list -> IntStream.range(first, first + 1000).toArray());
+        }
+        report("100 deletes of 1000 tasks", tasks);
+        for (int i = 0; i < 20; i += 1) {
+            final boolean isDone = i % 2 == 0;
+            tasks.setDone(list -> IntStream.range(0, list.size() / 2).toArray(), isDone);
+        }
+        report("20 marks of half the list", tasks);
+    }
+
+    private static void report(String changes, TaskList tasks) {
+        final long estimate = tasks.getHistoryBytes();
+        final long withHistory = usedHeap();
+        tasks.clearHistory();
+        final long history = withHistory - usedHeap();
+        System.out.printf("After %-26s history estimate %6.1f MB, measured %6.1f MB, bound %6.1f MB%n",
+                changes, estimate / 1e6, history / 1e6, TaskList.HISTORY_BYTES / 1e6);
+    }
+
+    private static long usedHeap() {
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i += 1) {
+            memory.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,65 @@
+package duke;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures printing the whole list through Output against printing it a line at a time, as Ui used to.
+ * The console is stood in for by the null device behind a PrintStream that flushes on every line, like System.out,
+ * so each flush still costs a write to the operating system.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OutputBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    private TaskList tasks;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        tasks = BenchmarkTasks.generate(size);
+        final String nullDevice = System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null";
+        console = new PrintStream(new BufferedOutputStream(new FileOutputStream(nullDevice)), true, "UTF-8");
+        System.setOut(console);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkTasks.restoreOutput();
+        console.close();
+    }
+
+    @Benchmark
+    public void listBuffered() {
+        Ui.printListOfTasks(tasks.snapshot());
+        Output.flush();
+    }
+
+    @Benchmark
+    public void listLineByLine() {
+        final TaskSnapshot snapshot = tasks.snapshot();
+        for (int i = 0; i < snapshot.size(); i += 1) {
+            console.print(i + 1);
+            console.print(". ");
+            console.println(snapshot.get(i));
+        }
+        console.println("____________________________________________________________");
+    }
+}
@@ -0,0 +1,51 @@
+package duke;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures finding the command a line starts with and parsing the date formats Duke accepts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParserBenchmark {
+    private final String command = "deadline return library book by: 2023-03-04";
+    private final String isoDate = "2023-03-04";
+    private final String slashDate = "04/03/2023";
+    private final String monthNameDate = "Mar 4 2023";
+    private final String invalidDate = "next tuesday";
+
+    @Benchmark
+    public CommandRegistry.Entry findCommand() {
+        return Command.registry.find(command);
+    }
+
+    @Benchmark
+    public LocalDate parseIsoDate() throws ParseException {
+        return Parser.parseDate(isoDate);
+    }
+
+    @Benchmark
+    public LocalDate parseSlashDate() throws ParseException {
+        return Parser.parseDate(slashDate);
+    }
+
+    @Benchmark
+    public LocalDate parseMonthNameDate() throws ParseException {
+        return Parser.parseDate(monthNameDate);
+    }
+
+    @Benchmark
+    public long parseInvalidDate() {
+        return DateParser.parseEpochDay(invalidDate);
+    }
+}
@@ -0,0 +1,81 @@
+package duke;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the snapshot tree with an ArrayList on a delete heavy workload:
+ * deleting a task at a random index and adding one at the end, so the list keeps its size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PositionalBenchmark {
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private ArrayList<Task> list;
+    private TaskSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final ArrayList<Task> tasks = BenchmarkTasks.generateTasks(size);
+        list = new ArrayList<>(tasks);
+        snapshot = TaskSnapshot.of(tasks);
+    }
+
+    @Benchmark
+    public Task deleteArrayList() {
+        final Task removed = list.remove(ThreadLocalRandom.current().nextInt(size));
+        list.add(removed);
+        return removed;
+    }
+
+    @Benchmark
+    public Task deleteSnapshot() {
+        final int index = ThreadLocalRandom.current().nextInt(size);
+        final Task removed = snapshot.get(index);
+        snapshot = snapshot.withRemoved(index).withAdded(removed);
+        return removed;
+    }
+
+    @Benchmark
+    public Task markSnapshot() {
+        final int index = ThreadLocalRandom.current().nextInt(size);
+        final Task marked = snapshot.get(index).withDone(true);
+        snapshot = snapshot.withReplaced(index, marked);
+        return marked;
+    }
+
+    @Benchmark
+    public Task getArrayList() {
+        return list.get(ThreadLocalRandom.current().nextInt(size));
+    }
+
+    @Benchmark
+    public Task getSnapshot() {
+        return snapshot.get(ThreadLocalRandom.current().nextInt(size));
+    }
+
+    @Benchmark
+    public int iterateSnapshot() {
+        int done = 0;
+        for (Task task : snapshot) {
+            if (task.isDone) {
+                done += 1;
+            }
+        }
+        return done;
+    }
+}
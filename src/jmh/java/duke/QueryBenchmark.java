@@ -0,0 +1,96 @@
+package duke;
+
+import duke.exceptions.FormatException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs list queries through their plans, against filtering the whole list and sorting every match,
+ * which is what answering them without indexes, early stops and the top-k heap costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryBenchmark {
+    private static final LocalDate DUE_BY = BenchmarkTasks.START.plusDays(90);
+
+    @Param({"1000000"})
+    public int size;
+
+    private TaskList tasks;
+    private ListQuery firstUndone;
+    private ListQuery soonestDue;
+    private ListQuery keyword;
+
+    @Setup(Level.Trial)
+    public void setUp() throws FormatException, ParseException {
+        tasks = BenchmarkTasks.generate(size);
+        firstUndone = ListQuery.parse("type:D done:no limit:20");
+        soonestDue = ListQuery.parse("done:no by<" + DUE_BY + " sort:by limit:20");
+        keyword = ListQuery.parse("has:library done:no sort:description limit:20");
+    }
+
+    @Benchmark
+    public ListQuery.Result firstUndoneQuery() throws FormatException {
+        return firstUndone.run(tasks);
+    }
+
+    @Benchmark
+    public List<Task> firstUndoneFullScan() {
+        final List<Task> matches = new ArrayList<>();
+        for (Task task : tasks.snapshot()) {
+            if (task instanceof Deadline && !task.isDone) {
+                matches.add(task);
+            }
+        }
+        return matches.subList(0, Math.min(20, matches.size()));
+    }
+
+    @Benchmark
+    public ListQuery.Result soonestDueQuery() throws FormatException {
+        return soonestDue.run(tasks);
+    }
+
+    @Benchmark
+    public List<Task> soonestDueFullSort() {
+        final List<Task> matches = new ArrayList<>();
+        for (Task task : tasks.snapshot()) {
+            if (task instanceof Deadline && !task.isDone && ((Deadline) task).by.isBefore(DUE_BY)) {
+                matches.add(task);
+            }
+        }
+        matches.sort(Comparator.comparing(task -> ((Deadline) task).by));
+        return matches.subList(0, Math.min(20, matches.size()));
+    }
+
+    @Benchmark
+    public ListQuery.Result keywordQuery() throws FormatException {
+        return keyword.run(tasks);
+    }
+
+    @Benchmark
+    public List<Task> keywordFullSort() {
+        final List<Task> matches = new ArrayList<>();
+        for (Task task : tasks.snapshot()) {
+            if (!task.isDone && task.description.contains("library")) {
+                matches.add(task);
+            }
+        }
+        matches.sort(Comparator.comparing(task -> task.description, String.CASE_INSENSITIVE_ORDER));
+        return matches.subList(0, Math.min(20, matches.size()));
+    }
+}
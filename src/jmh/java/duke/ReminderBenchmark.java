@@ -0,0 +1,90 @@
+package duke;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passes a year of days over a list whose deadlines and events all fall in that year,
+ * with the timing wheel against scanning the whole list every day for what is due, as a periodic check would.
+ * Each measurement is one batch of DAYS days, starting over from the day before the first date.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = ReminderBenchmark.DAYS)
+@Measurement(iterations = 5, batchSize = ReminderBenchmark.DAYS)
+public class ReminderBenchmark {
+    static final int DAYS = 370;
+
+    @Param({"1000000"})
+    public int size;
+
+    private TaskList tasks;
+    private Reminders reminders;
+    private long day;
+    private final List<Reminders.Reminder> shown = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Reminders.setClock(() -> day);
+        day = BenchmarkTasks.START.toEpochDay() - 1;
+        tasks = BenchmarkTasks.generate(size);
+    }
+
+    @Setup(Level.Iteration)
+    public void startOver() {
+        day = BenchmarkTasks.START.toEpochDay() - 1;
+        reminders = new Reminders(tasks);
+        reminders.scheduleAll(tasks.snapshot());
+        reminders.drain(shown);
+        shown.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Reminders.setClock(() -> LocalDate.now().toEpochDay());
+    }
+
+    @Benchmark
+    public int passDayWithWheel() {
+        day += 1;
+        final int hidden = reminders.drain(shown);
+        shown.clear();
+        return hidden;
+    }
+
+    @Benchmark
+    public int passDayWithScan() {
+        day += 1;
+        int due = 0;
+        for (Task task : tasks.snapshot()) {
+            if (task.isDone) {
+                continue;
+            }
+            if (task instanceof Deadline) {
+                final long by = ((Deadline) task).by.toEpochDay();
+                if (by == day + 1 || by == day - 1) {
+                    due += 1;
+                }
+            } else if (task instanceof Event && ((Event) task).from.toEpochDay() == day + 1) {
+                due += 1;
+            }
+        }
+        return due;
+    }
+}
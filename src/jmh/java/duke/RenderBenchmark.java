@@ -0,0 +1,97 @@
+package duke;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures list and saving as a text file with the rendered lines of the tasks cached, against the same
+ * with every task rendered from scratch, which is what they cost before the lines were cached
+ * and still cost the first time. The fresh tasks are copies made before each call, outside the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RenderBenchmark {
+    @Param({"100000"})
+    public int size;
+
+    private TaskList tasks;
+    private TaskList freshTasks;
+    private PrintStream console;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        tasks = BenchmarkTasks.generate(size);
+        final String nullDevice = System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null";
+        console = new PrintStream(new BufferedOutputStream(new FileOutputStream(nullDevice)), true, "UTF-8");
+        System.setOut(console);
+        directory = Files.createTempDirectory("duke-bench");
+        Storage.setTextFormat(true);
+    }
+
+    /**
+     * Copy the tasks before each call, so that none of them has been rendered yet,
+     * then collect the garbage of the copying so that it isn't collected during the call.
+     */
+    @Setup(Level.Invocation)
+    public void copyTasks() {
+        final ArrayList<Task> copies = new ArrayList<>(size);
+        for (Task task : tasks.snapshot()) {
+            copies.add(task.withDone(task.isDone));
+        }
+        freshTasks = new TaskList();
+        freshTasks.addAll(copies);
+        System.gc();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkTasks.restoreOutput();
+        console.close();
+        Storage.setTextFormat(false);
+        for (Path file : Files.list(directory).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void listCached() {
+        Ui.printListOfTasks(tasks.snapshot());
+        Output.flush();
+    }
+
+    @Benchmark
+    public void listUncached() {
+        Ui.printListOfTasks(freshTasks.snapshot());
+        Output.flush();
+    }
+
+    @Benchmark
+    public void saveCached() {
+        new Storage().storeChanges(directory.resolve("cached.txt").toString(), tasks);
+    }
+
+    @Benchmark
+    public void saveUncached() {
+        new Storage().storeChanges(directory.resolve("uncached.txt").toString(), freshTasks);
+    }
+}
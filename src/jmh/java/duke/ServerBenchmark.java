@@ -0,0 +1,105 @@
+package duke;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the server: every client sends a command and waits for its reply, all of them at once.
+ * One operation is a round of one command from each client, so the commands per second are
+ * the score times the number of connections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ServerBenchmark {
+    private static final String[] COMMANDS = {
+        "find library", "due 2023-02-01", "search book AND NOT lib*", "mark 7", "unmark 7"
+    };
+
+    @Param({"1", "100", "1000"})
+    public int connections;
+
+    private DukeServer server;
+    private Thread acceptor;
+    private Socket[] sockets;
+    private BufferedReader[] readers;
+    private Writer[] writers;
+    private int round = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        TaskLists.put(TaskLists.DEFAULT_LIST, BenchmarkTasks.generate(1000));
+        Output.setQuiet(true);
+        server = new DukeServer(0);
+        acceptor = new Thread(server::run, "duke-benchmark-acceptor");
+        acceptor.start();
+        sockets = new Socket[connections];
+        readers = new BufferedReader[connections];
+        writers = new Writer[connections];
+        for (int i = 0; i < connections; i += 1) {
+            sockets[i] = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+            sockets[i].setTcpNoDelay(true);
+            readers[i] = new BufferedReader(new InputStreamReader(sockets[i].getInputStream(), StandardCharsets.UTF_8));
+            writers[i] = new BufferedWriter(new OutputStreamWriter(sockets[i].getOutputStream(), StandardCharsets.UTF_8));
+            readReply(readers[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        server.close();
+        acceptor.join();
+        Output.setQuiet(false);
+    }
+
+    /**
+     * Send a command on every connection, then collect every reply.
+     * The replies are small enough to wait in the socket buffers while the others are sent.
+     */
+    @Benchmark
+    public int roundOfCommands() throws IOException {
+        final String command = COMMANDS[round % COMMANDS.length] + "\n";
+        round += 1;
+        for (Writer writer : writers) {
+            writer.write(command);
+            writer.flush();
+        }
+        int lines = 0;
+        for (BufferedReader reader : readers) {
+            lines += readReply(reader);
+        }
+        return lines;
+    }
+
+    private static int readReply(BufferedReader reader) throws IOException {
+        int lines = 0;
+        String line = reader.readLine();
+        while (line != null && !line.isEmpty()) {
+            lines += 1;
+            line = reader.readLine();
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,55 @@
+package duke;
+
+import duke.exceptions.InvalidCommandException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what counting and timing every command costs, by running a cheap command with statistics on and off,
+ * and recording into a histogram on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StatsBenchmark {
+    @Param({"true", "false"})
+    public boolean enabled;
+
+    private TaskList tasks;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkTasks.silenceOutput();
+        Output.setQuiet(true);
+        Stats.setEnabled(enabled);
+        tasks = BenchmarkTasks.generate(1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Stats.setEnabled(true);
+        Output.setQuiet(false);
+        BenchmarkTasks.restoreOutput();
+    }
+
+    @Benchmark
+    public void markDone() throws InvalidCommandException {
+        Command.execute(tasks, "mark 1");
+    }
+
+    @Benchmark
+    public void recordLatency() {
+        histogram.record(System.nanoTime() & 0xFFFFF);
+    }
+}
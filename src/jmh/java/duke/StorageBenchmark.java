@@ -0,0 +1,129 @@
+package duke;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import duke.exceptions.FormatException;
+import duke.exceptions.NoDescriptionException;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures saving and loading the task list in both storage formats,
+ * and the parallel text loader against the sequential Scanner loader it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StorageBenchmark {
+    @Param({"100000"})
+    public int size;
+
+    private TaskList tasks;
+    private Path directory;
+    private Path textFile;
+    private Path binaryFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkTasks.silenceOutput();
+        tasks = BenchmarkTasks.generate(size);
+        directory = Files.createTempDirectory("duke-bench");
+        textFile = directory.resolve("text.txt");
+        binaryFile = directory.resolve("binary.txt");
+        final List<String> lines = new ArrayList<>(size);
+        for (Task task : tasks.snapshot()) {
+            lines.add(task.toStorage());
+        }
+        Files.write(textFile, lines);
+        new BinarySnapshot(tasks.snapshot()).write(binaryFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkTasks.restoreOutput();
+        for (Path file : Files.list(directory).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void saveText() {
+        Storage.setTextFormat(true);
+        new Storage().storeChanges(directory.resolve("saved.txt").toString(), tasks);
+    }
+
+    @Benchmark
+    public void saveBinary() {
+        Storage.setTextFormat(false);
+        new Storage().storeChanges(directory.resolve("saved.bin").toString(), tasks);
+    }
+
+    @Benchmark
+    public TaskList loadBinary() throws IOException {
+        final ArrayList<Task> loaded = new ArrayList<>();
+        BinarySnapshot.load(binaryFile, loaded);
+        final TaskList tasks = new TaskList();
+        tasks.addAll(loaded);
+        return tasks;
+    }
+
+    @Benchmark
+    public TaskList loadTextParallel() throws IOException {
+        final ArrayList<Task> loaded = new ArrayList<>();
+        TextLoader.load(textFile, loaded, false);
+        final TaskList tasks = new TaskList();
+        tasks.addAll(loaded);
+        return tasks;
+    }
+
+    @Benchmark
+    public TaskList loadTextSequential() throws FileNotFoundException {
+        final TaskList tasks = new TaskList();
+        printFileContents(tasks, textFile.toString());
+        return tasks;
+    }
+
+    /**
+     * Print the contents in the file line by line, and add it into the task list.
+     * This is the sequential loader that TextLoader replaced, kept here as the baseline to measure it against.
+     *
+     * @param tasks The list containing the user's tasks
+     * @param filePath The filepath to open the file and store date.
+     * @throws FileNotFoundException If the file is not found by using filepath, the exception will be thrown.
+     */
+    private static void printFileContents(TaskList tasks, String filePath) throws FileNotFoundException {
+        File f = new File(filePath);
+        Scanner s = new Scanner(f, "UTF-8");
+        Output.println("These are the task from your file: ");
+        while (s.hasNext()) {
+            String task = s.nextLine();
+            Output.println(task);
+            try {
+                tasks.add(Storage.parseTask(task));
+            } catch (NoDescriptionException | FormatException | ParseException e) {
+                Output.println("WOOFS!!! Something went wrong");
+                Ui.printLine();
+            }
+        }
+        Ui.printLine();
+    }
+}
@@ -0,0 +1,215 @@
+package duke;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * A compact store of tasks that keeps each field of every task in an array of its own, instead of an object per task.
+ * The type is a byte, the dates are epoch days in a long array with two slots per task (by, or from and to),
+ * whether a task is done is a bit, and the descriptions are UTF-8 bytes one after another in one shared arena.
+ * A task then takes about 40 bytes plus its description, against well over 100 for a Task with its String
+ * and LocalDate objects, and a scan of one field touches only that field's array.
+ *
+ * Tasks are only added at the end. get makes a Task from the columns each time it is called,
+ * so the tasks it returns can be used like any other.
+ * The list doesn't keep its tasks this way. The store is the layout ColumnarBenchmark measures the list against.
+ */
+public final class TaskColumns extends AbstractList<Task> implements RandomAccess {
+    static final byte TODO = 0;
+    static final byte DEADLINE = 1;
+    static final byte EVENT = 2;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size = 0;
+    private int[] ids;
+    private byte[] types;
+    /** The dates of the task at i are at 2i and 2i + 1: by and unused for a deadline, from and to for an event. */
+    private long[] days;
+    private final BitSet done = new BitSet();
+    /** The description of the task at i is in the arena from descriptionEnds[i - 1], or 0, to descriptionEnds[i]. */
+    private int[] descriptionEnds;
+    private byte[] arena;
+    private int arenaSize = 0;
+
+    /**
+     * @param capacity The number of tasks to make room for up front.
+     */
+    public TaskColumns(int capacity) {
+        final int tasks = Math.max(capacity, INITIAL_CAPACITY);
+        ids = new int[tasks];
+        types = new byte[tasks];
+        days = new long[tasks * 2];
+        descriptionEnds = new int[tasks];
+        arena = new byte[tasks * 16];
+    }
+
+    /**
+     * @param tasks The tasks to store, in order.
+     * @return A store holding every task.
+     */
+    public static TaskColumns of(Iterable<Task> tasks) {
+        final int capacity = tasks instanceof Collection ? ((Collection<?>) tasks).size() : 0;
+        final TaskColumns columns = new TaskColumns(capacity);
+        for (Task task : tasks) {
+            columns.add(task);
+        }
+        return columns;
+    }
+
+    /**
+     * Add a task at the end of the store, keeping its id.
+     *
+     * @param task The task to add.
+     * @return True, as the store always changes.
+     */
+    @Override
+    public boolean add(Task task) {
+        if (size == ids.length) {
+            final int capacity = size + (size >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            types = Arrays.copyOf(types, capacity);
+            days = Arrays.copyOf(days, capacity * 2);
+            descriptionEnds = Arrays.copyOf(descriptionEnds, capacity);
+        }
+        ids[size] = task.id;
+        if (task instanceof Deadline) {
+            types[size] = DEADLINE;
+            days[size * 2] = ((Deadline) task).by.toEpochDay();
+        } else if (task instanceof Event) {
+            types[size] = EVENT;
+            days[size * 2] = ((Event) task).from.toEpochDay();
+            days[size * 2 + 1] = ((Event) task).to.toEpochDay();
+        } else {
+            types[size] = TODO;
+        }
+        done.set(size, task.isDone);
+        final byte[] description = task.description.getBytes(StandardCharsets.UTF_8);
+        if (arenaSize + description.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arenaSize + description.length, arena.length + (arena.length >> 1)));
+        }
+        System.arraycopy(description, 0, arena, arenaSize, description.length);
+        arenaSize += description.length;
+        descriptionEnds[size] = arenaSize;
+        size += 1;
+        modCount += 1;
+        return true;
+    }
+
+    /**
+     * Make the task at the index from its columns.
+     *
+     * @param index The index of the task.
+     * @return A new task equal to the one that was added at the index.
+     * @throws IndexOutOfBoundsException If the index is not in the store.
+     */
+    @Override
+    public Task get(int index) {
+        final Task task;
+        switch (getType(index)) {
+        case DEADLINE:
+            task = new Deadline(getDescription(index), LocalDate.ofEpochDay(days[index * 2]));
+            break;
+        case EVENT:
+            task = new Event(getDescription(index), LocalDate.ofEpochDay(days[index * 2]),
+                    LocalDate.ofEpochDay(days[index * 2 + 1]));
+            break;
+        default:
+            task = new Todo(getDescription(index));
+            break;
+        }
+        task.id = ids[index];
+        task.isDone = done.get(index);
+        return task;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index The index of a task.
+     * @return TODO, DEADLINE or EVENT.
+     * @throws IndexOutOfBoundsException If the index is not in the store.
+     */
+    public byte getType(int index) {
+        return types[checkIndex(index)];
+    }
+
+    /**
+     * @param index The index of a task.
+     * @return The description of the task, decoded from the arena.
+     * @throws IndexOutOfBoundsException If the index is not in the store.
+     */
+    public String getDescription(int index) {
+        final int start = checkIndex(index) == 0 ? 0 : descriptionEnds[index - 1];
+        return new String(arena, start, descriptionEnds[index] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param index The index of a deadline or an event.
+     * @return The epoch day the deadline is due by or the event starts on.
+     * @throws IndexOutOfBoundsException If the index is not in the store.
+     */
+    public long getFirstDay(int index) {
+        return days[checkIndex(index) * 2];
+    }
+
+    /**
+     * @param index The index of an event.
+     * @return The epoch day the event ends on.
+     * @throws IndexOutOfBoundsException If the index is not in the store.
+     */
+    public long getLastDay(int index) {
+        return days[checkIndex(index) * 2 + 1];
+    }
+
+    /**
+     * @param index The index of a task.
+     * @return Whether the task is done.
+     * @throws IndexOutOfBoundsException If the index is not in the store.
+     */
+    public boolean isDone(int index) {
+        return done.get(checkIndex(index));
+    }
+
+    /**
+     * Mark or unmark the task at the index, which only flips its bit.
+     *
+     * @param index The index of a task.
+     * @param isDone Whether the task is done.
+     * @throws IndexOutOfBoundsException If the index is not in the store.
+     */
+    public void setDone(int index, boolean isDone) {
+        done.set(checkIndex(index), isDone);
+    }
+
+    /**
+     * @return The number of tasks that are done, counted a word of bits at a time.
+     */
+    public int countDone() {
+        return done.cardinality();
+    }
+
+    /**
+     * @return The bytes taken by the arrays of the store, including the room kept for tasks to come.
+     */
+    public long getMemoryBytes() {
+        final long arrayHeader = 16;
+        return (long) ids.length * Integer.BYTES + types.length + (long) days.length * Long.BYTES
+                + done.size() / Byte.SIZE + (long) descriptionEnds.length * Integer.BYTES + arena.length
+                + 5 * arrayHeader;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is not in a store of " + size + " tasks");
+        }
+        return index;
+    }
+}
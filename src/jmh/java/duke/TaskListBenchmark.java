@@ -0,0 +1,149 @@
+package duke;
+
+import duke.exceptions.FormatException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stress test of the task list: threads adding, deleting and marking tasks run against threads
+ * listing and searching it. Every change is counted, and when the run ends the list is checked against
+ * the counts, so a lost update fails the benchmark. Readers check every snapshot they search as they go.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskListBenchmark {
+    private static final int INITIAL_SIZE = 10000;
+
+    private TaskList tasks;
+    private final AtomicLong added = new AtomicLong();
+    private final AtomicLong removed = new AtomicLong();
+    /** Done tasks added by marking, less those taken away by unmarking or deleting. */
+    private final AtomicLong doneChange = new AtomicLong();
+    private long initialDone;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = BenchmarkTasks.generate(INITIAL_SIZE);
+        initialDone = countDone(tasks.snapshot());
+    }
+
+    @TearDown(Level.Trial)
+    public void verify() throws FormatException {
+        final TaskSnapshot snapshot = tasks.snapshot();
+        if (snapshot.size() != INITIAL_SIZE + added.get() - removed.get()) {
+            throw new IllegalStateException("Expected " + (INITIAL_SIZE + added.get() - removed.get())
+                    + " tasks but found " + snapshot.size());
+        }
+        for (int i = 1; i < snapshot.size(); i += 1) {
+            if (snapshot.get(i - 1).id >= snapshot.get(i).id) {
+                throw new IllegalStateException("Ids are out of order at " + i);
+            }
+        }
+        if (countDone(snapshot) != initialDone + doneChange.get()) {
+            throw new IllegalStateException("Expected " + (initialDone + doneChange.get())
+                    + " done tasks but found " + countDone(snapshot));
+        }
+        final PostingList indexed = tasks.wordIndex.search("NOT unusedword");
+        if (indexed.size() != snapshot.size()) {
+            throw new IllegalStateException("The word index has " + indexed.size() + " tasks instead of "
+                    + snapshot.size());
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public Task addThenDelete() {
+        tasks.add(new Todo("read book " + added.get()));
+        added.incrementAndGet();
+        while (true) {
+            final int size = tasks.snapshot().size();
+            try {
+                final Task task = tasks.remove(ThreadLocalRandom.current().nextInt(size));
+                removed.incrementAndGet();
+                if (task.isDone) {
+                    doneChange.decrementAndGet();
+                }
+                return task;
+            } catch (IndexOutOfBoundsException e) {
+                // Another thread deleted a task after the size was read
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public Task toggleDone() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final boolean isDone = random.nextBoolean();
+        try {
+            final Task task = tasks.setDone(random.nextInt(tasks.snapshot().size()), isDone);
+            if (task != null) {
+                doneChange.addAndGet(isDone ? 1 : -1);
+            }
+            return task;
+        } catch (IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public int search() throws FormatException {
+        final TaskList.Found found = tasks.find(list -> list.wordIndex.search("book AND NOT milk"));
+        int matches = 0;
+        for (int i = 0; i < found.ids.size(); i += 1) {
+            final int index = found.snapshot.indexOfId(found.ids.get(i));
+            if (index == -1) {
+                continue;
+            }
+            final String description = found.snapshot.get(index).description;
+            if (!description.contains("book") || description.contains("milk")) {
+                throw new IllegalStateException("Found a task that doesn't match: " + description);
+            }
+            matches += 1;
+        }
+        return matches;
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public long list() {
+        final TaskSnapshot snapshot = tasks.snapshot();
+        long lastId = -1;
+        for (Task task : snapshot) {
+            if (task.id <= lastId) {
+                throw new IllegalStateException("Ids are out of order in a snapshot");
+            }
+            lastId = task.id;
+        }
+        return lastId;
+    }
+
+    private static long countDone(TaskSnapshot snapshot) {
+        long done = 0;
+        for (Task task : snapshot) {
+            if (task.isDone) {
+                done += 1;
+            }
+        }
+        return done;
+    }
+}
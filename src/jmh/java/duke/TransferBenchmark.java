@@ -0,0 +1,72 @@
+package duke;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures exporting a list to CSV and JSON files, and importing the files into an empty list,
+ * which includes indexing the tasks as they are added.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransferBenchmark {
+    @Param({"100000"})
+    public int size;
+
+    private TaskSnapshot tasks;
+    private Path directory;
+    private Path csvFile;
+    private Path jsonFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        tasks = BenchmarkTasks.generate(size).snapshot();
+        directory = Files.createTempDirectory("duke-bench");
+        csvFile = directory.resolve("tasks.csv");
+        jsonFile = directory.resolve("tasks.json");
+        Transfer.exportFile(tasks, csvFile, Transfer.Format.CSV);
+        Transfer.exportFile(tasks, jsonFile, Transfer.Format.JSON);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (Path file : Files.list(directory).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public Transfer.Result exportCsv() throws IOException {
+        return Transfer.exportFile(tasks, directory.resolve("export.csv"), Transfer.Format.CSV);
+    }
+
+    @Benchmark
+    public Transfer.Result exportJson() throws IOException {
+        return Transfer.exportFile(tasks, directory.resolve("export.json"), Transfer.Format.JSON);
+    }
+
+    @Benchmark
+    public Transfer.Result importCsv() throws IOException {
+        return Transfer.importFile(new TaskList(), csvFile, Transfer.Format.CSV);
+    }
+
+    @Benchmark
+    public Transfer.Result importJson() throws IOException {
+        return Transfer.importFile(new TaskList(), jsonFile, Transfer.Format.JSON);
+    }
+}
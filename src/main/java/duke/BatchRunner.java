@@ -0,0 +1,89 @@
+package duke;
+
+import duke.exceptions.InvalidCommandException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Runs a script of commands without any interaction, as fast as the commands can be executed.
+ * A reader thread reads the script through one buffered reader and hands the commands over a bounded
+ * queue to the thread executing them, so reading and executing overlap without the script piling up in memory.
+ * What the commands print is written out whenever the executing thread catches up with the reader.
+ */
+public class BatchRunner {
+    /** Number of commands read ahead of the one being executed. */
+    private static final int QUEUE_CAPACITY = 4096;
+    /** Marks the end of the script in the queue. Compared by identity, so a command can never match it. */
+    private static final String END_OF_SCRIPT = new String("bye");
+
+    private final BlockingQueue<String> commands = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BufferedReader input;
+
+    public BatchRunner(BufferedReader input) {
+        this.input = input;
+    }
+
+    /**
+     * Execute every command in the script, until it ends or reaches bye.
+     * Blank lines and lines starting with # are skipped, like in the interactive mode.
+     *
+     * @return The number of commands executed.
+     */
+    public int run() {
+        final Thread reader = new Thread(this::readCommands, "duke-script-reader");
+        reader.setDaemon(true);
+        reader.start();
+        int executed = 0;
+        try {
+            String command = commands.take();
+            while (command != END_OF_SCRIPT && !command.trim().equals("bye")) {
+                try {
+                    Duke.process(command);
+                } catch (InvalidCommandException e) {
+                    Output.println("WOOF!! The command is not found, please type 'help' for more info");
+                    Ui.printLine();
+                }
+                executed += 1;
+                command = commands.poll();
+                if (command == null) {
+                    // Nothing more to execute for now, so show what has been printed while waiting.
+                    Output.flush();
+                    command = commands.take();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        reader.interrupt();
+        Output.flush();
+        return executed;
+    }
+
+    private void readCommands() {
+        try {
+            String line = input.readLine();
+            while (line != null) {
+                final String command = line.trim();
+                if (!command.isEmpty() && command.charAt(0) != '#') {
+                    commands.put(line);
+                    if (command.equals("bye")) {
+                        return;
+                    }
+                }
+                line = input.readLine();
+            }
+        } catch (IOException e) {
+            Output.println("Something went wrong: " + e.getMessage());
+        } catch (InterruptedException e) {
+            return;
+        }
+        try {
+            commands.put(END_OF_SCRIPT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package duke;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A binary snapshot of the task list, which can be loaded without parsing any text.
+ *
+ * The file starts with a header of [magic][version][task count][reserved], followed by
+ * a column of type and done flags, two columns of epoch days for the task dates,
+ * and finally the length prefixed UTF-8 descriptions, all in the order of the list.
+ */
+public class BinarySnapshot {
+    static final int MAGIC = 0x44554B45;
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    private static final byte TODO = 1;
+    private static final byte DEADLINE = 2;
+    private static final byte EVENT = 3;
+    private static final byte TYPE_MASK = 0x03;
+    private static final byte DONE_FLAG = (byte) 0x80;
+    /** The furthest day from 1970 that a Date can hold, with a day to spare for the time zone. */
+    private static final long MAX_DAY = Long.MAX_VALUE / TimeUnit.DAYS.toMillis(1) - 1;
+
+    private final byte[] flags;
+    private final long[] firstDays;
+    private final long[] secondDays;
+    private final String[] descriptions;
+
+    /**
+     * Capture the current state of every task, so the snapshot can be written while the list keeps changing.
+     *
+     * @param tasks The list containing the user's tasks.
+     */
+    public BinarySnapshot(List<Task> tasks) {
+        final int count = tasks.size();
+        flags = new byte[count];
+        firstDays = new long[count];
+        secondDays = new long[count];
+        descriptions = new String[count];
+        int i = 0;
+        for (Task task : tasks) {
+            byte flag;
+            if (task instanceof Deadline) {
+                flag = DEADLINE;
+                firstDays[i] = ((Deadline) task).by.toEpochDay();
+            } else if (task instanceof Event) {
+                flag = EVENT;
+                firstDays[i] = ((Event) task).from.toEpochDay();
+                secondDays[i] = ((Event) task).to.toEpochDay();
+            } else {
+                flag = TODO;
+            }
+            if (task.isDone) {
+                flag |= DONE_FLAG;
+            }
+            flags[i] = flag;
+            descriptions[i] = task.description;
+            i += 1;
+        }
+    }
+
+    /**
+     * Write the snapshot to the given path and force it to disk.
+     *
+     * @param path The path of the file to write.
+     * @throws IOException If error occurred when writing to file, the exception will be thrown.
+     */
+    public void write(Path path) throws IOException {
+        final int count = flags.length;
+        try (FileOutputStream file = new FileOutputStream(path.toFile());
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(count);
+            output.writeInt(0);
+            output.write(flags);
+            for (int i = count; i < align(count); i += 1) {
+                output.writeByte(0);
+            }
+            for (long day : firstDays) {
+                output.writeLong(day);
+            }
+            for (long day : secondDays) {
+                output.writeLong(day);
+            }
+            for (String description : descriptions) {
+                final byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+            }
+            output.flush();
+            file.getFD().sync();
+        }
+    }
+
+    /**
+     * Check whether the file at the given path starts with the binary snapshot header.
+     *
+     * @param path The path of the storage file.
+     * @return True if the file is a binary snapshot, false if it is in the text format or too short.
+     * @throws IOException If error occurred when reading the file.
+     */
+    public static boolean isBinarySnapshot(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) != -1) {
+                // keep reading until the magic number is filled or the file ends
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Map the snapshot at the given path into memory and add its tasks to the end of the list.
+     *
+     * @param path The path of the snapshot file.
+     * @param tasks The list for storing tasks.
+     * @throws IOException If the file couldn't be read or isn't a snapshot of a supported version.
+     */
+    public static void load(Path path, ArrayList<Task> tasks) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Storage file is too large to be mapped.");
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Storage file is not a snapshot.");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Storage file version " + buffer.getInt(4) + " is not supported.");
+            }
+            final int count = buffer.getInt(8);
+            if (count < 0 || count > buffer.limit() / (1 + 8 + 8 + 4)) {
+                throw new IOException("Storage file is truncated.");
+            }
+            final int firstDaysOffset = HEADER_SIZE + align(count);
+            final int secondDaysOffset = firstDaysOffset + count * 8;
+            int descriptionOffset = secondDaysOffset + count * 8;
+            tasks.ensureCapacity(tasks.size() + count);
+            byte[] bytes = new byte[64];
+            for (int i = 0; i < count; i += 1) {
+                if (descriptionOffset + 4 > buffer.limit()) {
+                    throw new IOException("Storage file is truncated.");
+                }
+                final int length = buffer.getInt(descriptionOffset);
+                if (length < 0 || descriptionOffset + 4 + length > buffer.limit()) {
+                    throw new IOException("Storage file is truncated.");
+                }
+                if (bytes.length < length) {
+                    bytes = new byte[length];
+                }
+                buffer.get(descriptionOffset + 4, bytes, 0, length);
+                descriptionOffset += 4 + length;
+                final String description = new String(bytes, 0, length, StandardCharsets.UTF_8);
+                final byte flag = buffer.get(HEADER_SIZE + i);
+                final long firstDay = buffer.getLong(firstDaysOffset + i * 8);
+                final long secondDay = buffer.getLong(secondDaysOffset + i * 8);
+                final Task task;
+                switch (flag & TYPE_MASK) {
+                case DEADLINE:
+                    task = new Deadline(description, dayOf(firstDay));
+                    break;
+                case EVENT:
+                    task = new Event(description, dayOf(firstDay), dayOf(secondDay));
+                    break;
+                default:
+                    task = new Todo(description);
+                    break;
+                }
+                if ((flag & DONE_FLAG) != 0) {
+                    task.markAsDone();
+                }
+                tasks.add(task);
+            }
+        }
+    }
+
+    /**
+     * Round the size of the flags column up, so the date columns start on an 8 byte boundary.
+     */
+    private static int align(int count) {
+        return (count + 7) & ~7;
+    }
+
+    private static LocalDate dayOf(long epochDay) throws IOException {
+        if (epochDay < LocalDate.MIN.toEpochDay() || epochDay > LocalDate.MAX.toEpochDay()) {
+            throw new IOException("Storage file has a date out of range.");
+        }
+        return LocalDate.ofEpochDay(epochDay);
+    }
+}
@@ -4,116 +4,145 @@ import duke.exceptions.FormatException;
 import duke.exceptions.InvalidCommandException;
 import duke.exceptions.NoDescriptionException;
 
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.ParseException;
-import java.util.ArrayList;
-import java.util.Date;
+import java.time.LocalDate;
 
 /**
  * The command class handles different types of commands.
  * Including add todo, add deadline, add event, mark, unmark, and find task.
  */
 public class Command {
+    /** The number of tasks list shows at once unless the user asks for another size. */
+    static final int PAGE_SIZE = 20;
+    /** The most tasks a bare list prints all at once, as it always did, before it shows them a page at a time. */
+    static final int UNPAGED_LIMIT = 100;
+
+    /** The commands Duke understands. New commands are added here instead of growing execute. */
+    static final CommandRegistry registry = new CommandRegistry();
+
+    static {
+        registry.register("list", CommandRegistry.Arguments.PAGE, retry("list"), Command::listTasks);
+        registry.register("help", CommandRegistry.Arguments.NONE, null,
+                (tasks, args) -> Ui.showHelpMessage());
+        registry.register("stats", CommandRegistry.Arguments.NONE, null,
+                (tasks, args) -> Stats.showReport());
+        registry.register("use", CommandRegistry.Arguments.NAME, retry("use a list"), Command::useList);
+        registry.register("lists", CommandRegistry.Arguments.NONE, null,
+                (tasks, args) -> Ui.printTaskLists(TaskLists.names(), TaskLists.currentName()));
+        registry.register("undo", CommandRegistry.Arguments.NONE, null,
+                (tasks, args) -> Ui.showHistoryChange("undone", "undo", tasks.undo(), tasks.snapshot().size()));
+        registry.register("redo", CommandRegistry.Arguments.NONE, null,
+                (tasks, args) -> Ui.showHistoryChange("redone", "redo", tasks.redo(), tasks.snapshot().size()));
+        registry.register("todo", CommandRegistry.Arguments.DESCRIPTION, retry("add todo"),
+                (tasks, args) -> Ui.showAddTaskMessage(addTodo(tasks, args)));
+        registry.register("deadline", CommandRegistry.Arguments.DESCRIPTION, retry("add deadline"),
+                (tasks, args) -> Ui.showAddTaskMessage(addDeadline(tasks, args)));
+        registry.register("event", CommandRegistry.Arguments.DESCRIPTION, retry("add event"),
+                (tasks, args) -> Ui.showAddTaskMessage(addEvent(tasks, args)));
+        registry.register("mark", CommandRegistry.Arguments.INDEX, retry("mark task"), Command::markTask);
+        registry.register("unmark", CommandRegistry.Arguments.INDEX, retry("unmark task"), Command::unmarkTask);
+        registry.register("delete", CommandRegistry.Arguments.INDEX, retry("delete task"), Command::deleteTask);
+        registry.register("find", CommandRegistry.Arguments.QUERY, retry("find"), Command::find);
+        registry.register("search", CommandRegistry.Arguments.QUERY,
+                "Please check the brackets and operators and try again υ´• ﻌ •`υ", Command::search);
+        registry.register("due", CommandRegistry.Arguments.DATE, retry("due"),
+                (tasks, args) -> findByDate(tasks, "due", args));
+        registry.register("on", CommandRegistry.Arguments.DATE, retry("on"),
+                (tasks, args) -> findByDate(tasks, "on", args));
+        registry.register("between", CommandRegistry.Arguments.DATE, retry("between"),
+                (tasks, args) -> findByDate(tasks, "between", args));
+        registry.register("import", CommandRegistry.Arguments.FILE, retry("import"),
+                (tasks, args) -> transfer(tasks, "import", args));
+        registry.register("export", CommandRegistry.Arguments.FILE, retry("export"),
+                (tasks, args) -> transfer(tasks, "export", args));
+    }
+
+    private static String retry(String action) {
+        return "Please try to " + action + " again υ´• ﻌ •`υ";
+    }
+
     /**
      * The function will check for the command entered by the user and chexk whether it is valid.
-     * It will then call the corresponding methods to execute the command.
+     * It will then call the corresponding handler in the registry to execute the command.
      *
      * @param tasks The list containing the user's tasks.
      * @param userInput The command entered by the user.
      * @throws InvalidCommandException If the command entered is not found, the exception will be thrown.
      */
-    public static void execute(ArrayList<Task> tasks, String userInput) throws InvalidCommandException {
-        final String[] commandTypeAndParams = new Parser().parseCommand(userInput);
-        final String commandType = commandTypeAndParams[0];
-        final String commandArgs = commandTypeAndParams[1];
-        switch (commandType) {
-        case "list":
-            Ui.printListOfTasks(tasks);
-            break;
-        case "todo":
-            try {
-                addTodo(tasks, commandArgs);
-                Ui.showAddTaskMessage(tasks);
-            } catch (NoDescriptionException e) {
-                System.out.println("WOOFS!!! The description of a todo cannot be empty.");
-                System.out.println("Please try to add todo again υ´• ﻌ •`υ");
-                Ui.printLine();
-            }
-            break;
-        case "deadline":
-            try {
-                addDeadline(tasks, commandArgs);
-                Ui.showAddTaskMessage(tasks);
-            } catch (NoDescriptionException e) {
-                System.out.println("WOOFS!!! The description of a deadline cannot be empty.");
-                System.out.println("Please try to add deadline again υ´• ﻌ •`υ");
-                Ui.printLine();
-            } catch (FormatException | ParseException e) {
-                System.out.println("WOOFS!!! The format of entering deadline is incorrect.");
-                System.out.println("Please try to add deadline again υ´• ﻌ •`υ");
-                Ui.printLine();
-            }
-            break;
-        case "event":
-            try {
-                addEvent(tasks, commandArgs);
-                Ui.showAddTaskMessage(tasks);
-            } catch (NoDescriptionException e) {
-                System.out.println("WOOFS!!! The description of a event cannot be empty.");
-                System.out.println("Please try to add event again υ´• ﻌ •`υ");
-                Ui.printLine();
-            } catch (FormatException | ParseException e) {
-                System.out.println("WOOFS!!! The format of entering event is incorrect.");
-                System.out.println("Please try to add event again υ´• ﻌ •`υ");
-                Ui.printLine();
-            }
-            break;
-        case "mark":
-            try {
-                markTask(tasks, commandArgs);
-            } catch (NoDescriptionException e) {
-                System.out.println("WOOFS!!! The index of entering task must be stated.");
-                System.out.println("Please try to mark task again υ´• ﻌ •`υ");
-                Ui.printLine();
-            } catch (IndexOutOfBoundsException | FormatException e) {
-                System.out.println("WOOFS!!! The index of entering task is not valid.");
-                System.out.println("Please try to mark task again υ´• ﻌ •`υ");
-                Ui.printLine();
-            }
-            break;
-        case "unmark":
-            try {
-                unmarkTask(tasks, commandArgs);
-            } catch (NoDescriptionException e) {
-                System.out.println("WOOFS!!! The index of entering task must be stated.");
-                System.out.println("Please try to mark task again υ´• ﻌ •`υ");
-                Ui.printLine();
-            } catch (IndexOutOfBoundsException | FormatException e) {
-                System.out.println("WOOFS!!! The index of entering task is not valid.");
-                System.out.println("Please try to mark task again υ´• ﻌ •`υ");
-                Ui.printLine();
-            }
-            break;
-        case "delete":
-            try {
-                TaskList.deleteTask(tasks, commandArgs);
-            } catch (NoDescriptionException e) {
-                System.out.println("WOOFS!!! The index of entering task must be stated.");
-                System.out.println("Please try to delete task again υ´• ﻌ •`υ");
-                Ui.printLine();
-            } catch (IndexOutOfBoundsException | FormatException e) {
-                System.out.println("WOOFS!!! The index of entering task is not valid.");
-                System.out.println("Please try to delete task again υ´• ﻌ •`υ");
-                Ui.printLine();
+    public static void execute(TaskList tasks, String userInput) throws InvalidCommandException {
+        registry.execute(tasks, userInput);
+    }
+
+    /**
+     * List a window of the tasks, so that a long list doesn't flood the screen.
+     * A bare list prints every task unless there are more than UNPAGED_LIMIT, in which case it shows the first page.
+     * Otherwise the window is list [page] [size], or list from [cursor] [size], where the cursor is the one shown
+     * under the previous window. list all prints every task,
+     * which goes out in pieces as it is printed, so it suits piping a long list somewhere else.
+     * A query such as type:D done:no by<2023-04-01 sort:by limit:20 lists the matching tasks instead.
+     *
+     * @param tasks The list containing the user's tasks.
+     * @param commandArgs The window or the query entered by the user, which may be empty.
+     * @throws FormatException If the page, cursor or size is not a number or is out of range, or the query is not valid.
+     * @throws ParseException If a date in the query couldn't be parsed.
+     */
+    public static void listTasks(TaskList tasks, String commandArgs) throws FormatException, ParseException {
+        if (ListQuery.isQuery(commandArgs)) {
+            final ListQuery query = ListQuery.parse(commandArgs);
+            Output.println("Below are the tasks that match " + commandArgs + ": ");
+            Ui.printQueryResult(query.run(tasks));
+            return;
+        }
+        final TaskSnapshot snapshot = tasks.snapshot();
+        final String[] words = commandArgs.isEmpty() ? new String[0] : commandArgs.split("\\s+");
+        if ((words.length == 1 && words[0].equals("all")) || (words.length == 0 && snapshot.size() <= UNPAGED_LIMIT)) {
+            Ui.printListOfTasks(snapshot);
+            return;
+        }
+        final boolean isFromCursor = words.length > 0 && words[0].equals("from");
+        final int first = isFromCursor ? 1 : 0;
+        if (words.length - first > 2 || (isFromCursor && words.length == 1)) {
+            throw new FormatException();
+        }
+        final int size = words.length - first == 2 ? parseNumber(words[first + 1], 1) : PAGE_SIZE;
+        final int from;
+        if (isFromCursor) {
+            from = snapshot.indexOfIdFrom(Parser.parseCursor(words[first]));
+        } else {
+            final long page = words.length > 0 ? parseNumber(words[0], 1) : 1;
+            from = (int) Math.min((page - 1) * size, snapshot.size());
+        }
+        Ui.printTaskWindow(snapshot, from, size);
+    }
+
+    /**
+     * Switch to the list with the name, which is loaded the first time it is used and created if it doesn't exist.
+     *
+     * @param tasks The list containing the user's tasks, which stays as it is.
+     * @param commandArgs The name of the list entered by the user.
+     * @throws FormatException If the name has characters other than letters, digits, - and _.
+     */
+    public static void useList(TaskList tasks, String commandArgs) throws FormatException {
+        if (!TaskLists.isValidName(commandArgs)) {
+            throw new FormatException();
+        }
+        Ui.showListInUse(commandArgs, TaskLists.use(commandArgs).snapshot().size());
+    }
+
+    private static int parseNumber(String word, int min) throws FormatException {
+        try {
+            final int number = Integer.parseInt(word);
+            if (number < min) {
+                throw new FormatException();
             }
-            break;
-        case "help":
-            Ui.showHelpMessage();
-            break;
-        case "find":
-            find(tasks, commandArgs);
-            break;
-        default:
-            throw new InvalidCommandException();
+            return number;
+        } catch (NumberFormatException e) {
+            throw new FormatException();
         }
     }
 
@@ -122,14 +151,26 @@ public class Command {
      *
      * @param tasks The list containing the user's tasks
      * @param commandArgs The task description entered by the user
+     * @return The tasks in the list right after the todo was added.
+     * @throws NoDescriptionException If the description is empty, the exception will be thrown.
+     */
+    public static TaskSnapshot addTodo(TaskList tasks, String commandArgs) throws NoDescriptionException {
+        return tasks.add(newTodo(commandArgs));
+    }
+
+    /**
+     * Create a new todo from the description entered by the user.
+     *
+     * @param commandArgs The task description entered by the user
+     * @return The new todo.
      * @throws NoDescriptionException If the description is empty, the exception will be thrown.
      */
-    public static void addTodo(ArrayList<Task> tasks, String commandArgs) throws NoDescriptionException {
+    public static Task newTodo(String commandArgs) throws NoDescriptionException {
         final String taskDescription = commandArgs.trim();
         if (taskDescription.length() == 0) {
             throw new NoDescriptionException();
         }
-        TaskList.addTask(tasks, new Todo(commandArgs));
+        return new Todo(commandArgs);
     }
 
     /**
@@ -140,26 +181,41 @@ public class Command {
      * @throws NoDescriptionException If the description is empty, the exception will be thrown.
      * @throws FormatException If the format of entering event description is wrong, the exception will be thrown.
      * @throws ParseException If the event date couldn't be parse into date type, the exceptino will be thrown.
+     * @return The tasks in the list right after the event was added.
+     */
+    public static TaskSnapshot addEvent(TaskList tasks, String commandArgs)
+            throws NoDescriptionException, FormatException, ParseException {
+        return tasks.add(newEvent(commandArgs));
+    }
+
+    /**
+     * Create a new event from the description entered by the user.
+     *
+     * @param commandArgs The event description entered by the user.
+     * @return The new event.
+     * @throws NoDescriptionException If the description is empty, the exception will be thrown.
+     * @throws FormatException If the format of entering event description is wrong, the exception will be thrown.
+     * @throws ParseException If the event date couldn't be parse into date type, the exceptino will be thrown.
      */
-    public static void addEvent(ArrayList<Task> tasks, String commandArgs)
+    public static Task newEvent(String commandArgs)
             throws NoDescriptionException, FormatException, ParseException {
-        final int indexOfFrom = commandArgs.indexOf("from:");
-        final int indexOfTo = commandArgs.indexOf("to:");
+        final int indexOfTo = commandArgs.lastIndexOf("to:");
+        final int indexOfFrom = indexOfTo == -1 ? -1 : commandArgs.lastIndexOf("from:", indexOfTo);
         if (indexOfTo == -1 || indexOfFrom == -1) {
             throw new FormatException();
         }
         String eventDescription = commandArgs.substring(0, indexOfFrom).trim();
-        String from = commandArgs.substring(indexOfFrom, indexOfTo).trim().replace("from:", "").trim();
-        String to = commandArgs.substring(indexOfTo).trim().replace("to:", "").trim();
+        String from = commandArgs.substring(indexOfFrom + "from:".length(), indexOfTo).trim();
+        String to = commandArgs.substring(indexOfTo + "to:".length()).trim();
         if (eventDescription.trim().length() == 0 || from.length() == 0 || to.length() == 0) {
             throw new NoDescriptionException();
         }
-        Date formattedFrom = Parser.parseDate(from);
-        Date formattedTo = Parser.parseDate(to);
-        if (formattedTo.before(formattedFrom)) {
+        LocalDate formattedFrom = Parser.parseDate(from);
+        LocalDate formattedTo = Parser.parseDate(to);
+        if (formattedTo.isBefore(formattedFrom)) {
             throw new FormatException();
         }
-        TaskList.addTask(tasks, new Event(eventDescription, formattedFrom, formattedTo));
+        return new Event(eventDescription, formattedFrom, formattedTo);
     }
 
     /**
@@ -170,47 +226,188 @@ public class Command {
      * @throws NoDescriptionException If the description is empty, the exception will be thrown.
      * @throws FormatException If format of entering deadline description is wrong, the exception will be thrown.
      * @throws ParseException If the event date couldn't be parse into date type, the exception will be thrown.
+     * @return The tasks in the list right after the deadline was added.
+     */
+    public static TaskSnapshot addDeadline(TaskList tasks, String commandArgs)
+            throws NoDescriptionException, FormatException, ParseException {
+        return tasks.add(newDeadline(commandArgs));
+    }
+
+    /**
+     * Create a new deadline from the description entered by the user.
+     *
+     * @param commandArgs The deadline description entered by the user.
+     * @return The new deadline.
+     * @throws NoDescriptionException If the description is empty, the exception will be thrown.
+     * @throws FormatException If format of entering deadline description is wrong, the exception will be thrown.
+     * @throws ParseException If the event date couldn't be parse into date type, the exception will be thrown.
      */
-    public static void addDeadline(ArrayList<Task> tasks, String commandArgs)
+    public static Task newDeadline(String commandArgs)
             throws NoDescriptionException, FormatException, ParseException {
-        final int indexOfDeadline = commandArgs.indexOf("by:");
+        final int indexOfDeadline = commandArgs.lastIndexOf("by:");
         if (indexOfDeadline == -1) {
             throw new FormatException();
         }
         String deadlineDescription = commandArgs.substring(0, indexOfDeadline).trim();
-        String deadline = commandArgs.substring(indexOfDeadline).replace("by:", "").trim();
+        String deadline = commandArgs.substring(indexOfDeadline + "by:".length()).trim();
         if (deadlineDescription.trim().length() == 0) {
             throw new NoDescriptionException();
         }
         if (deadline.trim().length() == 0) {
             throw new NoDescriptionException();
         }
-        Date formattedDeadline = Parser.parseDate(deadline);
-        TaskList.addTask(tasks, new Deadline(deadlineDescription, formattedDeadline));
+        LocalDate formattedDeadline = Parser.parseDate(deadline);
+        return new Deadline(deadlineDescription, formattedDeadline);
+    }
+
+    /**
+     * Print the tasks matching a boolean query over whole words, such as "book AND NOT lib*",
+     * which the word index answers without going through the list.
+     *
+     * @param tasks The list containing the user's tasks.
+     * @param query The query that the user want to search for.
+     * @throws FormatException If the query is empty or its brackets don't match, the exception will be thrown.
+     */
+    public static void search(TaskList tasks, String query) throws FormatException {
+        final TaskList.Found found = tasks.find(list -> list.wordIndex.search(query));
+        Output.println("Below are the tasks that match " + query + ": ");
+        Ui.printTasksWithIds(found.snapshot, found.ids);
     }
 
     /**
      * The function will go through all the tasks to find
      * and print out the task description containing keyword.
+     * Keywords of three or more characters only check the tasks the trigram index gives as candidates.
+     * The keyword is always taken as it is, so "boo*" or "salt AND pepper" are looked for literally.
      *
      * @param tasks The list containing the user's tasks.
      * @param keyword The keyword that the user want to search for.
+     * @throws FormatException If the candidates couldn't be looked up, the exception will be thrown.
      */
-    public static void find(ArrayList<Task> tasks, String keyword) {
-        System.out.println("Below are the tasks that contains " + keyword + ": ");
-        for (int i = 0; i < tasks.size(); i += 1) {
-            if (tasks.get(i).description.contains(keyword)) {
-                System.out.print(i+1);
-                System.out.print(". ");
-                System.out.println(tasks.get(i).toString());
+    public static void find(TaskList tasks, String keyword) throws FormatException {
+        Output.println("Below are the tasks that contains " + keyword + ": ");
+        if (keyword.length() >= TrigramIndex.MIN_KEYWORD_LENGTH) {
+            final TaskList.Found found = tasks.find(list -> list.trigramIndex.candidates(keyword));
+            for (int i = 0; i < found.ids.size(); i += 1) {
+                final int index = found.snapshot.indexOfId(found.ids.get(i));
+                if (index != -1 && found.snapshot.get(index).description.contains(keyword)) {
+                    Output.printTask(index + 1, found.snapshot.get(index));
+                }
+            }
+            Ui.printLine();
+            return;
+        }
+        int index = 1;
+        for (Task task : tasks.snapshot()) {
+            if (task.description.contains(keyword)) {
+                Output.printTask(index, task);
             }
+            index += 1;
         }
         Ui.printLine();
     }
 
+    /**
+     * Print the deadlines and events that fall on the dates entered by the user, using the date index.
+     * "due" finds the deadlines due on or before the date, "on" finds the deadlines and events on the date,
+     * and "between" finds the deadlines and events within two dates.
+     *
+     * @param tasks The list containing the user's tasks.
+     * @param commandType One of due, on or between.
+     * @param commandArgs The dates entered by the user.
+     * @throws NoDescriptionException If no date is entered, the exception will be thrown.
+     * @throws FormatException If between isn't given two dates in order, the exception will be thrown.
+     * @throws ParseException If a date couldn't be parsed, the exception will be thrown.
+     */
+    public static void findByDate(TaskList tasks, String commandType, String commandArgs)
+            throws NoDescriptionException, FormatException, ParseException {
+        final String dates = commandArgs.trim();
+        if (dates.length() == 0) {
+            throw new NoDescriptionException();
+        }
+        final TaskList.Found found;
+        switch (commandType) {
+        case "due":
+            final long by = Parser.parseDate(dates).toEpochDay();
+            found = tasks.find(list -> list.dateIndex.findDeadlines(Long.MIN_VALUE, by));
+            Output.println("Below are the deadlines due by " + dates + ": ");
+            break;
+        case "on":
+            final long day = Parser.parseDate(dates).toEpochDay();
+            found = tasks.find(list -> PostingList.union(list.dateIndex.findDeadlines(day, day),
+                    list.dateIndex.findEvents(day, day)));
+            Output.println("Below are the tasks on " + dates + ": ");
+            break;
+        default:
+            final String[] range = dates.split("\\s+");
+            if (range.length != 2) {
+                throw new FormatException();
+            }
+            final long from = Parser.parseDate(range[0]).toEpochDay();
+            final long to = Parser.parseDate(range[1]).toEpochDay();
+            if (to < from) {
+                throw new FormatException();
+            }
+            found = tasks.find(list -> PostingList.union(list.dateIndex.findDeadlines(from, to),
+                    list.dateIndex.findEvents(from, to)));
+            Output.println("Below are the tasks between " + range[0] + " and " + range[1] + ": ");
+            break;
+        }
+        Ui.printTasksWithIds(found.snapshot, found.ids);
+    }
+
+    /**
+     * Import the tasks in a CSV or JSON file to the end of the list, or export the list to one.
+     * The format is the last word if it is csv or json, otherwise it comes from the extension of the file.
+     *
+     * @param tasks The list containing the user's tasks.
+     * @param commandType Either import or export.
+     * @param commandArgs The file entered by the user, and maybe the format.
+     * @throws FormatException If the file is not a valid path, the exception will be thrown.
+     */
+    public static void transfer(TaskList tasks, String commandType, String commandArgs) throws FormatException {
+        if (!Transfer.areFilesAllowed()) {
+            Output.println("WOOFS!!! Files can't be imported or exported by clients of the server.");
+            Ui.printLine();
+            return;
+        }
+        String file = commandArgs;
+        Transfer.Format format = null;
+        final int lastSpace = commandArgs.lastIndexOf(' ');
+        if (lastSpace != -1) {
+            format = Transfer.Format.of(commandArgs.substring(lastSpace + 1));
+            if (format != null) {
+                file = commandArgs.substring(0, lastSpace).trim();
+            }
+        }
+        final Path path;
+        try {
+            path = Paths.get(file);
+        } catch (InvalidPathException e) {
+            throw new FormatException();
+        }
+        if (format == null) {
+            format = Transfer.Format.ofFile(path);
+        }
+        try {
+            if (commandType.equals("import")) {
+                Ui.showImport(file, Transfer.importFile(tasks, path, format), tasks.snapshot().size());
+            } else {
+                Ui.showExport(file, Transfer.exportFile(tasks.snapshot(), path, format));
+            }
+        } catch (NoSuchFileException e) {
+            Output.println("WOOFS!!! The file " + file + " is not found.");
+            Ui.printLine();
+        } catch (IOException e) {
+            Output.println("Something went wrong: " + e.getMessage());
+            Ui.printLine();
+        }
+    }
+
     /**
      * Unmark the task index entered by the user.
      * If the task have not been marked, it will prompt the user about it.
+     * A selection such as 1-500,702 or all unmarks every selected task in one change with one summary line.
      *
      * @param tasks The list containing the user's task.
      * @param commandArgs The index description entered by the user.
@@ -218,21 +415,24 @@ public class Command {
      * @throws IndexOutOfBoundsException If the index is not within the size of the list, the exception will be thrown.
      * @throws FormatException If the index is not an integer, the exception will be thrown.
      */
-    public static void unmarkTask(ArrayList<Task> tasks, String commandArgs)
+    public static void unmarkTask(TaskList tasks, String commandArgs)
             throws NoDescriptionException, IndexOutOfBoundsException, FormatException {
         if (commandArgs.trim().length() == 0) {
             throw new NoDescriptionException();
         }
-        final int unmarkId = Parser.parseIndex(commandArgs) - 1;
-        if (unmarkId < 0 || unmarkId >= tasks.size()) {
-            throw new IndexOutOfBoundsException();
+        if (Parser.isSelection(commandArgs)) {
+            final int count = tasks.setDone(Parser.parseSelection(commandArgs), false);
+            Output.println("I've unmarked " + count + " tasks ∪･ω･∪");
+            Ui.printLine();
+            return;
         }
-        if (!tasks.get(unmarkId).isDone) {
-            System.out.println("This task hasn't been marked as done yet ∪･ω･∪");
+        final int unmarkId = Parser.parseIndex(commandArgs) - 1;
+        final Task unmarked = tasks.setDone(unmarkId, false);
+        if (unmarked == null) {
+            Output.println("This task hasn't been marked as done yet ∪･ω･∪");
         } else {
-            tasks.get(unmarkId).markAsNotDone();
-            System.out.println("I've unmarked this task ∪･ω･∪:");
-            System.out.println(tasks.get(unmarkId));
+            Output.println("I've unmarked this task ∪･ω･∪:");
+            Output.println(unmarked);
         }
         Ui.printLine();
     }
@@ -240,28 +440,61 @@ public class Command {
     /**
      * Mark the task index entered by the user.
      * If the task have been marked, it will prompt the user about it.
+     * A selection such as 1-500,702 or all marks every selected task in one change with one summary line.
      * @param tasks The list containing the user's tasks.
      * @param commandArgs The index description entered by the user.
      * @throws NoDescriptionException If the index description is empty, the exception will be thrown
      * @throws IndexOutOfBoundsException If the index is not within the size of the list, the exception will be thrown
      * @throws FormatException If the index is not an integer, the exception will be thrown.
      */
-    public static void markTask(ArrayList<Task> tasks, String commandArgs)
+    public static void markTask(TaskList tasks, String commandArgs)
             throws NoDescriptionException, IndexOutOfBoundsException, FormatException {
         if (commandArgs.trim().length() == 0) {
             throw new NoDescriptionException();
         }
-        final int markId = Parser.parseIndex(commandArgs) - 1;
-        if (markId < 0 || markId >= tasks.size()) {
-            throw new IndexOutOfBoundsException();
+        if (Parser.isSelection(commandArgs)) {
+            final int count = tasks.setDone(Parser.parseSelection(commandArgs), true);
+            Output.println("I've marked " + count + " tasks as done ੯•໒꒱❤︎");
+            Ui.printLine();
+            return;
         }
-        if (tasks.get(markId).isDone) {
-            System.out.println("This task has already been marked as done ੯•໒꒱❤︎");
+        final int markId = Parser.parseIndex(commandArgs) - 1;
+        final Task marked = tasks.setDone(markId, true);
+        if (marked == null) {
+            Output.println("This task has already been marked as done ੯•໒꒱❤︎");
         } else {
-            tasks.get(markId).markAsDone();
-            System.out.println("I've marked this task as done ੯•໒꒱❤︎:");
-            System.out.println(tasks.get(markId));
+            Output.println("I've marked this task as done ੯•໒꒱❤︎:");
+            Output.println(marked);
+        }
+        Ui.printLine();
+    }
+
+    /**
+     * Delete the task of the index entered by the user from the list.
+     * A selection such as 1-500,702,900-950 or done deletes every selected task in one change,
+     * compacting the list once, with one summary line.
+     *
+     * @param tasks The list containing the user's tasks.
+     * @param commandArgs The index description entered by the user.
+     * @throws NoDescriptionException If the index description is empty, the exception will be thrown.
+     * @throws IndexOutOfBoundsException If the index is not within the size of the list, the exception will be thrown.
+     * @throws FormatException If the index is not a Integer, the exception will be thrown.
+     */
+    public static void deleteTask(TaskList tasks, String commandArgs)
+            throws NoDescriptionException, IndexOutOfBoundsException, FormatException {
+        if (commandArgs.trim().length() == 0) {
+            throw new NoDescriptionException();
+        }
+        if (Parser.isSelection(commandArgs)) {
+            final int count = tasks.remove(Parser.parseSelection(commandArgs));
+            Output.println("I've deleted " + count + " tasks ∪･ω･∪, now you have "
+                    + tasks.snapshot().size() + " tasks in your list.");
+            Ui.printLine();
+            return;
         }
+        final Task deleted = tasks.remove(Parser.parseIndex(commandArgs) - 1);
+        Output.println("I've deleted this task ∪･ω･∪:");
+        Output.println(deleted);
         Ui.printLine();
     }
 }
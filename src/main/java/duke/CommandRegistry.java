@@ -0,0 +1,216 @@
+package duke;
+
+import duke.exceptions.ClosedListException;
+import duke.exceptions.FormatException;
+import duke.exceptions.InvalidCommandException;
+import duke.exceptions.NoDescriptionException;
+
+import java.text.ParseException;
+
+/**
+ * Keeps the commands Duke understands, each with a handler and a description of the arguments it takes.
+ * The input is split into the command and its arguments in a single scan without regular expressions,
+ * and the command is looked up without copying its name out of the input.
+ * The messages for missing or invalid arguments come from the argument description,
+ * so a new command only needs to be registered to get them.
+ * Every command is counted and timed in Stats.
+ */
+public class CommandRegistry {
+    /**
+     * Runs a command with the arguments entered by the user.
+     */
+    public interface Handler {
+        /**
+         * @param tasks The list containing the user's tasks.
+         * @param args The arguments entered after the command, without surrounding whitespace.
+         * @throws NoDescriptionException If a required part of the arguments is missing.
+         * @throws FormatException If the arguments are not in the expected format.
+         * @throws ParseException If a date in the arguments couldn't be parsed.
+         */
+        void execute(TaskList tasks, String args)
+                throws NoDescriptionException, FormatException, ParseException;
+    }
+
+    /**
+     * The kinds of arguments a command takes, along with what to tell the user when they are wrong.
+     * The messages may contain %s, which is replaced by the name of the command.
+     */
+    public enum Arguments {
+        NONE(null, null),
+        DESCRIPTION("The description of a %s cannot be empty.", "The format of entering %s is incorrect."),
+        INDEX("The index of entering task must be stated.", "The index of entering task is not valid."),
+        DATE("The date to search for must be stated.", "The format of entering the date is incorrect."),
+        QUERY(null, "The search query is not valid."),
+        PAGE(null, "The page of tasks or the query to list is not valid."),
+        NAME("The name of the list must be stated.", "The name of a list can only have letters, digits, - and _."),
+        FILE("The file to %s must be stated.", "The file to %s is not valid.");
+
+        private final String missingMessage;
+        private final String invalidMessage;
+
+        Arguments(String missingMessage, String invalidMessage) {
+            this.missingMessage = missingMessage;
+            this.invalidMessage = invalidMessage;
+        }
+
+        /**
+         * @return Whether the command can't be run without arguments.
+         */
+        public boolean isRequired() {
+            return missingMessage != null;
+        }
+    }
+
+    /**
+     * A command that has been registered.
+     */
+    public static class Entry {
+        private final String name;
+        private final int hash;
+        private final Arguments arguments;
+        private final String retryMessage;
+        private final Handler handler;
+        private final Stats.Metric stats;
+
+        private Entry(String name, Arguments arguments, String retryMessage, Handler handler) {
+            this.name = name;
+            this.hash = name.hashCode();
+            this.arguments = arguments;
+            this.retryMessage = retryMessage;
+            this.handler = handler;
+            this.stats = Stats.command(name);
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /** Open addressing table of the commands, always at most half full. */
+    private Entry[] table = new Entry[32];
+    private int size = 0;
+
+    /**
+     * Register a command, replacing any command with the same name.
+     *
+     * @param name The word the user types to run the command.
+     * @param arguments The kind of arguments the command takes.
+     * @param retryMessage What to tell the user after the arguments turn out to be wrong.
+     * @param handler Runs the command.
+     */
+    public void register(String name, Arguments arguments, String retryMessage, Handler handler) {
+        if ((size + 1) * 2 > table.length) {
+            final Entry[] oldTable = table;
+            table = new Entry[oldTable.length * 2];
+            size = 0;
+            for (Entry entry : oldTable) {
+                if (entry != null) {
+                    put(entry);
+                }
+            }
+        }
+        put(new Entry(name, arguments, retryMessage, handler));
+    }
+
+    private void put(Entry entry) {
+        int slot = entry.hash & (table.length - 1);
+        while (table[slot] != null && !table[slot].name.equals(entry.name)) {
+            slot = (slot + 1) & (table.length - 1);
+        }
+        if (table[slot] == null) {
+            size += 1;
+        }
+        table[slot] = entry;
+    }
+
+    /**
+     * Find the command that the input starts with.
+     *
+     * @param input The line entered by the user.
+     * @return The command, or null if the input doesn't start with a registered command.
+     */
+    public Entry find(String input) {
+        final int nameStart = skipWhitespace(input, 0);
+        return find(input, nameStart, endOfWord(input, nameStart));
+    }
+
+    private Entry find(String input, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i += 1) {
+            hash = 31 * hash + input.charAt(i);
+        }
+        int slot = hash & (table.length - 1);
+        while (table[slot] != null) {
+            final Entry entry = table[slot];
+            if (entry.hash == hash && entry.name.length() == end - start
+                    && input.regionMatches(start, entry.name, 0, end - start)) {
+                return entry;
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+        return null;
+    }
+
+    /**
+     * Run the command entered by the user, telling the user when its arguments are missing or not valid.
+     *
+     * @param tasks The list containing the user's tasks.
+     * @param input The line entered by the user.
+     * @throws InvalidCommandException If the input doesn't start with a registered command.
+     */
+    public void execute(TaskList tasks, String input) throws InvalidCommandException {
+        final int nameStart = skipWhitespace(input, 0);
+        final int nameEnd = endOfWord(input, nameStart);
+        final Entry command = find(input, nameStart, nameEnd);
+        if (command == null) {
+            final InvalidCommandException e = new InvalidCommandException();
+            Stats.recordError(null, e);
+            throw e;
+        }
+        final long start = Stats.start();
+        final int argsStart = skipWhitespace(input, nameEnd);
+        int argsEnd = input.length();
+        while (argsEnd > argsStart && input.charAt(argsEnd - 1) <= ' ') {
+            argsEnd -= 1;
+        }
+        final String args = input.substring(argsStart, argsEnd);
+        try {
+            if (args.isEmpty() && command.arguments.isRequired()) {
+                throw new NoDescriptionException();
+            }
+            command.handler.execute(tasks, args);
+        } catch (NoDescriptionException e) {
+            Stats.recordError(command.stats, e);
+            showError(command, command.arguments.missingMessage);
+        } catch (FormatException | ParseException | IndexOutOfBoundsException e) {
+            Stats.recordError(command.stats, e);
+            showError(command, command.arguments.invalidMessage);
+        } catch (ClosedListException e) {
+            Stats.recordError(command.stats, e);
+            Output.println("WOOFS!!! Duke is shutting down, so the list can't be changed any more.");
+            Ui.printLine();
+        } finally {
+            Stats.record(command.stats, start);
+        }
+    }
+
+    private static void showError(Entry command, String message) {
+        Output.println("WOOFS!!! " + String.format(message, command.name));
+        Output.println(command.retryMessage);
+        Ui.printLine();
+    }
+
+    private static int skipWhitespace(String input, int index) {
+        while (index < input.length() && input.charAt(index) <= ' ') {
+            index += 1;
+        }
+        return index;
+    }
+
+    private static int endOfWord(String input, int index) {
+        while (index < input.length() && input.charAt(index) > ' ') {
+            index += 1;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,128 @@
+package duke;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.IntStream;
+
+/**
+ * An index over the dates of deadlines and events, answering which tasks fall within a range of days.
+ * Deadlines are kept sorted by the day they are due, and events in an interval tree over the days they span.
+ * One thread may update it while others search it.
+ */
+public class DateIndex {
+    private final ConcurrentSkipListMap<Long, PostingList> deadlines = new ConcurrentSkipListMap<>();
+    private final IntervalTree events = new IntervalTree();
+
+    /**
+     * Add the task to the index if it is a deadline or an event.
+     *
+     * @param task The task that was added to the list.
+     */
+    public void add(Task task) {
+        if (task instanceof Deadline) {
+            final long by = ((Deadline) task).by.toEpochDay();
+            final PostingList ids = deadlines.get(by);
+            deadlines.put(by, ids == null ? PostingList.of(task.id) : ids.with(task.id));
+        } else if (task instanceof Event) {
+            final Event event = (Event) task;
+            events.add(event.from.toEpochDay(), event.to.toEpochDay(), task.id);
+        }
+    }
+
+    /**
+     * Remove the task from the index if it is a deadline or an event.
+     *
+     * @param task The task that was removed from the list.
+     */
+    public void remove(Task task) {
+        if (task instanceof Deadline) {
+            final long by = ((Deadline) task).by.toEpochDay();
+            final PostingList ids = deadlines.get(by);
+            if (ids != null) {
+                final PostingList remaining = ids.without(task.id);
+                if (remaining.size() == 0) {
+                    deadlines.remove(by);
+                } else {
+                    deadlines.put(by, remaining);
+                }
+            }
+        } else if (task instanceof Event) {
+            events.remove(((Event) task).from.toEpochDay(), task.id);
+        }
+    }
+
+    /**
+     * Remove many tasks at once, going through the deadlines of each day only once.
+     *
+     * @param tasks The tasks that were removed from the list.
+     */
+    public void removeAll(List<Task> tasks) {
+        final Map<Long, IntStream.Builder> removed = new HashMap<>();
+        for (Task task : tasks) {
+            if (task instanceof Deadline) {
+                removed.computeIfAbsent(((Deadline) task).by.toEpochDay(), key -> IntStream.builder()).add(task.id);
+            } else if (task instanceof Event) {
+                events.remove(((Event) task).from.toEpochDay(), task.id);
+            }
+        }
+        for (Map.Entry<Long, IntStream.Builder> entry : removed.entrySet()) {
+            final PostingList ids = deadlines.get(entry.getKey());
+            if (ids != null) {
+                final PostingList remaining = PostingList.difference(ids,
+                        PostingList.of(entry.getValue().build().toArray()));
+                if (remaining.size() == 0) {
+                    deadlines.remove(entry.getKey());
+                } else {
+                    deadlines.put(entry.getKey(), remaining);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the deadlines due within the range of days.
+     *
+     * @param from The first day of the range.
+     * @param to The last day of the range.
+     * @return The ids of the deadlines, in ascending order.
+     */
+    public PostingList findDeadlines(long from, long to) {
+        final IntStream.Builder ids = IntStream.builder();
+        for (Map.Entry<Long, PostingList> entry : deadlines.subMap(from, true, to, true).entrySet()) {
+            final PostingList dayIds = entry.getValue();
+            for (int i = 0; i < dayIds.size(); i += 1) {
+                ids.add(dayIds.get(i));
+            }
+        }
+        return PostingList.of(ids.build().toArray());
+    }
+
+    /**
+     * Give the deadlines due within the range of days a day at a time, so that the caller can stop once it has enough.
+     *
+     * @param from The first day of the range.
+     * @param to The last day of the range, which is not before the first.
+     * @param isLatestFirst Whether the days are given from the last one back.
+     * @return The ids of the deadlines due on each day that has any, in ascending order for each day.
+     */
+    public Iterable<PostingList> deadlinesByDay(long from, long to, boolean isLatestFirst) {
+        final NavigableMap<Long, PostingList> days = deadlines.subMap(from, true, to, true);
+        return (isLatestFirst ? days.descendingMap() : days).values();
+    }
+
+    /**
+     * Find the events that take place on at least one day of the range.
+     *
+     * @param from The first day of the range.
+     * @param to The last day of the range.
+     * @return The ids of the events, in ascending order.
+     */
+    public PostingList findEvents(long from, long to) {
+        final IntStream.Builder ids = IntStream.builder();
+        events.findOverlapping(from, to, ids);
+        return PostingList.of(ids.build().toArray());
+    }
+}
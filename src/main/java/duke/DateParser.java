@@ -0,0 +1,158 @@
+package duke;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Parses the dates entered by the user or read from storage in a single pass.
+ * The shape of the input decides which format it is read in, so a date is never tried against
+ * formats it can't match and a bad date is reported by returning a marker value instead of throwing.
+ * It keeps no state, so it is safe to call from several threads at once.
+ *
+ * The accepted formats are 2023-03-04 (optionally followed by a time), 04/03/2023 and Mar 4 2023.
+ */
+public class DateParser {
+    /** Returned by parseEpochDay when the input is not a valid date. */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final String[] MONTH_NAMES = {
+        "jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"
+    };
+
+    /**
+     * @param input The date entered by the user.
+     * @return The date, or null if the input is not a valid date in any accepted format.
+     */
+    public static LocalDate parse(String input) {
+        final long epochDay = parseEpochDay(input);
+        return epochDay == INVALID ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * @param input The date entered by the user.
+     * @return The number of days from 1970-01-01 to the date, or INVALID if it is not a valid date.
+     */
+    public static long parseEpochDay(String input) {
+        final String date = input.trim();
+        if (date.isEmpty()) {
+            return INVALID;
+        }
+        if (Character.isLetter(date.charAt(0))) {
+            return parseMonthName(date);
+        }
+        if (date.indexOf('/') != -1) {
+            return parseDayMonthYear(date);
+        }
+        return parseIso(date);
+    }
+
+    /**
+     * Parse yyyy-MM-dd, ignoring anything after the day such as a time.
+     */
+    private static long parseIso(String date) {
+        final int yearEnd = date.indexOf('-');
+        final int monthEnd = yearEnd == -1 ? -1 : date.indexOf('-', yearEnd + 1);
+        if (monthEnd == -1) {
+            return INVALID;
+        }
+        int dayEnd = monthEnd + 1;
+        while (dayEnd < date.length() && Character.isDigit(date.charAt(dayEnd))) {
+            dayEnd += 1;
+        }
+        if (dayEnd < date.length() && !Character.isWhitespace(date.charAt(dayEnd)) && date.charAt(dayEnd) != 'T') {
+            return INVALID;
+        }
+        final int year = parseNumber(date, 0, yearEnd);
+        final int month = parseNumber(date, yearEnd + 1, monthEnd);
+        final int day = parseNumber(date, monthEnd + 1, dayEnd);
+        if (month == 0) {
+            // Older storage files wrote the minutes in place of the month, which was always 00 and
+            // has always been read back as December of the year before.
+            return toEpochDay(year - 1, 12, day);
+        }
+        return toEpochDay(year, month, day);
+    }
+
+    /**
+     * Parse d/M/yyyy.
+     */
+    private static long parseDayMonthYear(String date) {
+        final int dayEnd = date.indexOf('/');
+        final int monthEnd = date.indexOf('/', dayEnd + 1);
+        if (monthEnd == -1) {
+            return INVALID;
+        }
+        final int day = parseNumber(date, 0, dayEnd);
+        final int month = parseNumber(date, dayEnd + 1, monthEnd);
+        final int year = parseNumber(date, monthEnd + 1, date.length());
+        return toEpochDay(year, month, day);
+    }
+
+    /**
+     * Parse MMM d yyyy, where the month may also be written in full.
+     */
+    private static long parseMonthName(String date) {
+        int nameEnd = 0;
+        while (nameEnd < date.length() && Character.isLetter(date.charAt(nameEnd))) {
+            nameEnd += 1;
+        }
+        final int month = monthOf(date, nameEnd);
+        int dayStart = nameEnd;
+        while (dayStart < date.length() && date.charAt(dayStart) == ' ') {
+            dayStart += 1;
+        }
+        final int dayEnd = date.indexOf(' ', dayStart);
+        if (month == -1 || dayEnd == -1) {
+            return INVALID;
+        }
+        int yearStart = dayEnd;
+        while (yearStart < date.length() && date.charAt(yearStart) == ' ') {
+            yearStart += 1;
+        }
+        final int day = parseNumber(date, dayStart, dayEnd);
+        final int year = parseNumber(date, yearStart, date.length());
+        return toEpochDay(year, month, day);
+    }
+
+    private static int monthOf(String date, int nameEnd) {
+        if (nameEnd < 3) {
+            return -1;
+        }
+        for (int i = 0; i < MONTH_NAMES.length; i += 1) {
+            if (date.regionMatches(true, 0, MONTH_NAMES[i], 0, 3)
+                    && (nameEnd == 3 || Month.of(i + 1).name().regionMatches(true, 0, date, 0, nameEnd))) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Read the digits between start and end as a number.
+     *
+     * @return The number, or -1 if the range is empty, too long, or holds anything other than digits.
+     */
+    private static int parseNumber(String text, int start, int end) {
+        if (start >= end || end - start > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i += 1) {
+            final char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static long toEpochDay(int year, int month, int day) {
+        if (year < 0 || year > Year.MAX_VALUE || month < 1 || month > 12 || day < 1
+                || day > Month.of(month).length(Year.isLeap(year))) {
+            return INVALID;
+        }
+        return LocalDate.of(year, month, day).toEpochDay();
+    }
+}
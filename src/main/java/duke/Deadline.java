@@ -1,29 +1,38 @@
 package duke;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
 
 /**
  * The class represent a deadline item in the task list.
- * It contains a Date by, indicating when should the deadline be finished by.
+ * It contains a LocalDate by, indicating when should the deadline be finished by.
  */
 public class Deadline extends Task {
 
-    protected Date by;
+    protected LocalDate by;
 
-    public Deadline(String description, Date by) {
+    public Deadline(String description, LocalDate by) {
         super(description);
         this.by = by;
     }
 
     @Override
-    public String toString() {
-        final DateFormat dateFormat = new SimpleDateFormat("MMM dd yyyy");
-        return "[D]" + super.toString() + " (by: " + dateFormat.format(by) + ") ";
+    protected Task copy() {
+        return new Deadline(description, by);
     }
-    public String toStorage() {
-        final DateFormat dateFormat = new SimpleDateFormat("yyyy-mm-dd");
-        return "[D]" + super.toStorage() + " by: " + dateFormat.format(by);
+
+    @Override
+    protected void renderDisplay(StringBuilder out) {
+        out.append("[D]");
+        super.renderDisplay(out);
+        out.append(" (by: ");
+        DISPLAY_DATE_FORMAT.formatTo(by, out);
+        out.append(") ");
+    }
+
+    @Override
+    protected void renderStorage(StringBuilder out) {
+        out.append("[D]");
+        super.renderDisplay(out);
+        out.append(" by: ").append(by);
     }
 }
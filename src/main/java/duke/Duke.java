@@ -1,17 +1,22 @@
 package duke;
 
 import duke.exceptions.InvalidCommandException;
-import java.util.Scanner;
-import java.util.ArrayList;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Main class of Duke program, where the program start and end.
  */
 public class Duke {
     private Ui ui;
-    private Storage storage;
     static String FILEPATH = "duke.txt";
-    static ArrayList <Task> tasks = new ArrayList<>();
+    private static volatile boolean isServing = false;
 
 
 
@@ -21,36 +26,33 @@ public class Duke {
      * @throws InvalidCommandException The exception will be thrown if the command doesn't any duke command.
      */
     public static void process(String s) throws InvalidCommandException {
-        Command command = new Command();
-        command.execute(tasks, s);
-    }
-
-    /**
-     * Scan in the user input and trim extra white space.
-     * If there is no input, continue to scan the next line for input.
-     * @return The string that the user entered
-     */
-    private static String inputCommand() {
-        Scanner scan = new Scanner(System.in);
-        String s;
-        s = scan.nextLine();
-        while (s.trim().isEmpty() || s.trim().charAt(0) == '#') {
-            s = scan.nextLine();
-        }
-        return s;
+        Command.execute(TaskLists.current(), s);
+        Ui.showReminders(TaskLists.current().reminders);
     }
 
-
     /**
      * Initialize essential class for the program to start.
-     * Including Ui Class, Storage CLass, and setting patterns for Parser Class.
+     * Including Ui Class and Storage CLass.
      */
     private void start() {
         this.ui = new Ui();
-        this.storage = new Storage();
-        Parser.setKnownPatterns();
+        Stats.registerMBean();
         ui.showWelcomeMessage();
-        storage.initializeStorage(tasks, FILEPATH);
+        Ui.showReminders(TaskLists.use(TaskLists.DEFAULT_LIST).reminders);
+        Runtime.getRuntime().addShutdownHook(new Thread(Duke::stop, "duke-stop"));
+        Output.flush();
+    }
+
+    /**
+     * Write the changes still waiting in memory to the journals as the program is stopped,
+     * then save every list too when serving, as there is no bye to save them.
+     */
+    private static void stop() {
+        TaskLists.flushAll();
+        if (isServing) {
+            TaskLists.closeAll();
+            Output.flush();
+        }
     }
 
     /**
@@ -61,20 +63,151 @@ public class Duke {
     public void run() {
         start();
         String s = ui.getUserCommand();
-        while (!s.equals("bye")) {
+        while (s != null && !s.equals("bye")) {
             try {
                 process(s);
             } catch (InvalidCommandException e) {
-                System.out.println("WOOF!! The command is not found, please type 'help' for more info");
+                Output.println("WOOF!! The command is not found, please type 'help' for more info");
                 ui.printLine();
             }
-            s = inputCommand();
+            Output.flush();
+            s = ui.getUserCommand();
         }
         ui.showGoodByeMessage();
-        storage.storeChanges(FILEPATH, tasks);
+        TaskLists.closeAll();
+        Output.flush();
+    }
+
+    /**
+     * Run every command in a script without waiting for the user, then save the list once at the end.
+     *
+     * @param script The reader to read the commands from.
+     */
+    public void runScript(BufferedReader script) {
+        start();
+        Storage.setJournaled(false);
+        new BatchRunner(script).run();
+        ui.showGoodByeMessage();
+        TaskLists.closeAll();
+        Output.flush();
+    }
+
+    /**
+     * Serve the task list to clients over TCP until the program is stopped, saving the list as it stops.
+     *
+     * @param port The port to listen on.
+     */
+    public void serve(int port) {
+        isServing = true;
+        start();
+        Transfer.setFilesAllowed(false);
+        try (DukeServer server = new DukeServer(port)) {
+            Output.println("Duke is serving your tasks on port " + server.getPort() + ".");
+            Output.flush();
+            server.run();
+        } catch (IOException e) {
+            Output.println("Something went wrong: " + e.getMessage());
+            Output.flush();
+        }
     }
 
+    /**
+     * Start Duke. Passing --text keeps the storage file in the readable text format,
+     * and --no-echo stops the content of a text storage file from being printed while loading.
+     * Passing --script followed by a file runs the commands in the file, or in the standard input if the file is -.
+     * Passing --quiet leaves out the separation lines and the logo.
+     * Passing --serve followed by a port serves the task list to clients over TCP instead of the console.
+     * Passing --no-stats stops the counting and timing of commands shown by stats.
+     * Passing --save-delay followed by milliseconds sets how long changes are gathered before they are saved.
+     * Passing --undo followed by a number sets how many changes can be undone, 0 to keep no history.
+     * Passing --remind followed by days sets how long before a deadline or an event the user is reminded of it.
+     * Passing --data followed by a directory keeps the named task lists there instead of in data.
+     * Passing --memory followed by megabytes sets how much memory the loaded lists may take before unused ones are dropped.
+     *
+     * @param args The command line arguments.
+     */
     public static void main(String[] args) {
-        new Duke().run();
+        String script = null;
+        String port = null;
+        for (int i = 0; i < args.length; i += 1) {
+            if (args[i].equals("--text")) {
+                Storage.setTextFormat(true);
+            }
+            if (args[i].equals("--no-echo")) {
+                Storage.setEchoedOnLoad(false);
+            }
+            if (args[i].equals("--no-stats")) {
+                Stats.setEnabled(false);
+            }
+            if (args[i].equals("--save-delay") && i + 1 < args.length) {
+                try {
+                    Journal.setCommitDelay(Long.parseLong(args[i + 1]));
+                } catch (NumberFormatException e) {
+                    Output.println("WOOFS!!! The save delay must be a number of milliseconds.");
+                }
+                i += 1;
+            }
+            if (args[i].equals("--undo") && i + 1 < args.length) {
+                try {
+                    TaskList.setHistoryDepth(Integer.parseInt(args[i + 1]));
+                } catch (NumberFormatException e) {
+                    Output.println("WOOFS!!! The number of changes to undo must be a number.");
+                }
+                i += 1;
+            }
+            if (args[i].equals("--remind") && i + 1 < args.length) {
+                try {
+                    Reminders.setLeadDays(Integer.parseInt(args[i + 1]));
+                } catch (NumberFormatException e) {
+                    Output.println("WOOFS!!! The days to remind before must be a number.");
+                }
+                i += 1;
+            }
+            if (args[i].equals("--data") && i + 1 < args.length) {
+                TaskLists.setDirectory(args[i + 1]);
+                i += 1;
+            }
+            if (args[i].equals("--memory") && i + 1 < args.length) {
+                try {
+                    TaskLists.setMemoryBudget(Long.parseLong(args[i + 1]) << 20);
+                } catch (NumberFormatException e) {
+                    Output.println("WOOFS!!! The memory must be a number of megabytes.");
+                }
+                i += 1;
+            }
+            if (args[i].equals("--quiet")) {
+                Output.setQuiet(true);
+            }
+            if (args[i].equals("--script") && i + 1 < args.length) {
+                script = args[i + 1];
+                i += 1;
+            }
+            if (args[i].equals("--serve") && i + 1 < args.length) {
+                port = args[i + 1];
+                i += 1;
+            }
+        }
+        if (port != null) {
+            try {
+                new Duke().serve(Integer.parseInt(port));
+            } catch (NumberFormatException e) {
+                Output.println("WOOFS!!! The port must be a number.");
+                Output.flush();
+            }
+            return;
+        }
+        if (script == null) {
+            new Duke().run();
+            return;
+        }
+        final InputStream scriptInput;
+        try {
+            scriptInput = script.equals("-") ? System.in : new FileInputStream(script);
+        } catch (FileNotFoundException e) {
+            Output.println("WOOFS!!! The script " + script + " is not found.");
+            Output.flush();
+            return;
+        }
+        new Duke().runScript(new BufferedReader(new InputStreamReader(scriptInput, StandardCharsets.UTF_8), 1 << 16));
     }
 }
@@ -0,0 +1,117 @@
+package duke;
+
+import duke.exceptions.InvalidCommandException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the task list to many clients at once over TCP on the loopback address.
+ * Every connection is handled on its own virtual thread and takes the same commands as the console,
+ * one per line. What a command prints is sent back to the client that entered it, followed by an empty line
+ * so the client can tell where the reply ends. All clients share the one task list.
+ */
+public class DukeServer implements AutoCloseable {
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Start listening for clients.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port couldn't be listened on.
+     */
+    public DukeServer(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accept clients until the server is closed.
+     */
+    public void run() {
+        while (!serverSocket.isClosed()) {
+            try {
+                final Socket socket = serverSocket.accept();
+                connections.submit(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    Output.println("Something went wrong: " + e.getMessage());
+                    Output.flush();
+                }
+            }
+        }
+    }
+
+    /**
+     * Run a command from a client. Commands from different clients run at the same time,
+     * since the task list lets them read it while another changes it.
+     *
+     * @param command The command entered by the client.
+     */
+    public static void execute(String command) {
+        try {
+            Duke.process(command);
+        } catch (InvalidCommandException e) {
+            Output.println("WOOF!! The command is not found, please type 'help' for more info");
+            Ui.printLine();
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            final BufferedReader input = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Output.redirect(new BufferedWriter(
+                    new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)));
+            Output.println("Hello! I'm Duke  U ´ᴥ` U\n" + "What can I do for you?");
+            endReply();
+            String line = input.readLine();
+            while (line != null) {
+                final String command = line.trim();
+                if (command.equals("bye")) {
+                    Output.println("Bye. Hope to see you again soon!ﾉ~");
+                    endReply();
+                    return;
+                }
+                if (!command.isEmpty() && command.charAt(0) != '#') {
+                    execute(line);
+                    endReply();
+                }
+                line = input.readLine();
+            }
+        } catch (IOException e) {
+            // The client has gone away.
+        } finally {
+            TaskLists.leave();
+            Output.reset();
+        }
+    }
+
+    private static void endReply() {
+        Output.println();
+        Output.flush();
+    }
+
+    /**
+     * Stop accepting clients and close the connections that are open.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+}
@@ -1,33 +1,42 @@
 package duke;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.text.DateFormat;
+import java.time.LocalDate;
 
 /**
  * The class represent a todo item in the task list.
- * It contains a Date from and a Date to, indicating when does the event start and end.
+ * It contains a LocalDate from and a LocalDate to, indicating when does the event start and end.
  */
 public class Event extends Task {
 
-    protected Date from;
-    protected Date to;
+    protected LocalDate from;
+    protected LocalDate to;
 
-    public Event(String description, Date from, Date to) {
+    public Event(String description, LocalDate from, LocalDate to) {
         super(description);
         this.from = from;
         this.to = to;
     }
 
     @Override
-    public String toString() {
-        final DateFormat dateFormat = new SimpleDateFormat("MMM dd yyyy");
-        return "[E]" + super.toString() +
-                " (from: " + dateFormat.format(from) + ", to: " + dateFormat.format(to) + ") ";
+    protected Task copy() {
+        return new Event(description, from, to);
     }
-    public String toStorage() {
-        final DateFormat dateFormat = new SimpleDateFormat("yyyy-mm-dd");
-        return "[E]" + super.toStorage() + " from: " + dateFormat.format(from)
-                + " to: " + dateFormat.format(to);
+
+    @Override
+    protected void renderDisplay(StringBuilder out) {
+        out.append("[E]");
+        super.renderDisplay(out);
+        out.append(" (from: ");
+        DISPLAY_DATE_FORMAT.formatTo(from, out);
+        out.append(", to: ");
+        DISPLAY_DATE_FORMAT.formatTo(to, out);
+        out.append(") ");
+    }
+
+    @Override
+    protected void renderStorage(StringBuilder out) {
+        out.append("[E]");
+        super.renderDisplay(out);
+        out.append(" from: ").append(from).append(" to: ").append(to);
     }
 }
@@ -0,0 +1,168 @@
+package duke;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * A set of day intervals that can report every interval overlapping a query range,
+ * used to find events without going through the whole list.
+ *
+ * It is a treap ordered by start day and then task id, where every node also
+ * remembers the latest end day in its subtree, so subtrees ending before the range are skipped.
+ * Nodes are never changed: an update copies the nodes on its path and swaps in the new root,
+ * so one thread may update the tree while others search it.
+ */
+public class IntervalTree {
+    private static class Node {
+        final long start;
+        final long end;
+        final int id;
+        final int priority;
+        final long maxEnd;
+        final Node left;
+        final Node right;
+
+        Node(long start, long end, int id, int priority, Node left, Node right) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            long maxEnd = end;
+            if (left != null) {
+                maxEnd = Math.max(maxEnd, left.maxEnd);
+            }
+            if (right != null) {
+                maxEnd = Math.max(maxEnd, right.maxEnd);
+            }
+            this.maxEnd = maxEnd;
+        }
+
+        /**
+         * @return A copy of the node with other children.
+         */
+        Node with(Node left, Node right) {
+            return new Node(start, end, id, priority, left, right);
+        }
+    }
+
+    private final Random random = new Random();
+    private volatile Node root;
+    private int size = 0;
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add the interval of a task.
+     *
+     * @param start The first day of the interval.
+     * @param end The last day of the interval.
+     * @param id The id of the task.
+     */
+    public void add(long start, long end, int id) {
+        root = insert(root, new Node(start, end, id, random.nextInt(), null, null));
+        size += 1;
+    }
+
+    /**
+     * Remove the interval of a task, if it is there.
+     *
+     * @param start The first day of the interval, as it was added.
+     * @param id The id of the task.
+     */
+    public void remove(long start, int id) {
+        final Node oldRoot = root;
+        root = delete(oldRoot, start, id);
+        if (root != oldRoot) {
+            size -= 1;
+        }
+    }
+
+    /**
+     * Find every interval that shares at least one day with the range.
+     *
+     * @param from The first day of the range.
+     * @param to The last day of the range.
+     * @param result The builder to add the ids of the overlapping intervals to, in order of their start day.
+     */
+    public void findOverlapping(long from, long to, IntStream.Builder result) {
+        findOverlapping(root, from, to, result);
+    }
+
+    private static void findOverlapping(Node node, long from, long to, IntStream.Builder result) {
+        if (node == null || node.maxEnd < from) {
+            return;
+        }
+        findOverlapping(node.left, from, to, result);
+        if (node.start > to) {
+            // Everything to the right starts even later
+            return;
+        }
+        if (node.end >= from) {
+            result.add(node.id);
+        }
+        findOverlapping(node.right, from, to, result);
+    }
+
+    private static int compare(long start, int id, Node node) {
+        final int byStart = Long.compare(start, node.start);
+        return byStart != 0 ? byStart : Integer.compare(id, node.id);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            final Node left = insert(node.left, added);
+            if (left.priority > node.priority) {
+                // Rotate right
+                return left.with(left.left, node.with(left.right, node.right));
+            }
+            return node.with(left, node.right);
+        }
+        final Node right = insert(node.right, added);
+        if (right.priority > node.priority) {
+            // Rotate left
+            return right.with(node.with(node.left, right.left), right.right);
+        }
+        return node.with(node.left, right);
+    }
+
+    /**
+     * @return The subtree without the interval, which is the same node if the interval isn't in it.
+     */
+    private static Node delete(Node node, long start, int id) {
+        if (node == null) {
+            return null;
+        }
+        final int comparison = compare(start, id, node);
+        if (comparison < 0) {
+            final Node left = delete(node.left, start, id);
+            return left == node.left ? node : node.with(left, node.right);
+        } else if (comparison > 0) {
+            final Node right = delete(node.right, start, id);
+            return right == node.right ? node : node.with(node.left, right);
+        }
+        return merge(node.left, node.right);
+    }
+
+    /**
+     * Join two treaps where every node of the left one comes before every node of the right one.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return left.with(left.left, merge(left.right, right));
+        }
+        return right.with(merge(left, right.left), right.right);
+    }
+}
@@ -0,0 +1,506 @@
+package duke;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal of the changes made to the task list since the last snapshot.
+ * Every add, mark, unmark and delete is appended as one record, and so are the tasks an undo puts back,
+ * so saving a change costs a single small write instead of rewriting the whole storage file.
+ * Records are collected in memory and written by a background thread, several at a time with one force to disk,
+ * so the thread making a change never waits for the disk.
+ *
+ * Each record is laid out as [payload length][crc][op][task index][payload],
+ * where the payload is only used by add records to hold the task,
+ * by the records of bulk changes to hold the runs of indices they changed,
+ * and by insert records to hold the index of each task put back followed by the task.
+ * A task is held as its fields, as in the binary snapshot: [type and done flags][first day][second day]
+ * [description length][description], so replaying it never parses text the user typed.
+ * A bulk change is a single record, so it is replayed whole or not at all.
+ *
+ * Only a record that is incomplete or fails its checksum, as the last record is when a crash tears it,
+ * is cut off. A complete record that can't be applied stops the replay with the reason, so nothing is lost.
+ *
+ * The records are replayed onto the tasks as they were loaded, before the list is built from them,
+ * since a task put back in the middle of the list gets its id only once every record is applied.
+ */
+public class Journal {
+    static final byte ADD = 1;
+    static final byte MARK = 2;
+    static final byte UNMARK = 3;
+    static final byte DELETE = 4;
+    /** Bulk changes, whose index is the number of runs in the payload, each run a start index and a length. */
+    static final byte MARK_SET = 5;
+    static final byte UNMARK_SET = 6;
+    static final byte DELETE_SET = 7;
+    /** Tasks put back by undoing a deletion, whose index is the number of tasks in the payload. */
+    static final byte INSERT_SET = 8;
+
+    private static final int HEADER_SIZE = 4 + 4 + 1 + 4;
+    private static final int TASK_HEADER_SIZE = 1 + 8 + 8 + 4;
+
+    private static final byte TODO = 1;
+    private static final byte DEADLINE = 2;
+    private static final byte EVENT = 3;
+    private static final byte TYPE_MASK = 0x03;
+    private static final byte DONE_FLAG = (byte) 0x80;
+
+    /** How long a record may wait in memory for later records to be written and forced to disk with it. */
+    private static volatile long commitDelayNanos = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final FileChannel channel;
+    private final CRC32 crc = new CRC32();
+    /** Guards the pending records and whether the journal is closed. */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hasPending = lock.newCondition();
+    /** Records appended but not written yet, which are lost if the program crashes before they are. */
+    private ByteBuffer pending = ByteBuffer.allocate(4096);
+    private long firstPendingAt;
+    private boolean isClosed = false;
+    /** Taken while a batch is written, so batches reach the file in the order they were appended. */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private Thread committer;
+
+    private Journal(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Choose how long a change may wait before it is written to the journal.
+     * Changes made within the delay are written and forced to disk together, in the background,
+     * so making a change never waits for the disk. A crash loses at most the changes of the last delay.
+     *
+     * @param millis The delay in milliseconds, 0 to write every change as soon as the background thread can.
+     */
+    public static void setCommitDelay(long millis) {
+        commitDelayNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Open the journal at the given path for appending, creating it if needed, and start writing it in the background.
+     * Anything after the last complete record, such as a record torn by a crash, is cut off.
+     *
+     * @param path The path of the journal file.
+     * @param validLength The length of the journal that holds complete records.
+     * @return The opened journal.
+     * @throws IOException If the journal file couldn't be opened.
+     */
+    public static Journal open(Path path, long validLength) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(validLength);
+        channel.position(validLength);
+        final Journal journal = new Journal(channel);
+        // A virtual thread, so that every loaded task list can have a journal without holding a thread of its own
+        journal.committer = Thread.ofVirtual().name("duke-journal").start(journal::commitInBackground);
+        return journal;
+    }
+
+    /**
+     * Append one record to the journal.
+     * The record is only copied into memory here, and written with the records after it by the background thread.
+     *
+     * @param op The type of change.
+     * @param index The index of the task that was changed.
+     * @param task The task that was added, only used for add records.
+     * @throws IOException If the journal has been closed.
+     */
+    public void append(byte op, int index, Task task) throws IOException {
+        if (task == null) {
+            append(op, index, new byte[0]);
+            return;
+        }
+        final byte[] description = task.description.getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer payload = ByteBuffer.allocate(TASK_HEADER_SIZE + description.length);
+        putTask(payload, task, description);
+        append(op, index, payload.array());
+    }
+
+    /**
+     * Append one record for a change to many tasks, storing their indices as runs of consecutive indices.
+     *
+     * @param op The type of bulk change.
+     * @param indices The 0-based indices of the tasks that were changed, in ascending order.
+     * @throws IOException If the journal has been closed.
+     */
+    public void appendSet(byte op, int[] indices) throws IOException {
+        final ByteBuffer runs = ByteBuffer.allocate(indices.length * 8);
+        int runCount = 0;
+        int i = 0;
+        while (i < indices.length) {
+            int end = i + 1;
+            while (end < indices.length && indices[end] == indices[end - 1] + 1) {
+                end += 1;
+            }
+            runs.putInt(indices[i]).putInt(end - i);
+            runCount += 1;
+            i = end;
+        }
+        append(op, runCount, Arrays.copyOf(runs.array(), runs.position()));
+    }
+
+    /**
+     * Append one record for tasks put back into the list, as undoing a deletion does.
+     *
+     * @param indices The 0-based indices of the tasks in the list once they are back, in ascending order.
+     * @param tasks The tasks put back, in the same order.
+     * @throws IOException If the journal has been closed.
+     */
+    public void appendInsertSet(int[] indices, Task[] tasks) throws IOException {
+        final byte[][] descriptions = new byte[tasks.length][];
+        int size = 0;
+        for (int i = 0; i < tasks.length; i += 1) {
+            descriptions[i] = tasks[i].description.getBytes(StandardCharsets.UTF_8);
+            size += 4 + TASK_HEADER_SIZE + descriptions[i].length;
+        }
+        final ByteBuffer payload = ByteBuffer.allocate(size);
+        for (int i = 0; i < tasks.length; i += 1) {
+            putTask(payload.putInt(indices[i]), tasks[i], descriptions[i]);
+        }
+        append(INSERT_SET, tasks.length, payload.array());
+    }
+
+    private static void putTask(ByteBuffer payload, Task task, byte[] description) {
+        byte flag;
+        long firstDay = 0;
+        long secondDay = 0;
+        if (task instanceof Deadline) {
+            flag = DEADLINE;
+            firstDay = ((Deadline) task).by.toEpochDay();
+        } else if (task instanceof Event) {
+            flag = EVENT;
+            firstDay = ((Event) task).from.toEpochDay();
+            secondDay = ((Event) task).to.toEpochDay();
+        } else {
+            flag = TODO;
+        }
+        if (task.isDone) {
+            flag |= DONE_FLAG;
+        }
+        payload.put(flag).putLong(firstDay).putLong(secondDay).putInt(description.length).put(description);
+    }
+
+    private void append(byte op, int index, byte[] payload) throws IOException {
+        lock.lock();
+        try {
+            if (isClosed) {
+                throw new IOException("The journal is closed.");
+            }
+            final int recordSize = HEADER_SIZE + payload.length;
+            if (pending.remaining() < recordSize) {
+                final ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2,
+                        pending.position() + recordSize));
+                pending.flip();
+                pending = grown.put(pending);
+            }
+            crc.reset();
+            crc.update(op);
+            crc.update(index >>> 24);
+            crc.update(index >>> 16);
+            crc.update(index >>> 8);
+            crc.update(index);
+            crc.update(payload);
+            if (pending.position() == 0) {
+                firstPendingAt = System.nanoTime();
+                hasPending.signal();
+            }
+            pending.putInt(payload.length).putInt((int) crc.getValue()).put(op).putInt(index).put(payload);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait for records, then give later records the commit delay to join them before writing them all at once.
+     */
+    private void commitInBackground() {
+        while (true) {
+            lock.lock();
+            try {
+                while (pending.position() == 0 && !isClosed) {
+                    hasPending.await();
+                }
+                long wait = firstPendingAt + commitDelayNanos - System.nanoTime();
+                while (wait > 0 && !isClosed) {
+                    wait = hasPending.awaitNanos(wait);
+                }
+                if (isClosed) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                sync();
+            } catch (IOException e) {
+                Output.println("Something went wrong: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Write every record appended so far in one write, and force them to disk.
+     *
+     * @throws IOException If error occurred when writing or forcing the journal.
+     */
+    public void sync() throws IOException {
+        writeLock.lock();
+        try {
+            final ByteBuffer batch;
+            lock.lock();
+            try {
+                if (pending.position() == 0 || !channel.isOpen()) {
+                    return;
+                }
+                batch = ByteBuffer.wrap(Arrays.copyOf(pending.array(), pending.position()));
+                pending.clear();
+            } finally {
+                lock.unlock();
+            }
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            channel.force(false);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return The size of the journal, counting the records that haven't been written yet.
+     * @throws IOException If error occurred when reading the size of the file.
+     */
+    public long size() throws IOException {
+        lock.lock();
+        try {
+            return channel.size() + pending.position();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop the background thread, then write every record left and close the journal.
+     *
+     * @throws IOException If error occurred when closing the journal.
+     */
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            isClosed = true;
+            hasPending.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeLock.lock();
+        try {
+            sync();
+            channel.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * The tasks after the records of a journal were applied to them.
+     */
+    static class Replay {
+        final TaskSnapshot tasks;
+        /** The length of the journal that holds complete records, 0 if the journal doesn't exist. */
+        final long validLength;
+        /** Why a complete record couldn't be applied, or null if every complete record was applied. */
+        final String failure;
+
+        private Replay(TaskSnapshot tasks, long validLength, String failure) {
+            this.tasks = tasks;
+            this.validLength = validLength;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * Apply every complete record in the journal to the tasks, in the order they were written.
+     * Replay stops at the first record that is incomplete or fails its checksum, which is where the journal is cut
+     * off when it is opened again, or at the first complete record that doesn't fit the tasks, which is reported.
+     *
+     * @param path The path of the journal file.
+     * @param tasks The tasks loaded from the storage file, which haven't been given ids yet.
+     * @return The tasks with the records applied, the length of the journal that holds complete records,
+     *     and why replay stopped early if a complete record couldn't be applied.
+     * @throws IOException If error occurred when reading the journal.
+     */
+    public static Replay replay(Path path, TaskSnapshot tasks) throws IOException {
+        if (!Files.exists(path)) {
+            return new Replay(tasks, 0, null);
+        }
+        final ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(path));
+        final CRC32 check = new CRC32();
+        TaskSnapshot replayed = tasks;
+        long validLength = 0;
+        while (records.remaining() >= HEADER_SIZE) {
+            final int payloadLength = records.getInt();
+            final int expectedCrc = records.getInt();
+            if (payloadLength < 0 || records.remaining() < 1 + 4 + payloadLength) {
+                break;
+            }
+            final int start = records.position();
+            final int recordStart = start - 8;
+            check.reset();
+            check.update(records.array(), start, 1 + 4 + payloadLength);
+            if ((int) check.getValue() != expectedCrc) {
+                break;
+            }
+            final byte op = records.get();
+            final int index = records.getInt();
+            final ByteBuffer payload = records.slice(records.position(), payloadLength);
+            records.position(records.position() + payloadLength);
+            final TaskSnapshot applied = apply(replayed, op, index, payload);
+            if (applied == null) {
+                return new Replay(replayed, recordStart, "the change at byte " + recordStart + " of "
+                        + path.getFileName() + " couldn't be applied");
+            }
+            replayed = applied;
+            validLength = records.position();
+        }
+        return new Replay(replayed, validLength, null);
+    }
+
+    /**
+     * @return The tasks with the record applied, or null if the record doesn't fit them.
+     */
+    private static TaskSnapshot apply(TaskSnapshot tasks, byte op, int index, ByteBuffer payload) {
+        if (op == MARK_SET || op == UNMARK_SET || op == DELETE_SET) {
+            return applySet(tasks, op, index, payload);
+        }
+        if (op == INSERT_SET) {
+            return applyInsertSet(tasks, index, payload);
+        }
+        if (op != ADD && (index < 0 || index >= tasks.size())) {
+            return null;
+        }
+        switch (op) {
+        case ADD:
+            final Task task = getTask(payload);
+            return task == null || payload.hasRemaining() ? null : tasks.withAdded(task);
+        case MARK:
+            return tasks.withReplaced(index, tasks.get(index).withDone(true));
+        case UNMARK:
+            return tasks.withReplaced(index, tasks.get(index).withDone(false));
+        case DELETE:
+            return tasks.withRemoved(index);
+        default:
+            return null;
+        }
+    }
+
+    private static TaskSnapshot applySet(TaskSnapshot tasks, byte op, int runCount, ByteBuffer payload) {
+        if (runCount < 0 || payload.remaining() != runCount * 8) {
+            return null;
+        }
+        final int size = tasks.size();
+        final IntStream.Builder indices = IntStream.builder();
+        long next = 0;
+        for (int i = 0; i < runCount; i += 1) {
+            final int start = payload.getInt();
+            final int length = payload.getInt();
+            if (start < next || length < 1 || (long) start + length > size) {
+                return null;
+            }
+            for (int j = start; j < start + length; j += 1) {
+                indices.add(j);
+            }
+            next = (long) start + length;
+        }
+        final int[] selected = indices.build().toArray();
+        if (op == DELETE_SET) {
+            return tasks.withRemoved(selected);
+        }
+        final Task[] marked = new Task[selected.length];
+        for (int i = 0; i < selected.length; i += 1) {
+            marked[i] = tasks.get(selected[i]).withDone(op == MARK_SET);
+        }
+        return tasks.withReplaced(selected, marked);
+    }
+
+    private static TaskSnapshot applyInsertSet(TaskSnapshot tasks, int count, ByteBuffer payload) {
+        if (count < 1) {
+            return null;
+        }
+        TaskSnapshot inserted = tasks;
+        int last = -1;
+        for (int i = 0; i < count; i += 1) {
+            if (payload.remaining() < 4) {
+                return null;
+            }
+            final int index = payload.getInt();
+            final Task task = getTask(payload);
+            if (index <= last || index > inserted.size() || task == null) {
+                return null;
+            }
+            inserted = inserted.withInserted(index, task);
+            last = index;
+        }
+        return payload.hasRemaining() ? null : inserted;
+    }
+
+    /**
+     * Read a task laid out by putTask, leaving the payload after it.
+     *
+     * @return The task, or null if the payload doesn't hold a valid task.
+     */
+    private static Task getTask(ByteBuffer payload) {
+        if (payload.remaining() < TASK_HEADER_SIZE) {
+            return null;
+        }
+        final byte flag = payload.get();
+        final long firstDay = payload.getLong();
+        final long secondDay = payload.getLong();
+        final int length = payload.getInt();
+        if (length < 0 || payload.remaining() < length || !isDay(firstDay) || !isDay(secondDay)) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        payload.get(bytes);
+        final String description = new String(bytes, StandardCharsets.UTF_8);
+        final Task task;
+        switch (flag & TYPE_MASK) {
+        case TODO:
+            task = new Todo(description);
+            break;
+        case DEADLINE:
+            task = new Deadline(description, LocalDate.ofEpochDay(firstDay));
+            break;
+        case EVENT:
+            task = new Event(description, LocalDate.ofEpochDay(firstDay), LocalDate.ofEpochDay(secondDay));
+            break;
+        default:
+            return null;
+        }
+        if ((flag & DONE_FLAG) != 0) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    private static boolean isDay(long day) {
+        return day >= LocalDate.MIN.toEpochDay() && day <= LocalDate.MAX.toEpochDay();
+    }
+}
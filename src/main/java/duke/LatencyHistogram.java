@@ -0,0 +1,111 @@
+package duke;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in nanoseconds that many threads can record into without locking.
+ * Like an HDR histogram, every power of two is split into SUB_BUCKETS buckets of equal width,
+ * so a percentile read from it is within 1/SUB_BUCKETS of the real duration however long it is,
+ * while the histogram stays a fixed few kilobytes.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param nanos The duration to record, which is counted as 0 if it is negative.
+     */
+    public void record(long nanos) {
+        final long duration = Math.max(nanos, 0);
+        counts.incrementAndGet(bucketOf(duration));
+        count.increment();
+        total.add(duration);
+        if (duration > max.get()) {
+            max.accumulateAndGet(duration, Math::max);
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return The mean duration in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getMean() {
+        final long recorded = count.sum();
+        return recorded == 0 ? 0 : total.sum() / recorded;
+    }
+
+    /**
+     * Find the duration that the given fraction of the recorded durations are at or below.
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @return The highest duration of the bucket the percentile falls in, capped at the maximum recorded.
+     */
+    public long getPercentile(double percentile) {
+        long recorded = 0;
+        for (int i = 0; i < BUCKETS; i += 1) {
+            recorded += counts.get(i);
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i += 1) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Forget everything recorded so far.
+     * Durations recorded while it resets may be partly kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i += 1) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    /**
+     * Durations below SUB_BUCKETS get a bucket each, and every power of two above is split into SUB_BUCKETS buckets.
+     */
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        final int magnitude = 63 - Long.numberOfLeadingZeros(nanos);
+        final int subBucket = (int) (nanos >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final int magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long subBucket = bucket % SUB_BUCKETS;
+        final long width = 1L << (magnitude - SUB_BUCKET_BITS);
+        return (1L << magnitude) + (subBucket + 1) * width - 1;
+    }
+}
@@ -0,0 +1,518 @@
+package duke;
+
+import duke.exceptions.FormatException;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * A query that list answers instead of a page, such as type:D done:no by<2023-04-01 sort:by limit:20,
+ * compiled into a plan for running it.
+ *
+ * The filters the indexes can answer, has: for words of three or more characters and the dates, are looked up there,
+ * and the ids they give are intersected rarest first, so only tasks that may match are visited.
+ * Without such a filter the tasks are visited straight from the list. Either way they are visited in list order
+ * and every filter is checked on each one as it is reached.
+ * Without sort: the visit stops as soon as limit tasks have matched. With sort: every match has to be seen,
+ * and a heap of limit tasks keeps the first ones in sort order, which costs O(n log limit) instead of sorting them all.
+ * Deadlines sorted by when they are due are the exception: the date index keeps them in that order,
+ * so it is walked a day at a time until more than limit tasks have matched, and only those are put in order.
+ */
+public class ListQuery {
+    private static final int TODO = 1;
+    private static final int DEADLINE = 2;
+    private static final int EVENT = 4;
+    private static final int ANY_TYPE = TODO | DEADLINE | EVENT;
+    /** The day key of a task that doesn't have the date it is sorted by, which puts it last. */
+    private static final long NO_DAY = Long.MAX_VALUE;
+    /**
+     * A task is looked up by its id by descending the list, so once there is a candidate in fewer than this many tasks,
+     * walking the list beside the candidates is cheaper.
+     */
+    private static final int LOOKUP_COST = 16;
+
+    private int types = ANY_TYPE;
+    /** Whether matching tasks are done, or null for both. */
+    private Boolean isDone = null;
+    private String keyword = null;
+    private DayRange by = null;
+    private DayRange from = null;
+    private DayRange to = null;
+    private String sortField = null;
+    private int direction = 1;
+    private int limit = Command.PAGE_SIZE;
+
+    /**
+     * The days a date of the matching tasks has to fall on, both ends included.
+     */
+    private static class DayRange {
+        private long first = Long.MIN_VALUE;
+        private long last = Long.MAX_VALUE;
+
+        private boolean contains(long day) {
+            return day >= first && day <= last;
+        }
+
+        private boolean isEmpty() {
+            return first > last;
+        }
+    }
+
+    /**
+     * A matching task along with its 0-based index in the list.
+     */
+    public static class Match {
+        public final int index;
+        public final Task task;
+
+        private Match(int index, Task task) {
+            this.index = index;
+            this.task = task;
+        }
+    }
+
+    /**
+     * The tasks a query found, in the order they are to be shown.
+     */
+    public static class Result {
+        public final List<Match> matches;
+        /** The number of matching tasks in the list, or -1 if the query stopped before it saw them all. */
+        public final int total;
+        /** Whether more tasks match than are shown. */
+        public final boolean hasMore;
+
+        private Result(List<Match> matches, int total, boolean hasMore) {
+            this.matches = matches;
+            this.total = total;
+            this.hasMore = hasMore;
+        }
+    }
+
+    /**
+     * Check whether list was given a query rather than a page or a cursor.
+     *
+     * @param commandArgs The arguments entered after list.
+     * @return True if any word has a filter, sort or limit in it.
+     */
+    public static boolean isQuery(String commandArgs) {
+        return commandArgs.indexOf(':') != -1 || commandArgs.indexOf('<') != -1 || commandArgs.indexOf('>') != -1;
+    }
+
+    /**
+     * Compile a query. Each word is a filter, the order or the limit:
+     * type:T,D,E, done:yes or no, has:keyword, by, from or to followed by :, <, <=, > or >= and a date,
+     * sort:by, from, to or description, with - in front to sort the other way, and limit:number.
+     *
+     * @param commandArgs The query entered after list.
+     * @return The query.
+     * @throws FormatException If a word is not a filter, an order or a limit that can be used.
+     * @throws ParseException If the date of a filter couldn't be parsed.
+     */
+    public static ListQuery parse(String commandArgs) throws FormatException, ParseException {
+        final ListQuery query = new ListQuery();
+        for (String word : commandArgs.trim().split("\\s+")) {
+            int nameEnd = 0;
+            while (nameEnd < word.length() && ":<>".indexOf(word.charAt(nameEnd)) == -1) {
+                nameEnd += 1;
+            }
+            int valueStart = Math.min(nameEnd + 1, word.length());
+            if (valueStart < word.length() && word.charAt(valueStart) == '=' && word.charAt(nameEnd) != ':') {
+                valueStart += 1;
+            }
+            if (nameEnd == word.length() || valueStart == word.length()) {
+                throw new FormatException();
+            }
+            final String operator = word.substring(nameEnd, valueStart);
+            final String value = word.substring(valueStart);
+            final String name = word.substring(0, nameEnd).toLowerCase(Locale.ROOT);
+            if (!operator.equals(":") && !name.equals("by") && !name.equals("from") && !name.equals("to")) {
+                throw new FormatException();
+            }
+            switch (name) {
+            case "type":
+                query.types &= parseTypes(value);
+                break;
+            case "done":
+                query.isDone = parseDone(value);
+                break;
+            case "has":
+                query.keyword = value;
+                break;
+            case "by":
+                query.by = narrow(query.by, operator, Parser.parseDate(value).toEpochDay());
+                query.types &= DEADLINE;
+                break;
+            case "from":
+                query.from = narrow(query.from, operator, Parser.parseDate(value).toEpochDay());
+                query.types &= EVENT;
+                break;
+            case "to":
+                query.to = narrow(query.to, operator, Parser.parseDate(value).toEpochDay());
+                query.types &= EVENT;
+                break;
+            case "sort":
+                query.direction = value.startsWith("-") ? -1 : 1;
+                query.sortField = (query.direction < 0 ? value.substring(1) : value).toLowerCase(Locale.ROOT);
+                if (!Arrays.asList("by", "from", "to", "description").contains(query.sortField)) {
+                    throw new FormatException();
+                }
+                break;
+            case "limit":
+                try {
+                    query.limit = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    throw new FormatException();
+                }
+                if (query.limit < 1) {
+                    throw new FormatException();
+                }
+                break;
+            default:
+                throw new FormatException();
+            }
+        }
+        for (DayRange range : new DayRange[] {query.by, query.from, query.to}) {
+            if (range != null && range.isEmpty()) {
+                query.types = 0;
+            }
+        }
+        return query;
+    }
+
+    private static int parseTypes(String value) throws FormatException {
+        int types = 0;
+        for (String type : value.toLowerCase(Locale.ROOT).split(",")) {
+            switch (type) {
+            case "t":
+            case "todo":
+                types |= TODO;
+                break;
+            case "d":
+            case "deadline":
+                types |= DEADLINE;
+                break;
+            case "e":
+            case "event":
+                types |= EVENT;
+                break;
+            default:
+                throw new FormatException();
+            }
+        }
+        return types;
+    }
+
+    private static Boolean parseDone(String value) throws FormatException {
+        switch (value.toLowerCase(Locale.ROOT)) {
+        case "yes":
+        case "true":
+            return true;
+        case "no":
+        case "false":
+            return false;
+        default:
+            throw new FormatException();
+        }
+    }
+
+    private static DayRange narrow(DayRange range, String operator, long day) {
+        final DayRange narrowed = range == null ? new DayRange() : range;
+        switch (operator) {
+        case "<":
+            narrowed.last = Math.min(narrowed.last, day - 1);
+            break;
+        case "<=":
+            narrowed.last = Math.min(narrowed.last, day);
+            break;
+        case ">":
+            narrowed.first = Math.max(narrowed.first, day + 1);
+            break;
+        case ">=":
+            narrowed.first = Math.max(narrowed.first, day);
+            break;
+        default:
+            narrowed.first = Math.max(narrowed.first, day);
+            narrowed.last = Math.min(narrowed.last, day);
+            break;
+        }
+        return narrowed;
+    }
+
+    /**
+     * @return Whether any filter can be looked up in the indexes, so the query doesn't have to visit every task.
+     */
+    boolean usesIndexes() {
+        return (keyword != null && keyword.length() >= TrigramIndex.MIN_KEYWORD_LENGTH)
+                || by != null || from != null || to != null;
+    }
+
+    /**
+     * @return Whether the query is for deadlines in the order they are due, which the date index can give them in.
+     *     A keyword that the trigram index can look up is more selective, so the query is left to it then.
+     */
+    boolean walksDeadlinesByDay() {
+        return types == DEADLINE && "by".equals(sortField)
+                && (keyword == null || keyword.length() < TrigramIndex.MIN_KEYWORD_LENGTH);
+    }
+
+    /**
+     * Walk the deadlines in the order they are due, a whole day at a time, until more than limit of them match.
+     * The days are finished so that the deadlines due on the same day as the last match are among the candidates.
+     */
+    private PostingList firstDeadlinesByDay(TaskList tasks, TaskSnapshot snapshot) {
+        final DayRange days = by == null ? new DayRange() : by;
+        final IntStream.Builder ids = IntStream.builder();
+        int matched = 0;
+        for (PostingList dayIds : tasks.dateIndex.deadlinesByDay(days.first, days.last, direction < 0)) {
+            if (matched > limit) {
+                break;
+            }
+            for (int i = 0; i < dayIds.size(); i += 1) {
+                ids.add(dayIds.get(i));
+                final int index = snapshot.indexOfId(dayIds.get(i));
+                if (index != -1 && matches(snapshot.get(index))) {
+                    matched += 1;
+                }
+            }
+        }
+        return PostingList.of(ids.build().toArray());
+    }
+
+    /**
+     * Look up the filters the indexes can answer, and intersect the ids they give, starting from the fewest.
+     * Every task that matches the filters is among the ids, but not every task among them matches.
+     */
+    private PostingList candidates(TaskList tasks) {
+        final List<PostingList> lists = new ArrayList<>();
+        if (keyword != null && keyword.length() >= TrigramIndex.MIN_KEYWORD_LENGTH) {
+            lists.add(tasks.trigramIndex.candidates(keyword));
+        }
+        if (by != null) {
+            lists.add(tasks.dateIndex.findDeadlines(by.first, by.last));
+        }
+        if (from != null || to != null) {
+            // An event from f to t overlaps the days from a to b when f <= b and t >= a,
+            // which every event starting and ending within the ranges does, since it can't end before it starts
+            final DayRange starts = from == null ? new DayRange() : from;
+            final DayRange ends = to == null ? new DayRange() : to;
+            lists.add(tasks.dateIndex.findEvents(Math.max(starts.first, ends.first), Math.min(starts.last, ends.last)));
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        PostingList result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.size() > 0; i += 1) {
+            result = PostingList.intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private boolean matches(Task task) {
+        if ((types & typeOf(task)) == 0) {
+            return false;
+        }
+        if (isDone != null && task.isDone != isDone) {
+            return false;
+        }
+        if (keyword != null && !task.description.contains(keyword)) {
+            return false;
+        }
+        if (by != null && !by.contains(((Deadline) task).by.toEpochDay())) {
+            return false;
+        }
+        if (from != null && !from.contains(((Event) task).from.toEpochDay())) {
+            return false;
+        }
+        return to == null || to.contains(((Event) task).to.toEpochDay());
+    }
+
+    private static int typeOf(Task task) {
+        return task instanceof Deadline ? DEADLINE : task instanceof Event ? EVENT : TODO;
+    }
+
+    /**
+     * Run the query on the list.
+     *
+     * @param tasks The list containing the user's tasks.
+     * @return The tasks found.
+     * @throws FormatException If the indexes couldn't run the lookup.
+     */
+    public Result run(TaskList tasks) throws FormatException {
+        final Iterator<Match> matches;
+        if (types == 0) {
+            matches = Collections.emptyIterator();
+        } else if (walksDeadlinesByDay()) {
+            final TaskList.Found found = tasks.find(this::firstDeadlinesByDay);
+            matches = new CandidateMatches(found.snapshot, found.ids);
+        } else if (usesIndexes()) {
+            final TaskList.Found found = tasks.find(this::candidates);
+            matches = new CandidateMatches(found.snapshot, found.ids);
+        } else {
+            matches = new ScanMatches(tasks.snapshot());
+        }
+        if (sortField == null) {
+            final List<Match> shown = new ArrayList<>();
+            while (shown.size() < limit && matches.hasNext()) {
+                shown.add(matches.next());
+            }
+            return new Result(shown, -1, matches.hasNext());
+        }
+        final Comparator<Match> order = this::compare;
+        final PriorityQueue<Match> first = new PriorityQueue<>(order.reversed());
+        int total = 0;
+        while (matches.hasNext()) {
+            final Match match = matches.next();
+            total += 1;
+            if (first.size() < limit) {
+                first.add(match);
+            } else if (order.compare(match, first.peek()) < 0) {
+                first.poll();
+                first.add(match);
+            }
+        }
+        final List<Match> shown = new ArrayList<>(first);
+        shown.sort(order);
+        // The walk over the deadlines stops early, so it doesn't know how many match in all
+        return new Result(shown, walksDeadlinesByDay() ? -1 : total, total > shown.size());
+    }
+
+    /**
+     * Order two matches by the sort field, with the tasks that don't have it last,
+     * and then by their place in the list.
+     */
+    private int compare(Match a, Match b) {
+        int comparison;
+        if (sortField.equals("description")) {
+            comparison = a.task.description.compareToIgnoreCase(b.task.description) * direction;
+        } else {
+            final long aDay = dayOf(a.task);
+            final long bDay = dayOf(b.task);
+            if ((aDay == NO_DAY) != (bDay == NO_DAY)) {
+                return aDay == NO_DAY ? 1 : -1;
+            }
+            comparison = Long.compare(aDay, bDay) * direction;
+        }
+        return comparison != 0 ? comparison : Integer.compare(a.index, b.index);
+    }
+
+    private long dayOf(Task task) {
+        switch (sortField) {
+        case "by":
+            return task instanceof Deadline ? ((Deadline) task).by.toEpochDay() : NO_DAY;
+        case "from":
+            return task instanceof Event ? ((Event) task).from.toEpochDay() : NO_DAY;
+        default:
+            return task instanceof Event ? ((Event) task).to.toEpochDay() : NO_DAY;
+        }
+    }
+
+    /**
+     * Visits the tasks of a snapshot in order, handing out the ones that match as they are reached.
+     */
+    private class ScanMatches implements Iterator<Match> {
+        private final Iterator<Task> tasks;
+        private int index = -1;
+        private Match next;
+
+        ScanMatches(TaskSnapshot snapshot) {
+            this.tasks = snapshot.iterator();
+            this.next = advance();
+        }
+
+        private Match advance() {
+            while (tasks.hasNext()) {
+                final Task task = tasks.next();
+                index += 1;
+                if (matches(task)) {
+                    return new Match(index, task);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Match next() {
+            final Match match = next;
+            next = advance();
+            return match;
+        }
+    }
+
+    /**
+     * Visits the tasks with the candidate ids in list order, which is the order of their ids,
+     * handing out the ones that match as they are reached. Ids of tasks no longer in the snapshot are skipped.
+     * Few candidates are looked up one by one, and many are found by walking the list beside them.
+     */
+    private class CandidateMatches implements Iterator<Match> {
+        private final TaskSnapshot snapshot;
+        private final PostingList ids;
+        /** Walks the list beside the ids, or null if they are looked up one by one. */
+        private final Iterator<Task> walk;
+        private Task current;
+        private int walkIndex = -1;
+        private int position = 0;
+        private Match next;
+
+        CandidateMatches(TaskSnapshot snapshot, PostingList ids) {
+            this.snapshot = snapshot;
+            this.ids = ids;
+            this.walk = (long) ids.size() * LOOKUP_COST >= snapshot.size() ? snapshot.iterator() : null;
+            this.next = advance();
+        }
+
+        private Match advance() {
+            while (position < ids.size()) {
+                final int id = ids.get(position);
+                position += 1;
+                final int index = walk == null ? snapshot.indexOfId(id) : walkTo(id);
+                if (index == -1) {
+                    continue;
+                }
+                final Task task = walk == null ? snapshot.get(index) : current;
+                if (matches(task)) {
+                    return new Match(index, task);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Walk on to the task with the id, which comes after the tasks walked past so far if it is in the list.
+         *
+         * @return The index of the task, or -1 if it is not in the list.
+         */
+        private int walkTo(int id) {
+            while (current == null || current.id < id) {
+                if (!walk.hasNext()) {
+                    return -1;
+                }
+                current = walk.next();
+                walkIndex += 1;
+            }
+            return current.id == id ? walkIndex : -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Match next() {
+            final Match match = next;
+            next = advance();
+            return match;
+        }
+    }
+}
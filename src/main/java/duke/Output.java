@@ -0,0 +1,175 @@
+package duke;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects everything Duke prints and writes it out in large pieces.
+ * Messages are kept in a buffer until the command that printed them has finished, or the buffer grows
+ * past a threshold, so printing a long list takes one write to the console instead of one per line.
+ * In quiet mode decorations such as separation lines are left out, which suits scripts.
+ *
+ * Output goes to the console unless the thread has redirected it, as each connection of the server does
+ * to send what its commands print back to its own client.
+ */
+public class Output {
+    /** Number of characters buffered before they are written out even if the command has not finished. */
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+
+    private static final Output console = new Output(null);
+    private static final ThreadLocal<Output> current = ThreadLocal.withInitial(() -> console);
+    private static boolean isQuiet = false;
+
+    private final StringBuilder buffer = new StringBuilder();
+    /** Where the buffer is written to, or null for System.out. */
+    private final Writer target;
+    /** Guards the buffer, since the console is shared by every thread that hasn't redirected its output. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Output(Writer target) {
+        this.target = target;
+    }
+
+    /**
+     * Choose whether decorations are printed.
+     *
+     * @param quiet True to leave out separation lines and the logo.
+     */
+    public static void setQuiet(boolean quiet) {
+        isQuiet = quiet;
+    }
+
+    public static boolean isQuiet() {
+        return isQuiet;
+    }
+
+    /**
+     * Send everything this thread prints to the writer instead of the console, until reset is called.
+     *
+     * @param writer The writer to send the output to.
+     */
+    public static void redirect(Writer writer) {
+        current.set(new Output(writer));
+    }
+
+    /**
+     * Send what this thread prints to the console again.
+     */
+    public static void reset() {
+        current.remove();
+    }
+
+    public static void print(String s) {
+        current.get().append(s, false);
+    }
+
+    public static void print(int i) {
+        current.get().append(String.valueOf(i), false);
+    }
+
+    public static void println(Object o) {
+        current.get().append(String.valueOf(o), true);
+    }
+
+    public static void println() {
+        current.get().append("", true);
+    }
+
+    /**
+     * Print a task in the list as "index. task".
+     *
+     * @param index The index of the task in the list, starting from 1.
+     * @param task The task to print.
+     */
+    public static void printTask(int index, Task task) {
+        final Output output = current.get();
+        output.lock.lock();
+        try {
+            output.buffer.append(index).append(". ");
+            task.appendTo(output.buffer);
+            output.buffer.append(System.lineSeparator());
+            output.flushIfFull();
+        } finally {
+            output.lock.unlock();
+        }
+    }
+
+    /**
+     * Print a decoration, which is left out in quiet mode.
+     *
+     * @param s The decoration to print.
+     */
+    public static void printDecoration(String s) {
+        if (!isQuiet) {
+            println(s);
+        }
+    }
+
+    /**
+     * Print bytes that are already encoded, such as the content of a file, after everything printed before them.
+     * They always go to the console.
+     *
+     * @param bytes The bytes to print.
+     * @param offset The index of the first byte to print.
+     * @param length The number of bytes to print.
+     */
+    public static void write(byte[] bytes, int offset, int length) {
+        console.lock.lock();
+        try {
+            console.writeBuffer();
+            System.out.write(bytes, offset, length);
+        } finally {
+            console.lock.unlock();
+        }
+    }
+
+    /**
+     * Write everything this thread has printed so far.
+     */
+    public static void flush() {
+        final Output output = current.get();
+        output.lock.lock();
+        try {
+            output.writeBuffer();
+        } finally {
+            output.lock.unlock();
+        }
+    }
+
+    private void append(String s, boolean isNewLine) {
+        lock.lock();
+        try {
+            buffer.append(s);
+            if (isNewLine) {
+                buffer.append(System.lineSeparator());
+            }
+            flushIfFull();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushIfFull() {
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            writeBuffer();
+        }
+    }
+
+    private void writeBuffer() {
+        if (target == null) {
+            final PrintStream out = System.out;
+            out.append(buffer);
+            out.flush();
+        } else {
+            try {
+                target.append(buffer);
+                target.flush();
+            } catch (IOException e) {
+                // The client has gone away, which the connection notices when it next reads.
+            }
+        }
+        buffer.setLength(0);
+    }
+}
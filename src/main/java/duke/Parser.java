@@ -3,59 +3,160 @@ package duke;
 
 import duke.exceptions.FormatException;
 
-import java.text.DateFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.stream.IntStream;
 
 /**
  * A class for parsing user command into proper format for duke to implement the functinos.
  */
 public class Parser {
-    static ArrayList<SimpleDateFormat> knownPatterns = new ArrayList<SimpleDateFormat>();
+    /** Starts the cursor list shows under a page, so that it isn't mistaken for the index of a task. */
+    private static final char CURSOR_PREFIX = '@';
 
     /**
-     * Add date format to the knowPatterns list.
-     * This will allow duke to accept more different format of input date
+     * @param userInputDate The string input date entered by the user
+     * @return return the date transformed from the string input date
+     * @throws ParseException If the user input couldn't be parse into a date, the exception will be thrown.
      */
-    public static void setKnownPatterns() {
-        knownPatterns.add(new SimpleDateFormat("dd/MM/yyyy"));
-        knownPatterns.add(new SimpleDateFormat("yyyy-MM-dd"));
-        knownPatterns.add(new SimpleDateFormat("yyyy-MM-dd HH:mm:ssZ"));
-        knownPatterns.add(new SimpleDateFormat("MMM d yyyy"));
+    public static LocalDate parseDate(String userInputDate) throws ParseException {
+        final LocalDate date = DateParser.parse(userInputDate);
+        if (date == null) {
+            throw new ParseException(userInputDate, 0);
+        }
+        return date;
     }
 
     /**
-     * Parse the user input into command and description
+     * Write the cursor that carries on listing from a task, which stays valid when tasks before it are deleted.
      *
-     * @param userInputCommand The input entered by the user
-     * @return A string array consist of two elements, the first element is the command,
-     * and the second one is the description after the command
+     * @param id The id of the first task the cursor lists.
+     * @return The cursor to enter after list from.
      */
-    public String[] parseCommand(String userInputCommand) {
-        final String[] split = userInputCommand.trim().split("\\s+", 2);
-        final String[] commandTypeAndParams = split.length == 2 ? split : new String[]{split[0], ""};
-        return commandTypeAndParams;
+    public static String formatCursor(int id) {
+        return CURSOR_PREFIX + Integer.toString(id, Character.MAX_RADIX);
     }
 
     /**
-     * @param userInputDate The string input date entered by the user
-     * @return return data type Date date transformed from the string input date
-     * @throws ParseException If the user input couldn't be parse into a Date type, the exception will be thrown.
+     * @param cursor The cursor entered by the user, as formatCursor writes it.
+     * @return The id of the first task the cursor lists.
+     * @throws FormatException If the cursor is not one formatCursor writes.
+     */
+    public static int parseCursor(String cursor) throws FormatException {
+        if (cursor.length() < 2 || cursor.charAt(0) != CURSOR_PREFIX) {
+            throw new FormatException();
+        }
+        try {
+            final int id = Integer.parseInt(cursor.substring(1), Character.MAX_RADIX);
+            if (id < 0) {
+                throw new FormatException();
+            }
+            return id;
+        } catch (NumberFormatException e) {
+            throw new FormatException();
+        }
+    }
+
+    /**
+     * Check whether the user entered a selection of tasks, such as 1-500,702 or done, rather than a single index.
+     * Only input made of numbers and ranges with digits on both sides of the - counts,
+     * so that input such as -1 or 3- is reported as an invalid index like any other.
+     *
+     * @param userInput The arguments entered after delete, mark, or unmark.
+     * @return True if the input should be parsed with parseSelection.
+     */
+    public static boolean isSelection(String userInput) {
+        if (userInput.equals("all") || userInput.equals("done")) {
+            return true;
+        }
+        final String[] parts = userInput.split(",", -1);
+        boolean hasRange = false;
+        for (String part : parts) {
+            final int dash = part.indexOf('-');
+            if (!isNumber(dash == -1 ? part : part.substring(0, dash))
+                    || (dash != -1 && !isNumber(part.substring(dash + 1)))) {
+                return false;
+            }
+            hasRange = hasRange || dash != -1;
+        }
+        return parts.length > 1 || hasRange;
+    }
+
+    private static boolean isNumber(String text) {
+        final String number = text.trim();
+        if (number.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < number.length(); i += 1) {
+            if (!Character.isDigit(number.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse a selection of tasks for a bulk delete, mark, or unmark: all, done, or a comma separated
+     * list of 1-based indices and ranges such as 1-500,702,900-950.
+     * Only the form is checked here. The indices are checked against the list when the change is made,
+     * so that nothing is changed if any of them is out of range.
+     *
+     * @param userInput The selection entered by the user.
+     * @return The selection, which gives the 0-based indices in ascending order without repeats.
+     * @throws FormatException If the selection is not in the expected form.
      */
-    public static Date parseDate(String userInputDate) throws ParseException {
-        for (SimpleDateFormat pattern : knownPatterns) {
-            try {
-                return new Date(pattern.parse(userInputDate).getTime());
+    public static TaskList.Selection parseSelection(String userInput) throws FormatException {
+        if (userInput.equals("all")) {
+            return tasks -> IntStream.range(0, tasks.size()).toArray();
+        }
+        if (userInput.equals("done")) {
+            return tasks -> {
+                final IntStream.Builder indices = IntStream.builder();
+                int index = 0;
+                for (Task task : tasks) {
+                    if (task.isDone) {
+                        indices.add(index);
+                    }
+                    index += 1;
+                }
+                return indices.build().toArray();
+            };
+        }
+        final String[] parts = userInput.split(",");
+        final int[] firsts = new int[parts.length];
+        final int[] lasts = new int[parts.length];
+        for (int i = 0; i < parts.length; i += 1) {
+            final String part = parts[i].trim();
+            final int dash = part.indexOf('-');
+            firsts[i] = parsePositive(dash == -1 ? part : part.substring(0, dash));
+            lasts[i] = dash == -1 ? firsts[i] : parsePositive(part.substring(dash + 1));
+            if (lasts[i] < firsts[i]) {
+                throw new FormatException();
+            }
+        }
+        return tasks -> {
+            final BitSet selected = new BitSet();
+            for (int i = 0; i < firsts.length; i += 1) {
+                if (lasts[i] > tasks.size()) {
+                    throw new IndexOutOfBoundsException(lasts[i]);
+                }
+                selected.set(firsts[i] - 1, lasts[i]);
+            }
+            return selected.stream().toArray();
+        };
+    }
 
-            } catch (ParseException pe) {
-                // only show message when every format doesn't fit
+    private static int parsePositive(String number) throws FormatException {
+        try {
+            final int parsed = Integer.parseInt(number.trim());
+            if (parsed < 1) {
+                throw new FormatException();
             }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new FormatException();
         }
-        DateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
-        Date time = dateFormat.parse(userInputDate);
-        return time;
     }
 
     /**
@@ -69,7 +170,7 @@ public class Parser {
         try {
             return Integer.parseInt(userInputIndex);
         } catch (NumberFormatException e) {
-            System.out.println("OOPS, the index must be an number!");
+            Output.println("OOPS, the index must be an number!");
         }
         return -1;
     }
@@ -0,0 +1,156 @@
+package duke;
+
+import java.util.Arrays;
+
+/**
+ * A sorted set of task ids, used by the search indexes to record which tasks contain a term.
+ * A list never changes once it is made, so the indexes can be read while they are being updated:
+ * adding or removing an id gives a new list, which the index then puts in place of the old one.
+ * Since new tasks always get a larger id than every task before them, adding is usually an append,
+ * which writes past the end of the old list's array and shares it instead of copying it.
+ */
+public class PostingList {
+    public static final PostingList EMPTY = new PostingList(new int[0], 0);
+
+    private final int[] ids;
+    private final int size;
+
+    private PostingList(int[] ids, int size) {
+        this.ids = ids;
+        this.size = size;
+    }
+
+    /**
+     * @param ids Task ids in any order, possibly repeated.
+     * @return A new list with the given ids.
+     */
+    public static PostingList of(int... ids) {
+        final int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        int size = 0;
+        for (int id : sorted) {
+            if (size == 0 || sorted[size - 1] != id) {
+                sorted[size++] = id;
+            }
+        }
+        return new PostingList(sorted, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int i) {
+        return ids[i];
+    }
+
+    /**
+     * Add an id, keeping the list sorted. Only the newest version of a list may be added to,
+     * since an append writes into the array it shares with the version before it.
+     *
+     * @param id The id of the task.
+     * @return The list with the id, which is this list if the id is already there.
+     */
+    public PostingList with(int id) {
+        if (size > 0 && ids[size - 1] >= id) {
+            final int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return this;
+            }
+            final int insertAt = -position - 1;
+            // Ids only go in the middle when undo brings tasks back, so no room is kept for more
+            final int[] added = new int[size + 1];
+            System.arraycopy(ids, 0, added, 0, insertAt);
+            added[insertAt] = id;
+            System.arraycopy(ids, insertAt, added, insertAt + 1, size - insertAt);
+            return new PostingList(added, size + 1);
+        }
+        // Older versions only read up to their own size, so the slot past it is free to use
+        final int[] appended = size < ids.length ? ids : Arrays.copyOf(ids, Math.max(4, size * 2));
+        appended[size] = id;
+        return new PostingList(appended, size + 1);
+    }
+
+    /**
+     * Remove an id, if it is there.
+     *
+     * @param id The id of the task.
+     * @return The list without the id, which is this list if the id isn't there.
+     */
+    public PostingList without(int id) {
+        final int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return this;
+        }
+        final int[] removed = new int[size - 1];
+        System.arraycopy(ids, 0, removed, 0, position);
+        System.arraycopy(ids, position + 1, removed, position, size - position - 1);
+        return new PostingList(removed, size - 1);
+    }
+
+    public boolean contains(int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * @return A new list with the ids found in both lists.
+     */
+    public static PostingList intersect(PostingList a, PostingList b) {
+        final int[] result = new int[Math.min(a.size, b.size)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.ids[i] < b.ids[j]) {
+                i += 1;
+            } else if (a.ids[i] > b.ids[j]) {
+                j += 1;
+            } else {
+                result[size++] = a.ids[i];
+                i += 1;
+                j += 1;
+            }
+        }
+        return new PostingList(result, size);
+    }
+
+    /**
+     * @return A new list with the ids found in either list.
+     */
+    public static PostingList union(PostingList a, PostingList b) {
+        final int[] result = new int[a.size + b.size];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.ids[i] < b.ids[j])) {
+                result[size++] = a.ids[i++];
+            } else if (i == a.size || a.ids[i] > b.ids[j]) {
+                result[size++] = b.ids[j++];
+            } else {
+                result[size++] = a.ids[i];
+                i += 1;
+                j += 1;
+            }
+        }
+        return new PostingList(result, size);
+    }
+
+    /**
+     * @return A new list with the ids in the first list that are not in the second list.
+     */
+    public static PostingList difference(PostingList a, PostingList b) {
+        final int[] result = new int[a.size];
+        int size = 0;
+        int j = 0;
+        for (int i = 0; i < a.size; i += 1) {
+            while (j < b.size && b.ids[j] < a.ids[i]) {
+                j += 1;
+            }
+            if (j == b.size || b.ids[j] != a.ids[i]) {
+                result[size++] = a.ids[i];
+            }
+        }
+        return new PostingList(result, size);
+    }
+}
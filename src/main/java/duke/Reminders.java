@@ -0,0 +1,337 @@
+package duke;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Reminds the user of deadlines that are due soon or overdue, and of events that start soon.
+ *
+ * Every reminder to come is kept in a hierarchical timing wheel of days: the first level has a slot for each of
+ * the next SLOTS days, and each level above has slots SLOTS times as wide, whose reminders are moved down a level
+ * when their slot comes up. Adding a reminder and passing a day cost O(1) however many tasks there are,
+ * and a day only looks at the reminders that fall on it, never at the whole list.
+ * Marking and deleting a task leave its reminders in the wheel, and they are dropped when they come up
+ * or are moved down, once it turns out their task is done or gone.
+ *
+ * A background thread passes the days of every registered list. The reminders that come up wait
+ * until the console or the client using the list runs its next command, and are shown after it.
+ */
+public class Reminders {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 3;
+    /** The most reminders kept to be shown at once. Only the number of the others is kept. */
+    static final int MAX_SHOWN = 5;
+    /** How often the background thread checks whether the day has changed. */
+    private static final long TICK_SECONDS = 60;
+    private static final long[] EMPTY_SLOT = new long[0];
+
+    private static volatile int leadDays = 1;
+    private static volatile LongSupplier today = () -> LocalDate.now().toEpochDay();
+    private static final Set<Reminders> registered = new CopyOnWriteArraySet<>();
+    private static ScheduledExecutorService ticker;
+
+    /**
+     * The kinds of reminders, with how they are told to the user.
+     */
+    public enum Kind {
+        DUE_SOON("Woof! This task is due soon: "),
+        OVERDUE("WOOFS!!! This task is overdue: "),
+        STARTING_SOON("Woof! This event starts soon: ");
+
+        private final String message;
+
+        Kind(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * A reminder that has come up, to be shown to the user.
+     */
+    public static class Reminder {
+        public final Kind kind;
+        public final Task task;
+
+        private Reminder(Kind kind, Task task) {
+            this.kind = kind;
+            this.task = task;
+        }
+    }
+
+    /**
+     * The reminders in one slot, each packed as the day it comes up in the high half and the task id in the low half.
+     */
+    private static class Slot {
+        private long[] entries = new long[4];
+        private int size = 0;
+
+        private void add(long entry) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            entries[size] = entry;
+            size += 1;
+        }
+
+        private long[] takeAll() {
+            if (size == 0) {
+                return EMPTY_SLOT;
+            }
+            final long[] taken = Arrays.copyOf(entries, size);
+            entries = new long[4];
+            size = 0;
+            return taken;
+        }
+    }
+
+    private final TaskList tasks;
+    /** Guards the wheel and the reminders waiting to be shown, apart from the lock of the task list. */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Slot[][] wheel = new Slot[LEVELS][SLOTS];
+    /** Reminders too far ahead for the wheel, looked at again whenever the top level turns. */
+    private final Slot beyond = new Slot();
+    private long currentDay;
+    private final List<Reminder> pending = new ArrayList<>();
+    private int pendingHidden = 0;
+
+    /**
+     * @param tasks The list whose tasks are reminded of, which is read to check a reminder as it comes up.
+     */
+    public Reminders(TaskList tasks) {
+        this.tasks = tasks;
+        this.currentDay = today.getAsLong();
+        for (int level = 0; level < LEVELS; level += 1) {
+            for (int slot = 0; slot < SLOTS; slot += 1) {
+                wheel[level][slot] = new Slot();
+            }
+        }
+    }
+
+    /**
+     * @param days How many days before a deadline is due, or an event starts, the user is reminded of it.
+     */
+    public static void setLeadDays(int days) {
+        leadDays = days;
+    }
+
+    /**
+     * Use another clock, as the benchmarks do to pass days without waiting for them.
+     *
+     * @param clock Gives the current epoch day.
+     */
+    static void setClock(LongSupplier clock) {
+        today = clock;
+    }
+
+    /**
+     * Have the background thread pass the days of the reminders, starting the thread if it isn't running yet.
+     *
+     * @param reminders The reminders of a list that was loaded.
+     */
+    public static synchronized void register(Reminders reminders) {
+        registered.add(reminders);
+        if (ticker == null) {
+            ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "duke-reminders");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ticker.scheduleAtFixedRate(Reminders::tickAll, TICK_SECONDS, TICK_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * @param reminders The reminders of a list that was dropped from memory.
+     */
+    public static void unregister(Reminders reminders) {
+        registered.remove(reminders);
+    }
+
+    private static void tickAll() {
+        final long day = today.getAsLong();
+        for (Reminders reminders : registered) {
+            reminders.advanceTo(day);
+        }
+    }
+
+    /**
+     * Schedule the reminders of a task that was added, or unmarked. Reminders that are already due come up at once.
+     *
+     * @param task The task.
+     */
+    public void schedule(Task task) {
+        lock.lock();
+        try {
+            scheduleTask(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Schedule the reminders of many tasks, as when a list is loaded.
+     *
+     * @param added The tasks.
+     */
+    public void scheduleAll(List<Task> added) {
+        lock.lock();
+        try {
+            for (Task task : added) {
+                scheduleTask(task);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Pass the days up to the given day, bringing up the reminders that fall on them.
+     *
+     * @param day The epoch day to move to. Days before the current day are ignored.
+     */
+    public void advanceTo(long day) {
+        lock.lock();
+        try {
+            while (currentDay < day) {
+                currentDay += 1;
+                turn();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The last day that deadlines due up to are reminded of today.
+     */
+    public static LocalDate getHorizon() {
+        return LocalDate.ofEpochDay(today.getAsLong() + leadDays);
+    }
+
+    /**
+     * Pass the days up to today, then take the reminders that have come up since they were last taken.
+     *
+     * @param shown Receives the reminders to show, at most MAX_SHOWN of them.
+     * @return The number of other reminders that came up, which are only counted.
+     */
+    public int drain(List<Reminder> shown) {
+        lock.lock();
+        try {
+            advanceTo(today.getAsLong());
+            shown.addAll(pending);
+            pending.clear();
+            final int hidden = pendingHidden;
+            pendingHidden = 0;
+            return hidden;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void scheduleTask(Task task) {
+        if (task.isDone) {
+            return;
+        }
+        if (task instanceof Deadline) {
+            final long by = ((Deadline) task).by.toEpochDay();
+            if (by >= currentDay) {
+                add(by - leadDays, task);
+            }
+            add(by + 1, task);
+        } else if (task instanceof Event) {
+            final long from = ((Event) task).from.toEpochDay();
+            if (from >= currentDay) {
+                add(from - leadDays, task);
+            }
+        }
+    }
+
+    private void add(long day, Task task) {
+        if (day <= currentDay) {
+            fire(task);
+            return;
+        }
+        final long entry = (day << 32) | (task.id & 0xffffffffL);
+        final long delta = day - currentDay;
+        for (int level = 0; level < LEVELS; level += 1) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                wheel[level][(int) (day >>> (SLOT_BITS * level)) & (SLOTS - 1)].add(entry);
+                return;
+            }
+        }
+        beyond.add(entry);
+    }
+
+    /**
+     * Move into the current day: move the reminders of the slots that came up on higher levels down,
+     * then bring up the reminders on the first level that fall on the day.
+     */
+    private void turn() {
+        for (int level = LEVELS - 1; level > 0; level -= 1) {
+            if ((currentDay & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                if (level == LEVELS - 1) {
+                    cascade(beyond.takeAll());
+                }
+                cascade(wheel[level][(int) (currentDay >>> (SLOT_BITS * level)) & (SLOTS - 1)].takeAll());
+            }
+        }
+        final long[] due = wheel[0][(int) currentDay & (SLOTS - 1)].takeAll();
+        // Unmarking a task schedules its reminders again, so a task can have the same reminder more than once
+        final Set<Integer> fired = new HashSet<>();
+        final TaskSnapshot snapshot = tasks.snapshot();
+        for (long entry : due) {
+            final int index = snapshot.indexOfId((int) entry);
+            if (index != -1 && fired.add((int) entry)) {
+                fire(snapshot.get(index));
+            }
+        }
+    }
+
+    private void cascade(long[] entries) {
+        final TaskSnapshot snapshot = tasks.snapshot();
+        for (long entry : entries) {
+            final int index = snapshot.indexOfId((int) entry);
+            if (index != -1 && !snapshot.get(index).isDone) {
+                add(entry >> 32, snapshot.get(index));
+            }
+        }
+    }
+
+    /**
+     * Bring up the reminder for the task if it isn't done.
+     * The kind depends on how the current day compares to the dates of the task.
+     */
+    private void fire(Task task) {
+        if (task.isDone) {
+            return;
+        }
+        final Kind kind;
+        if (task instanceof Deadline) {
+            kind = ((Deadline) task).by.toEpochDay() < currentDay ? Kind.OVERDUE : Kind.DUE_SOON;
+        } else if (task instanceof Event) {
+            kind = Kind.STARTING_SOON;
+        } else {
+            return;
+        }
+        if (pending.size() < MAX_SHOWN) {
+            pending.add(new Reminder(kind, task));
+        } else {
+            pendingHidden += 1;
+        }
+    }
+}
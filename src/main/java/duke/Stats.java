@@ -0,0 +1,227 @@
+package duke;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts the commands Duke runs and the errors they run into, and times them and the storage operations.
+ * Counters are LongAdders and latencies go into lock-free histograms, so recording costs a few atomic additions
+ * and never makes the threads of the server wait on each other. When disabled, recording only reads a flag.
+ *
+ * The statistics are shown by the stats command, and published as an MBean named duke:type=Stats.
+ */
+public class Stats {
+    private static final String OBJECT_NAME = "duke:type=Stats";
+
+    private static volatile boolean isEnabled = true;
+    private static final Map<String, Metric> commands = new ConcurrentSkipListMap<>();
+    private static final Map<String, Metric> storage = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongAdder> errors = new ConcurrentSkipListMap<>();
+
+    /**
+     * The count, errors and latencies of one command or storage operation.
+     */
+    public static class Metric {
+        private final LongAdder errors = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private void reset() {
+            errors.reset();
+            latency.reset();
+        }
+    }
+
+    public static boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Choose whether anything is recorded.
+     *
+     * @param enabled False to stop recording, leaving only a check of this flag on every command.
+     */
+    public static void setEnabled(boolean enabled) {
+        isEnabled = enabled;
+    }
+
+    /**
+     * @param name The name of the command.
+     * @return The metric of the command, which the caller should keep instead of looking it up every time.
+     */
+    public static Metric command(String name) {
+        return commands.computeIfAbsent(name, key -> new Metric());
+    }
+
+    /**
+     * @param name The name of the storage operation.
+     * @return The metric of the operation, which the caller should keep instead of looking it up every time.
+     */
+    public static Metric storage(String name) {
+        return storage.computeIfAbsent(name, key -> new Metric());
+    }
+
+    /**
+     * @return The time to pass to record once the operation is done, or 0 if recording is disabled.
+     */
+    public static long start() {
+        return isEnabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Count an operation and record how long it took.
+     *
+     * @param metric The metric of the operation.
+     * @param start The time returned by start before the operation began.
+     */
+    public static void record(Metric metric, long start) {
+        if (start != 0) {
+            metric.latency.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Count an error shown to the user.
+     *
+     * @param metric The metric of the command that ran into the error, or null if no command was found.
+     * @param error The error.
+     */
+    public static void recordError(Metric metric, Throwable error) {
+        if (!isEnabled) {
+            return;
+        }
+        if (metric != null) {
+            metric.errors.increment();
+        }
+        errors.computeIfAbsent(error.getClass().getSimpleName(), key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Forget everything recorded so far.
+     */
+    public static void reset() {
+        commands.values().forEach(Metric::reset);
+        storage.values().forEach(Metric::reset);
+        errors.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * Print the counts, errors and latencies of every command that has been run, and the storage timings.
+     */
+    public static void showReport() {
+        Output.print(getReport());
+        Ui.printLine();
+    }
+
+    static String getReport() {
+        final StringBuilder report = new StringBuilder();
+        final String newLine = System.lineSeparator();
+        if (!isEnabled) {
+            report.append("Statistics are turned off.").append(newLine);
+        }
+        report.append(String.format("%-10s %8s %7s %9s %9s %9s %9s%n",
+                "command", "count", "errors", "mean us", "p50 us", "p99 us", "max us"));
+        appendMetrics(report, commands);
+        if (!errors.isEmpty()) {
+            report.append("Errors:").append(newLine);
+            errors.forEach((name, count) -> {
+                if (count.sum() > 0) {
+                    report.append(String.format("  %-30s %8d%n", name, count.sum()));
+                }
+            });
+        }
+        report.append(String.format("%-10s %8s %7s %9s %9s %9s %9s%n",
+                "storage", "count", "errors", "mean us", "p50 us", "p99 us", "max us"));
+        appendMetrics(report, storage);
+        return report.toString();
+    }
+
+    private static void appendMetrics(StringBuilder report, Map<String, Metric> metrics) {
+        metrics.forEach((name, metric) -> {
+            final LatencyHistogram latency = metric.latency;
+            if (latency.getCount() > 0) {
+                report.append(String.format("%-10s %8d %7d %9.1f %9.1f %9.1f %9.1f%n", name,
+                        latency.getCount(), metric.errors.sum(), latency.getMean() / 1000.0,
+                        latency.getPercentile(50) / 1000.0, latency.getPercentile(99) / 1000.0,
+                        latency.getMax() / 1000.0));
+            }
+        });
+    }
+
+    /**
+     * Publish the statistics as an MBean, so they can be watched from JMX tools while Duke runs.
+     */
+    public static void registerMBean() {
+        try {
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new MBean(), name);
+            }
+        } catch (JMException e) {
+            Output.println("Something went wrong: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, Long> collect(ToLongFunction<Metric> value) {
+        final Map<String, Long> values = new TreeMap<>();
+        commands.forEach((name, metric) -> values.put(name, value.applyAsLong(metric)));
+        storage.forEach((name, metric) -> values.put("storage " + name, value.applyAsLong(metric)));
+        return values;
+    }
+
+    private static class MBean implements StatsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return Stats.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            Stats.setEnabled(enabled);
+        }
+
+        @Override
+        public Map<String, Long> getCommandCounts() {
+            final Map<String, Long> counts = new TreeMap<>();
+            commands.forEach((name, metric) -> counts.put(name, metric.latency.getCount()));
+            return counts;
+        }
+
+        @Override
+        public Map<String, Long> getErrorCounts() {
+            final Map<String, Long> counts = new TreeMap<>();
+            errors.forEach((name, count) -> counts.put(name, count.sum()));
+            return counts;
+        }
+
+        @Override
+        public Map<String, Long> getMedianMicros() {
+            return collect(metric -> metric.latency.getPercentile(50) / 1000);
+        }
+
+        @Override
+        public Map<String, Long> getP99Micros() {
+            return collect(metric -> metric.latency.getPercentile(99) / 1000);
+        }
+
+        @Override
+        public Map<String, Long> getMaxMicros() {
+            return collect(metric -> metric.latency.getMax() / 1000);
+        }
+
+        @Override
+        public String getReport() {
+            return Stats.getReport();
+        }
+
+        @Override
+        public void reset() {
+            Stats.reset();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package duke;
+
+import java.util.Map;
+
+/**
+ * The statistics Duke keeps about itself, as seen from JMX tools such as JConsole.
+ * Latencies are in microseconds.
+ */
+public interface StatsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /** @return The number of times each command was run. */
+    Map<String, Long> getCommandCounts();
+
+    /** @return The number of times each kind of error was shown to the user. */
+    Map<String, Long> getErrorCounts();
+
+    /** @return The median latency of each command and storage operation. */
+    Map<String, Long> getMedianMicros();
+
+    /** @return The 99th percentile latency of each command and storage operation. */
+    Map<String, Long> getP99Micros();
+
+    /** @return The longest latency of each command and storage operation. */
+    Map<String, Long> getMaxMicros();
+
+    /** @return The same report as the stats command prints. */
+    String getReport();
+
+    /** Forget everything recorded so far. */
+    void reset();
+}
@@ -4,28 +4,121 @@ import duke.exceptions.FormatException;
 import duke.exceptions.NoDescriptionException;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.text.ParseException;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * The storage class deals with things related to data storage,
  * including writing to file and write the date from file to the list.
+ *
+ * The storage file is kept in a binary format that loads without parsing,
+ * or in the readable text format if the user chooses so.
+ * Changes made during a session are appended to a journal next to the storage file.
+ * Once the journal grows past a threshold, it is folded into a fresh snapshot in the background.
  */
 public class Storage {
     public static final String DEFAULT_STORAGE_FILEPATH = "data.txt";
-    private static Command command = new Command();
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String COMPACTING_JOURNAL_SUFFIX = ".journal.old";
+    private static final String SNAPSHOT_TEMP_SUFFIX = ".tmp";
+    /** Size in bytes the journal may reach before it is folded into a new snapshot. */
+    private static final long COMPACTION_THRESHOLD = 4L * 1024 * 1024;
+    /** Number of characters of storage lines gathered before they are written to a text file. */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private static final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "duke-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static boolean isTextFormat = false;
+    private static boolean isEchoedOnLoad = true;
+    private static boolean isJournaled = true;
+
+    private static final Stats.Metric loadStats = Stats.storage("load");
+    private static final Stats.Metric saveStats = Stats.storage("save");
+    private static final Stats.Metric snapshotStats = Stats.storage("snapshot");
+    private static final Stats.Metric journalStats = Stats.storage("journal");
+
+    /** The journal of the list this storage keeps, null until the list has been loaded and after it is saved. */
+    private Journal journal;
+    private TaskList journaledTasks;
+    private String journaledFilepath;
+    private Future<?> pendingCompaction;
+    /** Whether the storage file or its journal couldn't be read, in which case nothing is saved to them. */
+    private boolean isReadOnly = false;
+
+    /**
+     * A state of the task list to be written out, which may happen after the list has changed.
+     */
+    private interface Snapshot {
+        void write(Path path) throws IOException;
+    }
+
+    /**
+     * Choose whether snapshots are written in the text format instead of the binary format.
+     *
+     * @param textFormat True to keep the storage file in the text format.
+     */
+    public static void setTextFormat(boolean textFormat) {
+        isTextFormat = textFormat;
+    }
+
+    /**
+     * Choose whether the content of a text storage file is printed while it is loaded.
+     * Printing a large file takes much longer than loading it.
+     *
+     * @param echoedOnLoad True to print the content of the file.
+     */
+    public static void setEchoedOnLoad(boolean echoedOnLoad) {
+        isEchoedOnLoad = echoedOnLoad;
+    }
+
+    /**
+     * Choose whether changes are written to the journal as they are made.
+     * Without the journal, changes are only saved by storeChanges, as in a script that saves once at the end.
+     *
+     * @param journaled True to write every change to the journal.
+     */
+    public static void setJournaled(boolean journaled) {
+        isJournaled = journaled;
+    }
 
     /**
-     * Initialize and print the task list with the previous data stored in the txt file.
+     * Initialize and print the task list with the previous data stored in the file,
+     * then replay the changes in the journal that haven't been folded into the file yet.
+     * A file in the text format is converted to the binary format, unless the text format is chosen.
      * If the file doesn't exist, it will try to create a new file for future storage.
+     * If the file exists but couldn't be read, or its journal holds a change that can't be applied,
+     * the storage is made read-only: the file and its journal are left as they are,
+     * so that the tasks in them can still be recovered, and nothing from this session is saved.
      *
      * @param tasks The list for storing tasks.
      * @param filepath The filepath to open the path, or create a new file.
      */
-    public void initializeStorage(ArrayList<Task> tasks, String filepath) {
+    public void initializeStorage(TaskList tasks, String filepath) {
+        final long start = Stats.start();
+        try {
+            finishInterruptedCompaction(filepath);
+        } catch (IOException e) {
+            Output.println("Something went wrong: " + e.getMessage());
+        }
+        boolean isConverted = false;
+        final ArrayList<Task> loaded = new ArrayList<>();
         try {
-            printFileContents(tasks, filepath);
+            isConverted = loadFile(loaded, filepath);
         } catch (FileNotFoundException e) {
             Ui.showInitErrorMessage();
             try {
@@ -33,96 +126,413 @@ public class Storage {
             } catch (IOException ioe) {
                 throw new RuntimeException("Creation of file failed.", ioe);
             }
+        } catch (IOException e) {
+            Stats.recordError(loadStats, e);
+            isReadOnly = true;
+            Ui.showReadOnlyMessage(filepath, e.getMessage());
+            Stats.record(loadStats, start);
+            return;
+        }
+        final Path compactingPath = Paths.get(filepath + COMPACTING_JOURNAL_SUFFIX);
+        final boolean hasCompactingJournal = Files.exists(compactingPath);
+        TaskSnapshot replayed = TaskSnapshot.of(loaded);
+        final long validLength;
+        try {
+            if (hasCompactingJournal) {
+                // The set aside journal was never folded in, so finish that compaction before going on
+                final Journal.Replay compacting = Journal.replay(compactingPath, replayed);
+                replayed = compacting.tasks;
+                if (compacting.failure != null) {
+                    throw new IOException(compacting.failure);
+                }
+                writeSnapshot(filepath, captureSnapshot(replayed));
+            }
+            final Journal.Replay replay = Journal.replay(Paths.get(filepath + JOURNAL_SUFFIX), replayed);
+            replayed = replay.tasks;
+            validLength = replay.validLength;
+            if (replay.failure != null) {
+                throw new IOException(replay.failure);
+            }
+        } catch (IOException e) {
+            Stats.recordError(loadStats, e);
+            isReadOnly = true;
+            tasks.addAll(replayed);
+            Ui.showReadOnlyMessage(filepath, e.getMessage());
+            Stats.record(loadStats, start);
+            return;
+        }
+        tasks.addAll(replayed);
+        try {
+            journal = Journal.open(Paths.get(filepath + JOURNAL_SUFFIX), validLength);
+            journaledTasks = tasks;
+            journaledFilepath = filepath;
+            tasks.setStorage(this);
+            if (hasCompactingJournal || validLength > 0) {
+                Output.println("Recovered the unsaved changes from your last session.");
+            }
+            if (isConverted && !isTextFormat && !tasks.snapshot().isEmpty()) {
+                compact(filepath, captureSnapshot(tasks.snapshot()));
+            }
+        } catch (IOException e) {
+            Stats.recordError(loadStats, e);
+            Output.println("Something went wrong: " + e.getMessage());
+        }
+        Stats.record(loadStats, start);
+    }
+
+    /**
+     * Load the tasks in the storage file, in either the binary or the text format.
+     *
+     * @param loaded The list the tasks are added to, which only holds them all if the whole file could be read.
+     * @param filepath The filepath to open the file.
+     * @return True if the file was in the text format and every line of it was loaded, so it can be converted.
+     * @throws FileNotFoundException If the file is not found by using filepath, the exception will be thrown.
+     * @throws IOException If the file couldn't be read, the exception will be thrown.
+     */
+    private static boolean loadFile(ArrayList<Task> loaded, String filepath) throws IOException {
+        final Path path = Paths.get(filepath);
+        if (!Files.exists(path)) {
+            throw new FileNotFoundException(filepath);
+        }
+        if (BinarySnapshot.isBinarySnapshot(path)) {
+            BinarySnapshot.load(path, loaded);
+            Output.println("Loaded " + loaded.size() + " tasks from your file.");
+            Ui.printLine();
+            return false;
+        }
+        final List<TextLoader.Failure> failures = TextLoader.load(path, loaded, isEchoedOnLoad);
+        for (TextLoader.Failure failure : failures) {
+            Output.println("WOOFS!!! Line " + failure.lineNumber + " couldn't be loaded: " + failure.line);
         }
+        Ui.printLine();
+        // Converting the file would drop the lines that couldn't be loaded, so it stays as it is until saved
+        return failures.isEmpty();
+    }
+
+    /**
+     * Prepare the tasks to be written in the format chosen for the storage file.
+     * The snapshot of the tasks never changes, so they are only converted when the file is written.
+     *
+     * @param tasks The user's tasks at the moment the file is to reflect.
+     * @return The snapshot to be written.
+     */
+    private static Snapshot captureSnapshot(TaskSnapshot tasks) {
+        if (isTextFormat) {
+            return path -> writeToFile(path, tasks);
+        }
+        return path -> new BinarySnapshot(tasks).write(path);
     }
 
     /**
      * Write in data into the txt file to store changes.
+     * The lines are rendered into one buffer, which is written out whenever it fills up.
      *
-     * @param filePath The filepath to open the file and store date.
-     * @param tasks The list containing the user's tasks.
+     * @param path The path of the file to write.
+     * @param tasks The user's tasks.
      * @throws IOException If error occurred when writing to file, the exception will be thrown.
      */
-    private static void writeToFile(String filePath, ArrayList<Task> tasks) throws IOException {
-        BufferedWriter outputWriter;
-        outputWriter = new BufferedWriter(new FileWriter(filePath));
-        for (int i = 0; i < tasks.size(); i += 1) {
-            outputWriter.write(tasks.get(i).toStorage() + System.lineSeparator());
+    private static void writeToFile(Path path, List<Task> tasks) throws IOException {
+        try (FileOutputStream output = new FileOutputStream(path.toFile());
+                Writer outputWriter = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
+            final StringBuilder lines = new StringBuilder(WRITE_BUFFER_SIZE + 256);
+            for (Task task : tasks) {
+                task.appendStorageTo(lines);
+                lines.append(System.lineSeparator());
+                if (lines.length() >= WRITE_BUFFER_SIZE) {
+                    outputWriter.append(lines);
+                    lines.setLength(0);
+                }
+            }
+            outputWriter.append(lines);
+            outputWriter.flush();
+            output.getFD().sync();
         }
-        outputWriter.flush();
-        outputWriter.close();
     }
 
     /**
-     * Try to store changes in the file, it will call the writeToFile function for implementation.
+     * @return Whether the storage file or its journal couldn't be read, so nothing is saved to them.
+     */
+    public boolean isReadOnly() {
+        return isReadOnly;
+    }
+
+    /**
+     * Try to store changes in the file, it will fold the journal into a new snapshot of the list.
+     * Nothing is stored if the file or its journal couldn't be read when it was loaded.
      *
      * @param filepath The filepath to open the file and store date.
      * @param tasks The list containing the user's tasks.
      */
-    public void storeChanges(String filepath, ArrayList<Task> tasks) {
+    public void storeChanges(String filepath, TaskList tasks) {
+        if (isReadOnly) {
+            return;
+        }
+        final long start = Stats.start();
+        try {
+            awaitCompaction();
+            compact(filepath, captureSnapshot(tasks.snapshot()));
+            if (journal != null) {
+                journal.close();
+                Files.deleteIfExists(Paths.get(filepath + JOURNAL_SUFFIX));
+                journal = null;
+            }
+        } catch (IOException e) {
+            Stats.recordError(saveStats, e);
+            Output.println("Something went wrong: " + e.getMessage());
+        }
+        Stats.record(saveStats, start);
+    }
+
+    /**
+     * Write the changes still waiting in memory to the journal, as the program does when it is shut down.
+     */
+    public void flushJournal() {
+        final Journal current = journal;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.sync();
+        } catch (IOException e) {
+            Output.println("Something went wrong: " + e.getMessage());
+        }
+    }
+
+    void recordAdd(int index, Task task) {
+        record(Journal.ADD, index, task);
+    }
+
+    void recordMark(int index) {
+        record(Journal.MARK, index, null);
+    }
+
+    void recordUnmark(int index) {
+        record(Journal.UNMARK, index, null);
+    }
+
+    void recordDelete(int index) {
+        record(Journal.DELETE, index, null);
+    }
+
+    void recordSetDone(int[] indices, boolean isDone) {
+        recordSet(isDone ? Journal.MARK_SET : Journal.UNMARK_SET, indices);
+    }
+
+    void recordDeleteSet(int[] indices) {
+        recordSet(Journal.DELETE_SET, indices);
+    }
+
+    /**
+     * Journal the tasks an undo of a deletion puts back, as a single record.
+     *
+     * @param indices The 0-based indices of the tasks in the list once they are back, in ascending order.
+     * @param tasks The tasks put back, in the same order.
+     */
+    void recordRestore(int[] indices, Task[] tasks) {
+        if (journal == null || !isJournaled) {
+            return;
+        }
+        final long start = Stats.start();
+        try {
+            journal.appendInsertSet(indices, tasks);
+            compactIfLarge();
+        } catch (IOException e) {
+            Stats.recordError(journalStats, e);
+            Output.println("Something went wrong: " + e.getMessage());
+        }
+        Stats.record(journalStats, start);
+    }
+
+    /**
+     * Append a change to the journal, and start a background compaction if the journal has grown too large.
+     * The task list calls this while it holds its lock, so changes are journaled in the order they are made.
+     */
+    private void record(byte op, int index, Task task) {
+        if (journal == null || !isJournaled) {
+            return;
+        }
+        final long start = Stats.start();
+        try {
+            journal.append(op, index, task);
+            compactIfLarge();
+        } catch (IOException e) {
+            Stats.recordError(journalStats, e);
+            Output.println("Something went wrong: " + e.getMessage());
+        }
+        Stats.record(journalStats, start);
+    }
+
+    private void recordSet(byte op, int[] indices) {
+        if (journal == null || !isJournaled) {
+            return;
+        }
+        final long start = Stats.start();
         try {
-            writeToFile(filepath, tasks);
+            journal.appendSet(op, indices);
+            compactIfLarge();
         } catch (IOException e) {
-            System.out.println("Something went wrong: " + e.getMessage());
+            Stats.recordError(journalStats, e);
+            Output.println("Something went wrong: " + e.getMessage());
+        }
+        Stats.record(journalStats, start);
+    }
+
+    private void compactIfLarge() throws IOException {
+        if (journal.size() >= COMPACTION_THRESHOLD && (pendingCompaction == null || pendingCompaction.isDone())) {
+            startCompaction();
+        }
+    }
+
+    /**
+     * Set the current journal aside and start a new one, then write the snapshot in the background.
+     * The snapshot of the list is taken before returning, so later changes only go into the new journal.
+     */
+    private void startCompaction() throws IOException {
+        final Snapshot snapshot = captureSnapshot(journaledTasks.snapshot());
+        rotateJournal(journaledFilepath);
+        final String filepath = journaledFilepath;
+        pendingCompaction = compactor.submit(() -> {
+            try {
+                writeSnapshot(filepath, snapshot);
+            } catch (IOException e) {
+                Output.println("Something went wrong: " + e.getMessage());
+            }
+        });
+    }
+
+    private void awaitCompaction() throws IOException {
+        if (pendingCompaction == null) {
+            return;
+        }
+        try {
+            pendingCompaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private void compact(String filepath, Snapshot snapshot) throws IOException {
+        rotateJournal(filepath);
+        writeSnapshot(filepath, snapshot);
+    }
+
+    /**
+     * Move the current journal aside so that it can be folded into the snapshot.
+     * A journal is always set aside before a snapshot is written, even if it is empty,
+     * so that an interrupted compaction can be told apart from a finished one.
+     */
+    private void rotateJournal(String filepath) throws IOException {
+        final Path journalPath = Paths.get(filepath + JOURNAL_SUFFIX);
+        final Path compactingPath = Paths.get(filepath + COMPACTING_JOURNAL_SUFFIX);
+        if (journal != null) {
+            journal.close();
+        }
+        if (Files.exists(journalPath)) {
+            Files.move(journalPath, compactingPath, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.createFile(compactingPath);
+        }
+        if (journal != null) {
+            journal = Journal.open(journalPath, 0);
+        }
+    }
+
+    /**
+     * Write the snapshot next to the storage file, drop the journal it replaces, then move it into place.
+     */
+    private static void writeSnapshot(String filepath, Snapshot snapshot) throws IOException {
+        final long start = Stats.start();
+        snapshot.write(Paths.get(filepath + SNAPSHOT_TEMP_SUFFIX));
+        Files.deleteIfExists(Paths.get(filepath + COMPACTING_JOURNAL_SUFFIX));
+        moveSnapshotIntoPlace(filepath);
+        Stats.record(snapshotStats, start);
+    }
+
+    private static void moveSnapshotIntoPlace(String filepath) throws IOException {
+        final Path tempPath = Paths.get(filepath + SNAPSHOT_TEMP_SUFFIX);
+        final Path path = Paths.get(filepath);
+        try {
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
+    /**
+     * Complete or roll back a compaction that was cut short by a crash.
+     * If the set aside journal is still there, the snapshot might be incomplete and is dropped,
+     * otherwise the snapshot was completely written and only has to be moved into place.
+     */
+    private static void finishInterruptedCompaction(String filepath) throws IOException {
+        final Path tempPath = Paths.get(filepath + SNAPSHOT_TEMP_SUFFIX);
+        if (!Files.exists(tempPath)) {
+            return;
+        }
+        if (Files.exists(Paths.get(filepath + COMPACTING_JOURNAL_SUFFIX))) {
+            Files.delete(tempPath);
+        } else {
+            moveSnapshotIntoPlace(filepath);
+        }
+    }
 
     /**
-     * Print the contents in the file line by line, and add it into the task list.
+     * Parse one line of the storage file back into a task. The type and done flag sit at fixed places at the
+     * start and the dates at the end, so the description between them is taken as it is, whatever it holds.
      *
-     * @param tasks The list containing the user's tasks
-     * @param filePath The filepath to open the file and store date.
-     * @throws FileNotFoundException If the file is not found by using filepath, the exception will be thrown.
+     * @param line The line written by the task's toStorage method.
+     * @return The task described by the line.
+     * @throws NoDescriptionException If the description in the line is empty, the exception will be thrown.
+     * @throws FormatException If the line is not in the storage format, the exception will be thrown.
+     * @throws ParseException If the date in the line couldn't be parsed, the exception will be thrown.
      */
-    private static void printFileContents(ArrayList<Task> tasks, String filePath) throws FileNotFoundException {
-        File f = new File(filePath);
-        Scanner s = new Scanner(f);
-        System.out.println("These are the task from your file: ");
-        while (s.hasNext()) {
-            String task = s.nextLine();
-            System.out.println(task);
-            String type = task.substring(1,2);
-            final int descriptionId = task.lastIndexOf("]");
-            String taskDescription = task.substring(descriptionId+1).trim();
-            final int doneId = task.indexOf("[X]");
-            switch(type) {
-            case "T":
-                try {
-                    command.addTodo(tasks, taskDescription);
-                    if (doneId != -1) {
-                        tasks.get(tasks.size()-1).markAsDone();
-                    }
-                } catch (NoDescriptionException e) {
-                    System.out.println("WOOFS!!! Something went wrong");
-                    Ui.printLine();
-                }
-                break;
-            case "E":
-                try {
-                    command.addEvent(tasks, taskDescription);
-                    if (doneId != -1) {
-                        tasks.get(tasks.size()-1).markAsDone();
-                    }
-                } catch (NoDescriptionException | FormatException | ParseException e) {
-                    System.out.println("WOOFS!!! Something went wrong");
-                    Ui.printLine();
-                }
-                break;
-            case "D":
-                try {
-                    command.addDeadline(tasks, taskDescription);
-                    if (doneId != -1) {
-                        tasks.get(tasks.size()-1).markAsDone();
-                    }
-                } catch (NoDescriptionException | FormatException | ParseException e) {
-                    System.out.println("WOOFS!!! Something went wrong");
-                    Ui.printLine();
-                }
-                break;
+    static Task parseTask(String line) throws NoDescriptionException, FormatException, ParseException {
+        if (line.length() < 6 || line.charAt(0) != '[' || line.charAt(2) != ']' || line.charAt(3) != '['
+                || line.charAt(5) != ']') {
+            throw new FormatException();
+        }
+        final String rest = line.substring(6);
+        final Task task;
+        switch (line.charAt(1)) {
+        case 'T':
+            task = new Todo(descriptionOf(rest));
+            break;
+        case 'E':
+            final int indexOfTo = rest.lastIndexOf(" to: ");
+            final int indexOfFrom = indexOfTo == -1 ? -1 : rest.lastIndexOf(" from: ", indexOfTo);
+            if (indexOfFrom == -1) {
+                throw new FormatException();
+            }
+            final LocalDate from = Parser.parseDate(rest.substring(indexOfFrom + 7, indexOfTo).trim());
+            final LocalDate to = Parser.parseDate(rest.substring(indexOfTo + 5).trim());
+            if (to.isBefore(from)) {
+                throw new FormatException();
+            }
+            task = new Event(descriptionOf(rest.substring(0, indexOfFrom)), from, to);
+            break;
+        case 'D':
+            final int indexOfBy = rest.lastIndexOf(" by: ");
+            if (indexOfBy == -1) {
+                throw new FormatException();
             }
+            final LocalDate by = Parser.parseDate(rest.substring(indexOfBy + 5).trim());
+            task = new Deadline(descriptionOf(rest.substring(0, indexOfBy)), by);
+            break;
+        default:
+            throw new FormatException();
         }
-        Ui.printLine();
+        if (line.charAt(4) == 'X') {
+            task.markAsDone();
+        }
+        return task;
     }
 
+    private static String descriptionOf(String text) throws NoDescriptionException {
+        final String description = text.trim();
+        if (description.isEmpty()) {
+            throw new NoDescriptionException();
+        }
+        return description;
+    }
 }
@@ -1,35 +1,134 @@
 package duke;
 
+import java.time.format.DateTimeFormatter;
+
 /**
  * The class of general task, which has three inheritors, event, todo, and deadline.
  */
 public class Task {
+    /** The format dates are shown to the user in. DateTimeFormatter is immutable, so it can be shared. */
+    static final DateTimeFormatter DISPLAY_DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
+
+    /** Identifies the task while it is in the list. Tasks later in the list always have larger ids. */
+    protected int id;
     protected String description;
     protected boolean isDone;
+    /**
+     * The task as shown to the user and as written to the storage file, rendered the first time they are needed.
+     * Tasks in the list never change, so the lines are kept until markAsDone or markAsNotDone changes the task.
+     * Threads that race to render a line both get the same line, so the cache needs no lock.
+     */
+    private String display;
+    private String storageLine;
 
     public Task(String description) {
         this.description = description;
         this.isDone = false;
     }
 
+    /**
+     * Make a copy of the task that is done or not done, keeping its id.
+     * Tasks in the list are never changed, so that they can be read while the list is being changed,
+     * and marking a task puts such a copy in its place instead.
+     *
+     * @param isDone Whether the copy is done.
+     * @return The copy of the task.
+     */
+    public Task withDone(boolean isDone) {
+        final Task copy = copy();
+        copy.id = id;
+        copy.isDone = isDone;
+        return copy;
+    }
+
+    /**
+     * @return A new task with the same description and dates as this one.
+     */
+    protected Task copy() {
+        return new Task(description);
+    }
+
     public void markAsDone() {
         this.isDone = true;
+        forgetRendering();
     }
     public void markAsNotDone() {
         this.isDone = false;
+        forgetRendering();
     }
     public String toString() {
-        String done = " ";
-        if (this.isDone) {
-            done = "X";
+        String line = display;
+        if (line == null) {
+            final StringBuilder out = new StringBuilder();
+            renderDisplay(out);
+            line = out.toString();
+            display = line;
         }
-        return "[" + done + "] " + description ;
+        return line;
     }
     public String toStorage() {
-        String done = " ";
-        if (this.isDone) {
-            done = "X";
+        String line = storageLine;
+        if (line == null) {
+            final StringBuilder out = new StringBuilder();
+            renderStorage(out);
+            line = out.toString();
+            storageLine = line;
+        }
+        return line;
+    }
+
+    /**
+     * Append the task as it is shown to the user, rendering it straight into the builder the first time.
+     *
+     * @param out The builder to append to.
+     */
+    public void appendTo(StringBuilder out) {
+        final String line = display;
+        if (line != null) {
+            out.append(line);
+            return;
         }
-        return "[" + done + "] " + description ;
+        final int start = out.length();
+        renderDisplay(out);
+        display = out.substring(start);
+    }
+
+    /**
+     * Append the task as it is written to the storage file, rendering it straight into the builder the first time.
+     *
+     * @param out The builder to append to.
+     */
+    public void appendStorageTo(StringBuilder out) {
+        final String line = storageLine;
+        if (line != null) {
+            out.append(line);
+            return;
+        }
+        final int start = out.length();
+        renderStorage(out);
+        storageLine = out.substring(start);
+    }
+
+    /**
+     * Format the task as it is shown to the user, without looking at the cache.
+     *
+     * @param out The builder to append to.
+     */
+    protected void renderDisplay(StringBuilder out) {
+        out.append('[').append(isDone ? 'X' : ' ').append("] ").append(description);
+    }
+
+    /**
+     * Format the task as it is written to the storage file, without looking at the cache.
+     *
+     * @param out The builder to append to.
+     */
+    protected void renderStorage(StringBuilder out) {
+        renderDisplay(out);
+    }
+
+    private void forgetRendering() {
+        display = null;
+        storageLine = null;
     }
 }
@@ -1,45 +1,645 @@
 package duke;
 
+import duke.exceptions.ClosedListException;
 import duke.exceptions.FormatException;
-import duke.exceptions.NoDescriptionException;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
 
 /**
- * The TaskList class deals with modifying the task list, including add task or deleting task.
+ * The TaskList class holds the user's tasks and the indexes over them, and deals with changing them.
+ *
+ * Readers never wait: they take the current snapshot, which never changes, and work on it.
+ * Changes take turns on a lock, build a new snapshot that shares most of the old one, and publish it.
+ * The indexes are updated in place, and are kept a superset of every snapshot readers may hold:
+ * a task is indexed before the snapshot with it is published, and unindexed only after it is removed.
+ *
+ * Every change keeps the snapshots from before and after it, which share all but the nodes the change copied,
+ * so undo and redo put back a whole version of the list in O(1) and each version only costs those nodes.
+ * The history is limited to a number of changes and to an estimate of the memory its versions hold on to.
  */
-public class TaskList {
+public final class TaskList {
+    /** Attempts a search makes without the lock before it gives up on racing removals and takes the lock. */
+    private static final int SEARCH_ATTEMPTS = 3;
+    /** The most memory the versions kept for undo and redo may be estimated to hold on to. */
+    static final long HISTORY_BYTES = 64L << 20;
+    /**
+     * The memory estimated for a deleted task, which only the history holds on to, and for the copy of a task
+     * from before it was marked, which shares its description and dates with the task in the list.
+     */
+    private static final long HISTORY_TASK_BYTES = 160;
+    private static final long HISTORY_COPY_BYTES = 48;
+    private static volatile int historyDepth = 100;
+    private static final Task[] NO_TASKS = new Task[0];
+
+    final WordIndex wordIndex = new WordIndex();
+    final TrigramIndex trigramIndex = new TrigramIndex();
+    final DateIndex dateIndex = new DateIndex();
+    /** Reminders of the deadlines and events, which are scheduled once the snapshot with their task is published. */
+    final Reminders reminders;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    /** Whether the list has been closed for the program to exit, only changed while holding the lock. */
+    private boolean isClosed = false;
+    private volatile TaskSnapshot snapshot = TaskSnapshot.EMPTY;
+    private int nextId = 0;
+    /** Where changes are journaled, which journals nothing until the list has been loaded from its file. */
+    private Storage storage = new Storage();
+    /** The changes that can be undone, oldest first, and those that were undone and can be redone, latest last. */
+    private final ArrayDeque<Change> undoHistory = new ArrayDeque<>();
+    private final ArrayDeque<Change> redoHistory = new ArrayDeque<>();
+    private long historyBytes = 0;
+
+    /**
+     * Looks tasks up in the indexes.
+     */
+    public interface IndexQuery {
+        /**
+         * @param tasks The task list whose indexes to use.
+         * @return The ids of the tasks found.
+         * @throws FormatException If the query is not valid.
+         */
+        PostingList run(TaskList tasks) throws FormatException;
+    }
+
+    /**
+     * Looks tasks up in the indexes, checking what it finds against the tasks it is to be complete for.
+     */
+    public interface SnapshotQuery {
+        /**
+         * @param tasks The task list whose indexes to use.
+         * @param snapshot The tasks the ids found will be looked up in.
+         * @return The ids of the tasks found.
+         * @throws FormatException If the query is not valid.
+         */
+        PostingList run(TaskList tasks, TaskSnapshot snapshot) throws FormatException;
+    }
 
     /**
-     * Add a new task to the list.
+     * Picks the tasks a bulk change applies to.
+     */
+    public interface Selection {
+        /**
+         * @param tasks The tasks in the list when the change is made.
+         * @return The 0-based indices of the selected tasks, in ascending order without repeats.
+         * @throws IndexOutOfBoundsException If the selection goes past the end of the list.
+         */
+        int[] indicesIn(TaskSnapshot tasks) throws IndexOutOfBoundsException;
+    }
+
+    /**
+     * The ids of the tasks an index query found, along with the snapshot they should be looked up in.
+     * The ids may include tasks that are not in the snapshot, which are to be skipped.
+     */
+    public static class Found {
+        public final TaskSnapshot snapshot;
+        public final PostingList ids;
+
+        private Found(TaskSnapshot snapshot, PostingList ids) {
+            this.snapshot = snapshot;
+            this.ids = ids;
+        }
+    }
+
+    /**
+     * A change that can be undone and redone, with the versions of the list on either side of it.
+     */
+    private static final class Change {
+        private static final byte ADD = 1;
+        private static final byte SET_DONE = 2;
+        private static final byte REMOVE = 3;
+
+        private final byte kind;
+        /** The 0-based indices of the tasks changed, in ascending order. */
+        private final int[] indices;
+        /**
+         * The tasks marked or removed, as they are after a mark and before a removal.
+         * The tasks added are read from the version after the change instead, which holds them anyway.
+         */
+        private final Task[] tasks;
+        private final boolean isDone;
+        private final TaskSnapshot before;
+        private final TaskSnapshot after;
+        private final long bytes;
+
+        private Change(byte kind, int[] indices, Task[] tasks, boolean isDone, TaskSnapshot before,
+                TaskSnapshot after) {
+            this.kind = kind;
+            this.indices = indices;
+            this.tasks = tasks;
+            this.isDone = isDone;
+            this.before = before;
+            this.after = after;
+            final long taskBytes = kind == REMOVE ? HISTORY_TASK_BYTES : kind == SET_DONE ? HISTORY_COPY_BYTES : 0;
+            this.bytes = before.estimateChangeBytes(indices) + tasks.length * taskBytes;
+        }
+
+        /**
+         * @return The tasks added, which follow the tasks in the version before the change.
+         */
+        private List<Task> added() {
+            return after.subList(before.size(), after.size());
+        }
+
+        /**
+         * @return What the change did, to tell the user what was undone or redone.
+         */
+        private String describe() {
+            final int count = kind == ADD ? after.size() - before.size() : tasks.length;
+            final String what = count == 1 ? (kind == ADD ? added().get(0) : tasks[0]).toString() : count + " tasks";
+            switch (kind) {
+            case ADD:
+                return "adding " + what;
+            case SET_DONE:
+                return (isDone ? "marking " : "unmarking ") + what;
+            default:
+                return "deleting " + what;
+            }
+        }
+    }
+
+    /**
+     * Make an empty list. Its reminders read the list, so they are made once every other field has been set.
+     */
+    public TaskList() {
+        reminders = new Reminders(this);
+    }
+
+    /**
+     * @param depth The most changes that can be undone, 0 to keep no history.
+     */
+    public static void setHistoryDepth(int depth) {
+        historyDepth = depth;
+    }
+
+    /**
+     * Journal every change made from now on through the storage, which has loaded this list from its file.
+     * The changes replayed while loading are not kept in the history.
+     *
+     * @param storage The storage of the list.
+     */
+    void setStorage(Storage storage) {
+        writeLock.lock();
+        try {
+            this.storage = storage;
+            clearHistory();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Forget every change that could be undone or redone.
+     */
+    void clearHistory() {
+        writeLock.lock();
+        try {
+            undoHistory.clear();
+            redoHistory.clear();
+            historyBytes = 0;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return The tasks in the list at this moment.
+     */
+    public TaskSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Add a new task to the end of the list, and give it an id larger than every task before it.
      *
-     * @param tasks The list containing the user's tasks.
-     * @param t The task that the user want to add
+     * @param task The task that the user want to add
+     * @return The snapshot with the task, as the last task in it.
      */
-    public static void addTask(ArrayList<Task> tasks, Task t) {
-        tasks.add(t);
+    public TaskSnapshot add(Task task) {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            task.id = nextId;
+            nextId += 1;
+            index(task);
+            final TaskSnapshot before = snapshot;
+            snapshot = before.withAdded(task);
+            reminders.schedule(task);
+            storage.recordAdd(snapshot.size() - 1, task);
+            remember(new Change(Change.ADD, new int[] {before.size()}, NO_TASKS, false, before, snapshot));
+            return snapshot;
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
-     * Delete the task of the index entered by the user from the list.
+     * Add tasks that were loaded from storage to the end of the list all at once, without recording them.
      *
-     * @param tasks The list containing the user's tasks.
-     * @param commandArgs The index description entered by the user.
-     * @throws NoDescriptionException If the index description is empty, the exception will be thrown.
-     * @throws IndexOutOfBoundsException If the index is not within the size of the list, the exception will be thrown.
-     * @throws FormatException If the index is not a Integer, the exception will be thrown.
+     * @param tasks The tasks to add, in order.
      */
-    public static void deleteTask(ArrayList<Task> tasks, String commandArgs) throws NoDescriptionException, IndexOutOfBoundsException, FormatException {
-        if (commandArgs.trim().length() == 0) {
-            throw new NoDescriptionException();
+    public void addAll(List<Task> tasks) {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            for (Task task : tasks) {
+                task.id = nextId;
+                nextId += 1;
+                index(task);
+            }
+            if (snapshot.isEmpty()) {
+                snapshot = TaskSnapshot.of(tasks);
+            } else {
+                TaskSnapshot added = snapshot;
+                for (Task task : tasks) {
+                    added = added.withAdded(task);
+                }
+                snapshot = added;
+            }
+            reminders.scheduleAll(tasks);
+        } finally {
+            writeLock.unlock();
         }
-        final int deleteId = Parser.parseIndex(commandArgs) - 1;
-        if (deleteId < 0 || deleteId >= tasks.size()) {
-            throw new IndexOutOfBoundsException();
+    }
+
+    /**
+     * Add a batch of imported tasks to the end of the list, journaling each of them.
+     * The batches of one import are undone as one change, as long as no other change was made between them.
+     *
+     * @param batch The tasks to add, in order.
+     * @param isContinued Whether the batch follows an earlier batch of the same import.
+     */
+    public void addImported(List<Task> batch, boolean isContinued) {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            final TaskSnapshot before = snapshot;
+            TaskSnapshot added = before;
+            for (Task task : batch) {
+                task.id = nextId;
+                nextId += 1;
+                index(task);
+                added = added.withAdded(task);
+            }
+            snapshot = added;
+            reminders.scheduleAll(batch);
+            int index = before.size();
+            for (Task task : batch) {
+                storage.recordAdd(index, task);
+                index += 1;
+            }
+            final Change last = undoHistory.peekLast();
+            if (isContinued && last != null && last.kind == Change.ADD && last.after == before) {
+                undoHistory.pollLast();
+                historyBytes -= last.bytes;
+                remember(new Change(Change.ADD, last.indices, NO_TASKS, false, last.before, snapshot));
+            } else {
+                remember(new Change(Change.ADD, new int[] {before.size()}, NO_TASKS, false, before, snapshot));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Mark the task at the index as done or not done, by putting a marked copy of it in its place.
+     *
+     * @param index The 0-based index of the task.
+     * @param isDone Whether the task is to be done.
+     * @return The marked task, or null if the task already was done or not done.
+     * @throws IndexOutOfBoundsException If the index is not within the size of the list.
+     */
+    public Task setDone(int index, boolean isDone) throws IndexOutOfBoundsException {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            final Task task = snapshot.get(index);
+            if (task.isDone == isDone) {
+                return null;
+            }
+            final Task marked = task.withDone(isDone);
+            final TaskSnapshot before = snapshot;
+            snapshot = before.withReplaced(index, marked);
+            if (isDone) {
+                storage.recordMark(index);
+            } else {
+                reminders.schedule(marked);
+                storage.recordUnmark(index);
+            }
+            remember(new Change(Change.SET_DONE, new int[] {index}, new Task[] {marked}, isDone, before, snapshot));
+            return marked;
+        } finally {
+            writeLock.unlock();
         }
-        System.out.println("I've deleted this task ∪･ω･∪:");
-        System.out.println(tasks.get(deleteId));
-        Ui.printLine();
-        tasks.remove(deleteId);
+    }
+
+    /**
+     * Mark every selected task as done or not done in one change, which is journaled as a single record.
+     * The selection is checked against the list before anything is changed.
+     *
+     * @param selection The tasks to mark.
+     * @param isDone Whether the tasks are to be done.
+     * @return The number of tasks that were changed, leaving out those that already were done or not done.
+     * @throws IndexOutOfBoundsException If the selection goes past the end of the list.
+     */
+    public int setDone(Selection selection, boolean isDone) throws IndexOutOfBoundsException {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            final int[] indices = selection.indicesIn(snapshot);
+            int count = 0;
+            final int[] changed = new int[indices.length];
+            final Task[] marked = new Task[indices.length];
+            for (int index : indices) {
+                final Task task = snapshot.get(index);
+                if (task.isDone != isDone) {
+                    changed[count] = index;
+                    marked[count] = task.withDone(isDone);
+                    count += 1;
+                }
+            }
+            if (count > 0) {
+                final int[] changedIndices = Arrays.copyOf(changed, count);
+                final Task[] changedTasks = Arrays.copyOf(marked, count);
+                final TaskSnapshot before = snapshot;
+                snapshot = before.withReplaced(changedIndices, changedTasks);
+                if (!isDone) {
+                    reminders.scheduleAll(Arrays.asList(changedTasks));
+                }
+                storage.recordSetDone(changedIndices, isDone);
+                remember(new Change(Change.SET_DONE, changedIndices, changedTasks, isDone, before, snapshot));
+            }
+            return count;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Remove every selected task from the list in one change, which is journaled as a single record.
+     * The selection is checked against the list before anything is changed.
+     *
+     * @param selection The tasks to remove.
+     * @return The number of tasks removed.
+     * @throws IndexOutOfBoundsException If the selection goes past the end of the list.
+     */
+    public int remove(Selection selection) throws IndexOutOfBoundsException {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            final TaskSnapshot before = snapshot;
+            final int[] indices = selection.indicesIn(before);
+            if (indices.length == 0) {
+                return 0;
+            }
+            snapshot = before.withRemoved(indices);
+            final List<Task> removed = new ArrayList<>(indices.length);
+            for (int index : indices) {
+                removed.add(before.get(index));
+            }
+            wordIndex.removeAll(removed);
+            trigramIndex.removeAll(removed);
+            dateIndex.removeAll(removed);
+            storage.recordDeleteSet(indices);
+            remember(new Change(Change.REMOVE, indices, removed.toArray(new Task[0]), false, before, snapshot));
+            return indices.length;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Remove the task at the index from the list, without printing anything.
+     *
+     * @param index The 0-based index of the task.
+     * @return The task that was removed.
+     * @throws IndexOutOfBoundsException If the index is not within the size of the list.
+     */
+    public Task remove(int index) throws IndexOutOfBoundsException {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            final TaskSnapshot before = snapshot;
+            final Task removed = before.get(index);
+            snapshot = before.withRemoved(index);
+            unindex(removed);
+            storage.recordDelete(index);
+            remember(new Change(Change.REMOVE, new int[] {index}, new Task[] {removed}, false, before, snapshot));
+            return removed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Run a query against the indexes, and pair its result with a snapshot it is complete for.
+     * Every task of a snapshot stays in the indexes until a later snapshot has been published,
+     * so if no task was removed while the query ran, it found every matching task of the snapshot taken before it.
+     * Otherwise the query is tried again on a newer snapshot.
+     *
+     * @param query The query to run.
+     * @return The ids found and the snapshot to look them up in.
+     * @throws FormatException If the query is not valid.
+     */
+    public Found find(IndexQuery query) throws FormatException {
+        return find((list, tasks) -> query.run(list));
+    }
+
+    /**
+     * Run a query against the indexes as find does, giving it the snapshot its result is paired with.
+     *
+     * @param query The query to run.
+     * @return The ids found and the snapshot to look them up in.
+     * @throws FormatException If the query is not valid.
+     */
+    public Found find(SnapshotQuery query) throws FormatException {
+        for (int i = 0; i < SEARCH_ATTEMPTS; i += 1) {
+            final TaskSnapshot before = snapshot;
+            final PostingList ids = query.run(this, before);
+            if (snapshot.removals == before.removals) {
+                return new Found(before, ids);
+            }
+        }
+        writeLock.lock();
+        try {
+            return new Found(snapshot, query.run(this, snapshot));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Put the list back as it was before the latest change that hasn't been undone.
+     * The indexes, the reminders and the journal are brought in line with the version put back.
+     *
+     * @return What the change that was undone did, or null if there is nothing to undo.
+     */
+    public String undo() {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            final Change change = undoHistory.pollLast();
+            if (change == null) {
+                return null;
+            }
+            switch (change.kind) {
+            case Change.ADD:
+                snapshot = change.before.restoredAfter(snapshot);
+                final List<Task> added = change.added();
+                wordIndex.removeAll(added);
+                trigramIndex.removeAll(added);
+                dateIndex.removeAll(added);
+                if (added.size() == 1) {
+                    storage.recordDelete(change.indices[0]);
+                } else {
+                    storage.recordDeleteSet(IntStream.range(change.before.size(), change.after.size()).toArray());
+                }
+                break;
+            case Change.SET_DONE:
+                snapshot = change.before.restoredAfter(snapshot);
+                if (change.isDone) {
+                    for (int index : change.indices) {
+                        reminders.schedule(snapshot.get(index));
+                    }
+                }
+                storage.recordSetDone(change.indices, !change.isDone);
+                break;
+            default:
+                for (Task task : change.tasks) {
+                    index(task);
+                }
+                snapshot = change.before.restoredAfter(snapshot);
+                reminders.scheduleAll(Arrays.asList(change.tasks));
+                storage.recordRestore(change.indices, change.tasks);
+                break;
+            }
+            redoHistory.addLast(change);
+            return change.describe();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Make the latest change that was undone again, unless another change was made after it was undone.
+     *
+     * @return What the change that was redone did, or null if there is nothing to redo.
+     */
+    public String redo() {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            final Change change = redoHistory.pollLast();
+            if (change == null) {
+                return null;
+            }
+            switch (change.kind) {
+            case Change.ADD:
+                final List<Task> added = change.added();
+                for (Task task : added) {
+                    index(task);
+                }
+                snapshot = change.after.restoredAfter(snapshot);
+                reminders.scheduleAll(added);
+                int index = change.indices[0];
+                for (Task task : added) {
+                    storage.recordAdd(index, task);
+                    index += 1;
+                }
+                break;
+            case Change.SET_DONE:
+                snapshot = change.after.restoredAfter(snapshot);
+                if (!change.isDone) {
+                    reminders.scheduleAll(Arrays.asList(change.tasks));
+                }
+                storage.recordSetDone(change.indices, change.isDone);
+                break;
+            default:
+                snapshot = change.after.restoredAfter(snapshot);
+                final List<Task> removed = Arrays.asList(change.tasks);
+                wordIndex.removeAll(removed);
+                trigramIndex.removeAll(removed);
+                dateIndex.removeAll(removed);
+                storage.recordDeleteSet(change.indices);
+                break;
+            }
+            undoHistory.addLast(change);
+            return change.describe();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return The estimated memory held on to by the versions kept for undo and redo.
+     */
+    public long getHistoryBytes() {
+        writeLock.lock();
+        try {
+            return historyBytes;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Keep a change that was just made so it can be undone, which drops the changes that could be redone,
+     * then forget the oldest changes until the history fits its depth and memory.
+     * A change too large for the memory of the history on its own can't be undone.
+     */
+    private void remember(Change change) {
+        for (Change dropped : redoHistory) {
+            historyBytes -= dropped.bytes;
+        }
+        redoHistory.clear();
+        if (historyDepth > 0) {
+            undoHistory.addLast(change);
+            historyBytes += change.bytes;
+        }
+        while (!undoHistory.isEmpty() && (undoHistory.size() > historyDepth || historyBytes > HISTORY_BYTES)) {
+            historyBytes -= undoHistory.pollFirst().bytes;
+        }
+    }
+
+    /**
+     * Stop every change to the list from now on, so that it can be saved while the program shuts down.
+     * A change tried after this fails with a ClosedListException instead of waiting.
+     *
+     * @return Whether the list was still open, so that it is only saved once.
+     */
+    public boolean close() {
+        writeLock.lock();
+        try {
+            final boolean wasOpen = !isClosed;
+            isClosed = true;
+            return wasOpen;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Check that the list can still be changed. The task list calls this while it holds its lock.
+     */
+    private void ensureOpen() {
+        if (isClosed) {
+            throw new ClosedListException();
+        }
+    }
+
+    private void index(Task task) {
+        wordIndex.add(task);
+        trigramIndex.add(task);
+        dateIndex.add(task);
+    }
+
+    private void unindex(Task task) {
+        wordIndex.remove(task);
+        trigramIndex.remove(task);
+        dateIndex.remove(task);
     }
 }
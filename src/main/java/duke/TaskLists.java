@@ -0,0 +1,311 @@
+package duke;
+
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The user's named task lists. The list Duke starts with is kept in Duke.FILEPATH as it always was,
+ * and every other list is kept in a file of its own in the data directory.
+ *
+ * A list is only loaded the first time it is used. Once the lists in memory are estimated to take more than
+ * the memory budget, the least recently used lists that nobody is using are saved and dropped from memory,
+ * so one process can hold hundreds of lists without loading them all.
+ * Each thread works on its own current list, so every client of the server can use a different one.
+ */
+public class TaskLists {
+    public static final String DEFAULT_LIST = "duke";
+    /** The memory a task is estimated to take, counting its share of the snapshot tree and the indexes. */
+    static final long BYTES_PER_TASK = 512;
+    private static final int MAX_NAME_LENGTH = 64;
+    private static final String FILE_SUFFIX = ".txt";
+
+    private static String directory = "data";
+    private static long memoryBudget = 256L << 20;
+
+    /** Guards the loaded lists and how many threads use each of them. */
+    private static final ReentrantLock lock = new ReentrantLock();
+    /** The loaded lists, from the least to the most recently used. */
+    private static final LinkedHashMap<String, Loaded> loaded = new LinkedHashMap<>(16, 0.75f, true);
+    /** The lists dropped from memory whose files are still being written, outside the lock. */
+    private static final HashMap<String, Loaded> saving = new HashMap<>();
+    /** Signalled when a dropped list has been written, so it can be loaded again. */
+    private static final Condition saved = lock.newCondition();
+    private static final ThreadLocal<Loaded> current = new ThreadLocal<>();
+
+    /**
+     * A list in memory along with the storage that journals its changes.
+     */
+    private static class Loaded {
+        private final String name;
+        private final String filepath;
+        private final TaskList tasks;
+        private final Storage storage;
+        /** The number of threads whose current list this is, which keeps it from being dropped. */
+        private int users = 0;
+
+        private Loaded(String name, String filepath, TaskList tasks, Storage storage) {
+            this.name = name;
+            this.filepath = filepath;
+            this.tasks = tasks;
+            this.storage = storage;
+        }
+    }
+
+    /**
+     * @param path The directory the named lists are kept in, which is created when a list is first saved there.
+     */
+    public static void setDirectory(String path) {
+        directory = path;
+    }
+
+    /**
+     * @param bytes How much memory the loaded lists may be estimated to take before unused ones are dropped.
+     */
+    public static void setMemoryBudget(long bytes) {
+        memoryBudget = bytes;
+    }
+
+    /**
+     * @param name The name entered by the user.
+     * @return True if the name can be used for a list, which keeps its file inside the data directory.
+     */
+    public static boolean isValidName(String name) {
+        if (name.isEmpty() || name.length() > MAX_NAME_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i += 1) {
+            final char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '-' && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The current list of this thread, which is the default list until the thread uses another one.
+     */
+    public static TaskList current() {
+        final Loaded list = current.get();
+        return list != null ? list.tasks : use(DEFAULT_LIST);
+    }
+
+    /**
+     * @return The name of the current list of this thread.
+     */
+    public static String currentName() {
+        final Loaded list = current.get();
+        return list != null ? list.name : DEFAULT_LIST;
+    }
+
+    /**
+     * Make the list with the name the current list of this thread, loading it from its file if it isn't in memory.
+     * A list that doesn't exist yet starts empty, and gets its file when it is saved.
+     *
+     * @param name A valid name of a list.
+     * @return The list.
+     */
+    public static TaskList use(String name) {
+        final List<Loaded> evicted;
+        final TaskList tasks;
+        lock.lock();
+        try {
+            Loaded list = loaded.get(name);
+            while (list == null && saving.containsKey(name)) {
+                saved.awaitUninterruptibly();
+                list = loaded.get(name);
+            }
+            if (list == null) {
+                list = load(name);
+                loaded.put(name, list);
+            }
+            list.users += 1;
+            final Loaded previous = current.get();
+            if (previous != null) {
+                previous.users -= 1;
+            }
+            current.set(list);
+            evicted = pickUnusedLists();
+            tasks = list.tasks;
+        } finally {
+            lock.unlock();
+        }
+        save(evicted);
+        return tasks;
+    }
+
+    /**
+     * Stop using the current list of this thread, as a client of the server does when it disconnects.
+     */
+    public static void leave() {
+        List<Loaded> evicted = List.of();
+        lock.lock();
+        try {
+            final Loaded list = current.get();
+            if (list != null) {
+                list.users -= 1;
+                current.remove();
+                evicted = pickUnusedLists();
+            }
+        } finally {
+            lock.unlock();
+        }
+        save(evicted);
+    }
+
+    /**
+     * Make a list that has no file available under the name, as the benchmarks do.
+     *
+     * @param name The name of the list.
+     * @param tasks The list.
+     */
+    static void put(String name, TaskList tasks) {
+        lock.lock();
+        try {
+            loaded.put(name, new Loaded(name, null, tasks, new Storage()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The names of the default list, the lists in the data directory and the lists in memory, in order.
+     */
+    public static List<String> names() {
+        final TreeSet<String> names = new TreeSet<>();
+        names.add(DEFAULT_LIST);
+        final String[] files = new File(directory).list();
+        if (files != null) {
+            for (String file : files) {
+                final String name = file.substring(0, Math.max(0, file.length() - FILE_SUFFIX.length()));
+                if (file.endsWith(FILE_SUFFIX) && isValidName(name)) {
+                    names.add(name);
+                }
+            }
+        }
+        lock.lock();
+        try {
+            names.addAll(loaded.keySet());
+        } finally {
+            lock.unlock();
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * @param name The name of a list.
+     * @return The number of tasks in the list, or -1 if it isn't in memory.
+     */
+    public static int sizeIfLoaded(String name) {
+        lock.lock();
+        try {
+            final Loaded list = loaded.get(name);
+            return list == null ? -1 : list.tasks.snapshot().size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write the changes still waiting in memory to the journal of every loaded list.
+     */
+    public static void flushAll() {
+        lock.lock();
+        try {
+            for (Loaded list : loaded.values()) {
+                list.storage.flushJournal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Save every loaded list and stop any further change to them, as the program is about to exit.
+     * A list that was already closed is not saved again, and a change tried on a closed list fails instead of waiting.
+     */
+    public static void closeAll() {
+        lock.lock();
+        try {
+            for (Loaded list : loaded.values()) {
+                if (list.tasks.close() && list.filepath != null) {
+                    list.storage.storeChanges(list.filepath, list.tasks);
+                }
+            }
+            while (!saving.isEmpty()) {
+                saved.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Loaded load(String name) {
+        final String filepath;
+        if (name.equals(DEFAULT_LIST)) {
+            filepath = Duke.FILEPATH;
+        } else {
+            new File(directory).mkdirs();
+            filepath = Paths.get(directory, name + FILE_SUFFIX).toString();
+        }
+        final TaskList tasks = new TaskList();
+        final Storage storage = new Storage();
+        storage.initializeStorage(tasks, filepath);
+        Reminders.register(tasks.reminders);
+        return new Loaded(name, filepath, tasks, storage);
+    }
+
+    /**
+     * Drop the least recently used lists that nobody is using from memory, until the rest fit in the memory budget.
+     * A list whose file couldn't be read is kept, since its changes can't be saved.
+     * The caller holds the lock, and saves the dropped lists after releasing it.
+     *
+     * @return The dropped lists.
+     */
+    private static List<Loaded> pickUnusedLists() {
+        long estimate = 0;
+        for (Loaded list : loaded.values()) {
+            estimate += list.tasks.snapshot().size() * BYTES_PER_TASK;
+        }
+        final List<Loaded> evicted = new ArrayList<>();
+        final var lists = loaded.values().iterator();
+        while (estimate > memoryBudget && lists.hasNext()) {
+            final Loaded list = lists.next();
+            if (list.users == 0 && list.filepath != null && !list.storage.isReadOnly()) {
+                estimate -= list.tasks.snapshot().size() * BYTES_PER_TASK;
+                Reminders.unregister(list.tasks.reminders);
+                lists.remove();
+                saving.put(list.name, list);
+                evicted.add(list);
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Write the dropped lists to their files without holding the lock, so other lists can be used meanwhile,
+     * then let the threads waiting to load them again go on.
+     */
+    private static void save(List<Loaded> evicted) {
+        for (Loaded list : evicted) {
+            try {
+                list.storage.storeChanges(list.filepath, list.tasks);
+            } finally {
+                lock.lock();
+                try {
+                    saving.remove(list.name);
+                    saved.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package duke;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * The tasks in the list at one moment, which never changes once it is made.
+ *
+ * The tasks are kept in a B-tree ordered by position: leaves hold up to LEAF_SIZE tasks, and branches hold up to
+ * BRANCH_SIZE children along with the number of tasks under them, so a task is found by its index
+ * in O(log n). A change copies only the path from the root to the leaf it touches and shares every other node
+ * with the snapshot before it, so getting, adding, marking and deleting a task all take O(log n)
+ * however long the list is.
+ */
+public final class TaskSnapshot extends AbstractList<Task> implements RandomAccess {
+    static final int LEAF_SIZE = 64;
+    static final int BRANCH_SIZE = 32;
+    static final TaskSnapshot EMPTY = new TaskSnapshot(null, 0);
+    /** The size of a reference and of the header of an object or array, for estimating the memory of nodes. */
+    private static final int REFERENCE_BYTES = 4;
+    private static final int NODE_OVERHEAD_BYTES = 32;
+
+    /** The root of the tree, or null if there are no tasks. */
+    private final Node root;
+    /** The number of tasks removed from the list before this snapshot was made. */
+    final long removals;
+
+    private TaskSnapshot(Node root, long removals) {
+        this.root = root;
+        this.removals = removals;
+    }
+
+    /**
+     * A node of the tree. Every leaf is at the same depth.
+     */
+    private abstract static class Node {
+        /** @return The number of tasks under the node. */
+        abstract int size();
+
+        /** @return The number of tasks or children the node holds itself. */
+        abstract int width();
+
+        /** @return The id of the last task under the node. */
+        abstract int lastId();
+    }
+
+    private static final class Leaf extends Node {
+        private final Task[] tasks;
+
+        private Leaf(Task[] tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        int size() {
+            return tasks.length;
+        }
+
+        @Override
+        int width() {
+            return tasks.length;
+        }
+
+        @Override
+        int lastId() {
+            return tasks[tasks.length - 1].id;
+        }
+    }
+
+    private static final class Branch extends Node {
+        private final Node[] children;
+        /** The number of tasks under each child and the children before it. */
+        private final int[] ends;
+        /** The id of the last task under each child. */
+        private final int[] lastIds;
+
+        private Branch(Node[] children) {
+            this.children = children;
+            this.ends = new int[children.length];
+            this.lastIds = new int[children.length];
+            int end = 0;
+            for (int i = 0; i < children.length; i += 1) {
+                end += children[i].size();
+                ends[i] = end;
+                lastIds[i] = children[i].lastId();
+            }
+        }
+
+        @Override
+        int size() {
+            return ends[ends.length - 1];
+        }
+
+        @Override
+        int width() {
+            return children.length;
+        }
+
+        @Override
+        int lastId() {
+            return lastIds[lastIds.length - 1];
+        }
+
+        /**
+         * @return The child holding the task at the index, or the last child if the index is the size.
+         */
+        int childAt(int index) {
+            int low = 0;
+            int high = ends.length - 1;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (ends[mid] <= index) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int startOf(int child) {
+            return child == 0 ? 0 : ends[child - 1];
+        }
+    }
+
+    /**
+     * @param tasks The tasks to put in the snapshot, in order.
+     * @return A snapshot with the tasks, built bottom up with every node full.
+     */
+    static TaskSnapshot of(List<Task> tasks) {
+        return of(tasks, 0);
+    }
+
+    private static TaskSnapshot of(List<Task> tasks, long removals) {
+        if (tasks.isEmpty()) {
+            return removals == 0 ? EMPTY : new TaskSnapshot(null, removals);
+        }
+        final Task[] all = tasks.toArray(new Task[0]);
+        Node[] level = new Node[(all.length + LEAF_SIZE - 1) / LEAF_SIZE];
+        for (int i = 0; i < level.length; i += 1) {
+            level[i] = new Leaf(Arrays.copyOfRange(all, i * LEAF_SIZE, Math.min((i + 1) * LEAF_SIZE, all.length)));
+        }
+        while (level.length > 1) {
+            final Node[] parents = new Node[(level.length + BRANCH_SIZE - 1) / BRANCH_SIZE];
+            for (int i = 0; i < parents.length; i += 1) {
+                parents[i] = new Branch(Arrays.copyOfRange(level, i * BRANCH_SIZE,
+                        Math.min((i + 1) * BRANCH_SIZE, level.length)));
+            }
+            level = parents;
+        }
+        return new TaskSnapshot(level[0], removals);
+    }
+
+    @Override
+    public int size() {
+        return root == null ? 0 : root.size();
+    }
+
+    @Override
+    public Task get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        Node node = root;
+        while (node instanceof Branch) {
+            final Branch branch = (Branch) node;
+            final int child = branch.childAt(index);
+            index -= branch.startOf(child);
+            node = branch.children[child];
+        }
+        return ((Leaf) node).tasks[index];
+    }
+
+    /**
+     * Iterate over the tasks in order, looking up each leaf only once.
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return iterator(0);
+    }
+
+    /**
+     * Iterate over the tasks in order starting from the index, so that a part of a long list
+     * is reached in O(log n) and walked in time proportional to its length.
+     *
+     * @param from The 0-based index of the first task, which may be the size for an empty iteration.
+     * @return The iterator.
+     */
+    public Iterator<Task> iterator(int from) {
+        if (from < 0 || from > size()) {
+            throw new IndexOutOfBoundsException(from);
+        }
+        return new Iterator<>() {
+            private final int size = size();
+            private int index = from;
+            private Task[] leaf = new Task[0];
+            private int offset = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public Task next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                if (offset == leaf.length) {
+                    Node node = root;
+                    offset = index;
+                    while (node instanceof Branch) {
+                        final Branch branch = (Branch) node;
+                        final int child = branch.childAt(offset);
+                        offset -= branch.startOf(child);
+                        node = branch.children[child];
+                    }
+                    leaf = ((Leaf) node).tasks;
+                }
+                index += 1;
+                return leaf[offset++];
+            }
+        };
+    }
+
+    /**
+     * Find where the task with the id is in the list.
+     *
+     * @param id The id of the task.
+     * @return The 0-based index of the task, or -1 if it is not in the list.
+     */
+    public int indexOfId(int id) {
+        final int index = indexOfIdFrom(id);
+        return index < size() && get(index).id == id ? index : -1;
+    }
+
+    /**
+     * Find the first task whose id is at least the given id, which is where a task left off
+     * if it has since been deleted.
+     * Ids increase along the list, so each branch can pick its child by the id of the child's last task.
+     *
+     * @param id The id to start from.
+     * @return The 0-based index of the task, or the size if every task has a smaller id.
+     */
+    public int indexOfIdFrom(int id) {
+        if (root == null || root.lastId() < id) {
+            return size();
+        }
+        Node node = root;
+        int start = 0;
+        while (node instanceof Branch) {
+            final Branch branch = (Branch) node;
+            int low = 0;
+            int high = branch.lastIds.length - 1;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (branch.lastIds[mid] < id) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            start += branch.startOf(low);
+            node = branch.children[low];
+        }
+        final Task[] tasks = ((Leaf) node).tasks;
+        int first = 0;
+        int last = tasks.length - 1;
+        while (first < last) {
+            final int mid = (first + last) >>> 1;
+            if (tasks[mid].id < id) {
+                first = mid + 1;
+            } else {
+                last = mid;
+            }
+        }
+        return start + first;
+    }
+
+    /**
+     * @return A snapshot with the task added at the end.
+     */
+    TaskSnapshot withAdded(Task task) {
+        if (root == null) {
+            return new TaskSnapshot(new Leaf(new Task[] {task}), removals);
+        }
+        final Node[] added = insert(root, root.size(), task);
+        return new TaskSnapshot(added.length == 1 ? added[0] : new Branch(added), removals);
+    }
+
+    /**
+     * @return A snapshot with the task inserted at the index, before the task that was there.
+     */
+    TaskSnapshot withInserted(int index, Task task) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        if (root == null) {
+            return withAdded(task);
+        }
+        final Node[] inserted = insert(root, index, task);
+        return new TaskSnapshot(inserted.length == 1 ? inserted[0] : new Branch(inserted), removals);
+    }
+
+    /**
+     * @return A snapshot with the task at the index replaced.
+     */
+    TaskSnapshot withReplaced(int index, Task task) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return new TaskSnapshot(replace(root, index, task), removals);
+    }
+
+    /**
+     * @return A snapshot without the task at the index.
+     */
+    TaskSnapshot withRemoved(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        Node newRoot = remove(root, index);
+        while (newRoot instanceof Branch && newRoot.width() == 1) {
+            newRoot = ((Branch) newRoot).children[0];
+        }
+        return new TaskSnapshot(newRoot, removals + 1);
+    }
+
+    /**
+     * Bring back this version of the list as the newest one, as undo and redo do.
+     * It counts as made after the current snapshot, so that a search overlapping the change is tried again.
+     *
+     * @param current The snapshot in the list now.
+     * @return A snapshot with the tasks of this one.
+     */
+    TaskSnapshot restoredAfter(TaskSnapshot current) {
+        return new TaskSnapshot(root, Math.max(removals, current.removals) + 1);
+    }
+
+    /**
+     * Estimate the memory taken by the nodes that a change to the tasks at these indices copies from this snapshot,
+     * which are the only part of the new version that isn't shared with this one.
+     * Changes next to each other copy the same nodes, so the nodes are counted rather than the changes.
+     *
+     * @param indices The 0-based indices of the tasks changed, in ascending order.
+     * @return The estimate in bytes.
+     */
+    long estimateChangeBytes(int[] indices) {
+        final long leafBytes = LEAF_SIZE * REFERENCE_BYTES + NODE_OVERHEAD_BYTES;
+        if (indices.length > size() / LEAF_SIZE) {
+            return (long) size() / LEAF_SIZE * leafBytes + leafBytes;
+        }
+        final long branchBytes = BRANCH_SIZE * (REFERENCE_BYTES + 2 * Integer.BYTES) + 3 * NODE_OVERHEAD_BYTES;
+        long bytes = 0;
+        long span = LEAF_SIZE;
+        for (Node node = root; node != null; node = node instanceof Branch ? ((Branch) node).children[0] : null) {
+            long nodes = 0;
+            long last = -1;
+            for (int index : indices) {
+                if (index / span != last) {
+                    last = index / span;
+                    nodes += 1;
+                }
+            }
+            bytes += nodes * (span == LEAF_SIZE ? leafBytes : branchBytes);
+            span *= BRANCH_SIZE;
+        }
+        return bytes;
+    }
+
+    /**
+     * Replace many tasks at once. Past about one change per leaf, building the tree again in one pass
+     * is cheaper than copying a path for every change.
+     *
+     * @param indices The 0-based indices of the tasks to replace, in ascending order.
+     * @param tasks The tasks to put at those indices.
+     * @return A snapshot with the tasks replaced.
+     */
+    TaskSnapshot withReplaced(int[] indices, Task[] tasks) {
+        if (indices.length <= size() / LEAF_SIZE) {
+            TaskSnapshot replaced = this;
+            for (int i = 0; i < indices.length; i += 1) {
+                replaced = replaced.withReplaced(indices[i], tasks[i]);
+            }
+            return replaced;
+        }
+        final Task[] all = toArray(new Task[0]);
+        for (int i = 0; i < indices.length; i += 1) {
+            all[indices[i]] = tasks[i];
+        }
+        return of(Arrays.asList(all), removals);
+    }
+
+    /**
+     * Remove many tasks at once, compacting the list in one pass when there are many of them.
+     *
+     * @param indices The 0-based indices of the tasks to remove, in ascending order without repeats.
+     * @return A snapshot without the tasks.
+     */
+    TaskSnapshot withRemoved(int[] indices) {
+        if (indices.length <= size() / LEAF_SIZE) {
+            TaskSnapshot removed = this;
+            for (int i = indices.length - 1; i >= 0; i -= 1) {
+                removed = removed.withRemoved(indices[i]);
+            }
+            return removed;
+        }
+        final List<Task> kept = new ArrayList<>(size() - indices.length);
+        int next = 0;
+        int index = 0;
+        for (Task task : this) {
+            if (next < indices.length && indices[next] == index) {
+                next += 1;
+            } else {
+                kept.add(task);
+            }
+            index += 1;
+        }
+        return of(kept, removals + indices.length);
+    }
+
+    /**
+     * Insert the task into a copy of the node.
+     * A full node is split in two: in halves, or, when the task goes at its end, into the full node and the task,
+     * so that a list built by adding at the end keeps its nodes full.
+     *
+     * @return The copy of the node, or the two nodes it was split into.
+     */
+    private static Node[] insert(Node node, int index, Task task) {
+        if (node instanceof Leaf) {
+            final Task[] tasks = ((Leaf) node).tasks;
+            final Task[] inserted = new Task[tasks.length + 1];
+            System.arraycopy(tasks, 0, inserted, 0, index);
+            inserted[index] = task;
+            System.arraycopy(tasks, index, inserted, index + 1, tasks.length - index);
+            if (inserted.length <= LEAF_SIZE) {
+                return new Node[] {new Leaf(inserted)};
+            }
+            final int split = index == tasks.length ? tasks.length : inserted.length / 2;
+            return new Node[] {new Leaf(Arrays.copyOfRange(inserted, 0, split)),
+                new Leaf(Arrays.copyOfRange(inserted, split, inserted.length))};
+        }
+        final Branch branch = (Branch) node;
+        final int child = branch.childAt(index);
+        final Node[] replacement = insert(branch.children[child], index - branch.startOf(child), task);
+        final Node[] children = new Node[branch.children.length + replacement.length - 1];
+        System.arraycopy(branch.children, 0, children, 0, child);
+        System.arraycopy(replacement, 0, children, child, replacement.length);
+        System.arraycopy(branch.children, child + 1, children, child + replacement.length,
+                branch.children.length - child - 1);
+        if (children.length <= BRANCH_SIZE) {
+            return new Node[] {new Branch(children)};
+        }
+        final int split = child == branch.children.length - 1 ? branch.children.length : children.length / 2;
+        return new Node[] {new Branch(Arrays.copyOfRange(children, 0, split)),
+            new Branch(Arrays.copyOfRange(children, split, children.length))};
+    }
+
+    private static Node replace(Node node, int index, Task task) {
+        if (node instanceof Leaf) {
+            final Task[] tasks = ((Leaf) node).tasks.clone();
+            tasks[index] = task;
+            return new Leaf(tasks);
+        }
+        final Branch branch = (Branch) node;
+        final int child = branch.childAt(index);
+        final Node[] children = branch.children.clone();
+        children[child] = replace(children[child], index - branch.startOf(child), task);
+        return new Branch(children);
+    }
+
+    /**
+     * Remove the task from a copy of the node.
+     * A child left less than a quarter full is merged with a neighbour when they fit in one node together.
+     *
+     * @return The copy of the node, or null if it has no tasks left.
+     */
+    private static Node remove(Node node, int index) {
+        if (node instanceof Leaf) {
+            final Task[] tasks = ((Leaf) node).tasks;
+            if (tasks.length == 1) {
+                return null;
+            }
+            final Task[] removed = new Task[tasks.length - 1];
+            System.arraycopy(tasks, 0, removed, 0, index);
+            System.arraycopy(tasks, index + 1, removed, index, tasks.length - index - 1);
+            return new Leaf(removed);
+        }
+        final Branch branch = (Branch) node;
+        final int child = branch.childAt(index);
+        final Node newChild = remove(branch.children[child], index - branch.startOf(child));
+        if (newChild == null) {
+            if (branch.children.length == 1) {
+                return null;
+            }
+            final Node[] children = new Node[branch.children.length - 1];
+            System.arraycopy(branch.children, 0, children, 0, child);
+            System.arraycopy(branch.children, child + 1, children, child, children.length - child);
+            return new Branch(children);
+        }
+        final Node[] children = branch.children.clone();
+        children[child] = newChild;
+        final int capacity = newChild instanceof Leaf ? LEAF_SIZE : BRANCH_SIZE;
+        if (newChild.width() < capacity / 4 && children.length > 1) {
+            final int left = child == 0 ? 0 : child - 1;
+            if (children[left].width() + children[left + 1].width() <= capacity) {
+                final Node[] merged = new Node[children.length - 1];
+                System.arraycopy(children, 0, merged, 0, left);
+                merged[left] = merge(children[left], children[left + 1]);
+                System.arraycopy(children, left + 2, merged, left + 1, children.length - left - 2);
+                return new Branch(merged);
+            }
+        }
+        return new Branch(children);
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left instanceof Leaf) {
+            final Task[] leftTasks = ((Leaf) left).tasks;
+            final Task[] rightTasks = ((Leaf) right).tasks;
+            final Task[] tasks = Arrays.copyOf(leftTasks, leftTasks.length + rightTasks.length);
+            System.arraycopy(rightTasks, 0, tasks, leftTasks.length, rightTasks.length);
+            return new Leaf(tasks);
+        }
+        final Node[] leftChildren = ((Branch) left).children;
+        final Node[] rightChildren = ((Branch) right).children;
+        final Node[] children = Arrays.copyOf(leftChildren, leftChildren.length + rightChildren.length);
+        System.arraycopy(rightChildren, 0, children, leftChildren.length, rightChildren.length);
+        return new Branch(children);
+    }
+}
@@ -0,0 +1,128 @@
+package duke;
+
+import duke.exceptions.FormatException;
+import duke.exceptions.NoDescriptionException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Loads a storage file in the text format by splitting it into chunks of whole lines,
+ * and parsing the chunks in parallel on the fork-join pool.
+ * The tasks are added to the list in the same order as the lines in the file.
+ */
+public class TextLoader {
+    /** Smallest chunk worth handing to another thread. */
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * A line of the file that couldn't be turned into a task.
+     */
+    public static class Failure {
+        public final int lineNumber;
+        public final String line;
+
+        Failure(int lineNumber, String line) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+    }
+
+    /**
+     * The tasks parsed from one chunk, along with the lines that failed.
+     * Line numbers of the failures are counted from the start of the chunk until the chunks are merged.
+     */
+    private static class Chunk {
+        final ArrayList<Task> tasks = new ArrayList<>();
+        final ArrayList<Failure> failures = new ArrayList<>();
+        int lineCount = 0;
+    }
+
+    private static class ParseChunk extends RecursiveTask<Chunk> {
+        private final byte[] content;
+        private final int start;
+        private final int end;
+
+        ParseChunk(byte[] content, int start, int end) {
+            this.content = content;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Chunk compute() {
+            final Chunk chunk = new Chunk();
+            final String text = new String(content, start, end - start, StandardCharsets.UTF_8);
+            int lineStart = 0;
+            while (lineStart < text.length()) {
+                int lineEnd = text.indexOf('\n', lineStart);
+                if (lineEnd == -1) {
+                    lineEnd = text.length();
+                }
+                chunk.lineCount += 1;
+                final String line = text.substring(lineStart, lineEnd).trim();
+                if (!line.isEmpty()) {
+                    try {
+                        chunk.tasks.add(Storage.parseTask(line));
+                    } catch (NoDescriptionException | FormatException | ParseException
+                            | IndexOutOfBoundsException e) {
+                        chunk.failures.add(new Failure(chunk.lineCount, line));
+                    }
+                }
+                lineStart = lineEnd + 1;
+            }
+            return chunk;
+        }
+    }
+
+    /**
+     * Load every task in the file into the list.
+     *
+     * @param path The path of the storage file.
+     * @param tasks The list for storing tasks.
+     * @param isEchoed Whether the content of the file is printed while loading.
+     * @return The lines that couldn't be loaded, in the order they appear in the file.
+     * @throws IOException If error occurred when reading the file.
+     */
+    public static List<Failure> load(Path path, ArrayList<Task> tasks, boolean isEchoed) throws IOException {
+        final byte[] content = Files.readAllBytes(path);
+        if (isEchoed) {
+            Output.println("These are the task from your file: ");
+            Output.write(content, 0, content.length);
+            if (content.length > 0 && content[content.length - 1] != '\n') {
+                Output.println();
+            }
+        }
+        final List<ParseChunk> parses = new ArrayList<>();
+        final int chunkSize = Math.max(MIN_CHUNK_SIZE,
+                content.length / (Runtime.getRuntime().availableProcessors() * 4) + 1);
+        int start = 0;
+        while (start < content.length) {
+            int end = Math.min(start + chunkSize, content.length);
+            while (end < content.length && content[end - 1] != '\n') {
+                end += 1;
+            }
+            parses.add(new ParseChunk(content, start, end));
+            start = end;
+        }
+        final List<Failure> failures = new ArrayList<>();
+        int linesBefore = 0;
+        for (ParseChunk parse : ForkJoinTask.invokeAll(parses)) {
+            final Chunk chunk = parse.join();
+            tasks.ensureCapacity(tasks.size() + chunk.tasks.size());
+            tasks.addAll(chunk.tasks);
+            for (Failure failure : chunk.failures) {
+                failures.add(new Failure(linesBefore + failure.lineNumber, failure.line));
+            }
+            linesBefore += chunk.lineCount;
+        }
+        return failures;
+    }
+}
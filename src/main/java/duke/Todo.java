@@ -12,10 +12,18 @@ public class Todo extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[T]" + super.toString() ;
+    protected Task copy() {
+        return new Todo(description);
     }
-    public String toStorage() {
-        return "[T]" + super.toStorage();
+
+    @Override
+    protected void renderDisplay(StringBuilder out) {
+        out.append("[T]");
+        super.renderDisplay(out);
+    }
+
+    @Override
+    protected void renderStorage(StringBuilder out) {
+        renderDisplay(out);
     }
 }
@@ -0,0 +1,743 @@
+package duke;
+
+import duke.exceptions.FormatException;
+import duke.exceptions.NoDescriptionException;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Moves tasks in and out of Duke as CSV or JSON files, one record per task, without holding a whole file in memory.
+ *
+ * Exporting walks a snapshot of the list, rendering the records into one buffer that is written out whenever it fills.
+ * Importing reads the file through a fixed buffer and splits it into records on the calling thread,
+ * while batches of records are turned into tasks in parallel on the fork-join pool.
+ * Only a few batches are in flight at once, and they are added to the list in the order they were read,
+ * so an import takes the same memory besides its tasks however long the file is.
+ *
+ * A record has the fields type (todo, deadline or event), done (true or false), description,
+ * by for a deadline, and from and to for an event, with dates in the yyyy-mm-dd format.
+ * A CSV file may start with a header naming its columns in any order, among them type and description,
+ * and a JSON file is an array of objects or one object after another.
+ */
+public class Transfer {
+    /** Number of records turned into tasks by one thread at a time, and added to the list at once. */
+    private static final int BATCH_SIZE = 4096;
+    private static final int MAX_BATCHES_IN_FLIGHT = Runtime.getRuntime().availableProcessors() * 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** The most failed records kept to be shown. Only the number of the others is kept. */
+    static final int MAX_FAILURES_SHOWN = 5;
+    /** The fields of a record, in the order of the columns of an exported CSV file. */
+    private static final String[] FIELDS = {"type", "done", "description", "by", "from", "to"};
+    private static final int TYPE = 0;
+    private static final int DONE = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int BY = 3;
+    private static final int FROM = 4;
+    private static final int TO = 5;
+
+    private static volatile boolean areFilesAllowed = true;
+
+    /**
+     * The formats tasks are moved in.
+     */
+    public enum Format {
+        CSV, JSON;
+
+        /**
+         * @param name The format entered by the user, in any case.
+         * @return The format, or null if there is no format with the name.
+         */
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @param path The file to move tasks in or out of.
+         * @return JSON for a file ending in .json, otherwise CSV.
+         */
+        public static Format ofFile(Path path) {
+            return path.toString().toLowerCase(Locale.ROOT).endsWith(".json") ? JSON : CSV;
+        }
+    }
+
+    /**
+     * A record of the file that couldn't be turned into a task.
+     */
+    public static class Failure {
+        public final long recordNumber;
+        public final String reason;
+
+        Failure(long recordNumber, String reason) {
+            this.recordNumber = recordNumber;
+            this.reason = reason;
+        }
+    }
+
+    /**
+     * What an import or an export did, and how long it took.
+     */
+    public static class Result {
+        public int count = 0;
+        public long bytes = 0;
+        public long nanos = 0;
+        /** The first failed records, at most MAX_FAILURES_SHOWN of them. */
+        public final List<Failure> failures = new ArrayList<>();
+        public long failureCount = 0;
+        /** Why the import stopped before the end of the file, or null if it read the whole file. */
+        public String stoppedBecause = null;
+
+        private void fail(Failure failure) {
+            if (failures.size() < MAX_FAILURES_SHOWN) {
+                failures.add(failure);
+            }
+            failureCount += 1;
+        }
+    }
+
+    /**
+     * The file is not in the format it was read in, past the point where the records can be told apart.
+     */
+    private static class MalformedFileException extends IOException {
+        MalformedFileException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Splits a file into records.
+     */
+    private interface RecordReader {
+        /**
+         * @return The fields of the next record in the order of FIELDS, null where the record has none,
+         *         or null at the end of the file.
+         * @throws IOException If the file couldn't be read or is malformed.
+         */
+        String[] next() throws IOException;
+    }
+
+    /**
+     * Hands out the characters of a reader one at a time from a buffer of its own,
+     * without the locking of BufferedReader for every character.
+     */
+    private static class CharInput {
+        private final Reader reader;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int position = 0;
+        private int limit = 0;
+        private long offset = 0;
+
+        CharInput(Reader reader) {
+            this.reader = reader;
+        }
+
+        int peek() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            return buffer[position];
+        }
+
+        int read() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            offset += 1;
+            final char c = buffer[position];
+            position += 1;
+            return c;
+        }
+
+        private boolean fill() throws IOException {
+            position = 0;
+            limit = Math.max(reader.read(buffer, 0, buffer.length), 0);
+            return limit > 0;
+        }
+    }
+
+    /**
+     * Reads RFC 4180 CSV: fields separated by commas, quoted with " when they hold commas, quotes or line breaks,
+     * and records ending at a line break. A field with a stray quote is taken as it is rather than failing the file.
+     */
+    private static class CsvReader implements RecordReader {
+        private final CharInput input;
+        private final StringBuilder field = new StringBuilder();
+        private final List<String> row = new ArrayList<>();
+        /** The field each column of the file holds, -1 for columns that are not fields of a record. */
+        private int[] columns = {TYPE, DONE, DESCRIPTION, BY, FROM, TO};
+        private boolean isFirstRow = true;
+
+        CsvReader(CharInput input) {
+            this.input = input;
+        }
+
+        @Override
+        public String[] next() throws IOException {
+            if (!readRow()) {
+                return null;
+            }
+            if (isFirstRow) {
+                isFirstRow = false;
+                final int[] named = new int[row.size()];
+                boolean hasType = false;
+                boolean hasDescription = false;
+                for (int i = 0; i < row.size(); i += 1) {
+                    named[i] = fieldIndex(row.get(i).trim());
+                    hasType |= named[i] == TYPE;
+                    hasDescription |= named[i] == DESCRIPTION;
+                }
+                // A record holds a todo, deadline or event in its type column, so it can't name both columns
+                if (hasType && hasDescription) {
+                    columns = named;
+                    return next();
+                }
+            }
+            final String[] fields = new String[FIELDS.length];
+            for (int i = 0; i < row.size() && i < columns.length; i += 1) {
+                if (columns[i] != -1) {
+                    fields[columns[i]] = row.get(i);
+                }
+            }
+            return fields;
+        }
+
+        /**
+         * Read the next row that isn't blank.
+         *
+         * @return False at the end of the file.
+         */
+        private boolean readRow() throws IOException {
+            row.clear();
+            int c = input.read();
+            while (c == '\n' || c == '\r') {
+                c = input.read();
+            }
+            if (c == -1) {
+                return false;
+            }
+            while (true) {
+                field.setLength(0);
+                if (c == '"') {
+                    c = input.read();
+                    while (c != -1) {
+                        if (c == '"') {
+                            c = input.read();
+                            if (c != '"') {
+                                break;
+                            }
+                        }
+                        field.append((char) c);
+                        c = input.read();
+                    }
+                }
+                while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                    field.append((char) c);
+                    c = input.read();
+                }
+                row.add(field.toString());
+                if (c != ',') {
+                    return true;
+                }
+                c = input.read();
+            }
+        }
+    }
+
+    /**
+     * Reads a JSON array of flat objects, or flat objects one after another as in JSON Lines.
+     * Values are strings, true, false, null or numbers. Keys that are not fields of a record are skipped.
+     */
+    private static class JsonReader implements RecordReader {
+        private final CharInput input;
+        private final StringBuilder text = new StringBuilder();
+        private boolean isStarted = false;
+        private boolean isArray = false;
+        private boolean isEnded = false;
+
+        JsonReader(CharInput input) {
+            this.input = input;
+        }
+
+        @Override
+        public String[] next() throws IOException {
+            if (isEnded) {
+                return null;
+            }
+            int c = skipWhitespace();
+            if (!isStarted) {
+                isStarted = true;
+                isArray = c == '[';
+                if (isArray) {
+                    input.read();
+                    c = skipWhitespace();
+                    if (c == ']') {
+                        return end();
+                    }
+                }
+            } else if (isArray) {
+                if (c == ']') {
+                    return end();
+                }
+                expect(',');
+                c = skipWhitespace();
+            }
+            if (c == -1 && !isArray) {
+                isEnded = true;
+                return null;
+            }
+            expect('{');
+            final String[] fields = new String[FIELDS.length];
+            if (skipWhitespace() == '}') {
+                input.read();
+                return fields;
+            }
+            while (true) {
+                skipWhitespace();
+                final String key = readString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                final String value = readValue();
+                final int field = fieldIndex(key);
+                if (field != -1) {
+                    fields[field] = value;
+                }
+                if (skipWhitespace() == '}') {
+                    input.read();
+                    return fields;
+                }
+                expect(',');
+            }
+        }
+
+        private String[] end() throws IOException {
+            input.read();
+            isEnded = true;
+            if (skipWhitespace() != -1) {
+                throw malformed("there is more after the end of the array");
+            }
+            return null;
+        }
+
+        private String readValue() throws IOException {
+            final int c = input.peek();
+            if (c == '"') {
+                return readString();
+            }
+            if (c == 't' || c == 'f' || c == 'n') {
+                final String word = c == 't' ? "true" : c == 'f' ? "false" : "null";
+                for (int i = 0; i < word.length(); i += 1) {
+                    expect(word.charAt(i));
+                }
+                return c == 'n' ? null : word;
+            }
+            if (c == '-' || (c >= '0' && c <= '9')) {
+                text.setLength(0);
+                while (isNumberChar(input.peek())) {
+                    text.append((char) input.read());
+                }
+                return text.toString();
+            }
+            throw malformed(c == '{' || c == '[' ? "a record can't hold objects or arrays" : "expected a value");
+        }
+
+        private static boolean isNumberChar(int c) {
+            return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+        }
+
+        private String readString() throws IOException {
+            expect('"');
+            text.setLength(0);
+            int c = input.read();
+            while (c != '"') {
+                if (c == -1) {
+                    throw malformed("a string isn't closed");
+                }
+                if (c == '\\') {
+                    c = input.read();
+                    switch (c) {
+                    case 'b':
+                        c = '\b';
+                        break;
+                    case 'f':
+                        c = '\f';
+                        break;
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'u':
+                        c = readHexChar();
+                        break;
+                    case '"':
+                    case '\\':
+                    case '/':
+                        break;
+                    default:
+                        throw malformed("a string has an unknown escape");
+                    }
+                }
+                text.append((char) c);
+                c = input.read();
+            }
+            return text.toString();
+        }
+
+        private int readHexChar() throws IOException {
+            int value = 0;
+            for (int i = 0; i < 4; i += 1) {
+                final int digit = Character.digit(input.read(), 16);
+                if (digit == -1) {
+                    throw malformed("a string has an unknown escape");
+                }
+                value = value * 16 + digit;
+            }
+            return value;
+        }
+
+        private int skipWhitespace() throws IOException {
+            int c = input.peek();
+            while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                input.read();
+                c = input.peek();
+            }
+            return c;
+        }
+
+        private void expect(char expected) throws IOException {
+            if (input.read() != expected) {
+                throw malformed("expected " + expected);
+            }
+        }
+
+        private MalformedFileException malformed(String problem) {
+            return new MalformedFileException("The file isn't valid JSON near character " + input.offset
+                    + ": " + problem + ".");
+        }
+    }
+
+    /**
+     * The tasks made from a batch of records, along with the records that failed.
+     */
+    private static class Batch {
+        final ArrayList<Task> tasks = new ArrayList<>(BATCH_SIZE);
+        final ArrayList<Failure> failures = new ArrayList<>();
+    }
+
+    private static class ConvertBatch extends RecursiveTask<Batch> {
+        private final String[][] records;
+        private final int size;
+        private final long firstRecordNumber;
+
+        ConvertBatch(String[][] records, int size, long firstRecordNumber) {
+            this.records = records;
+            this.size = size;
+            this.firstRecordNumber = firstRecordNumber;
+        }
+
+        @Override
+        protected Batch compute() {
+            final Batch batch = new Batch();
+            for (int i = 0; i < size; i += 1) {
+                try {
+                    batch.tasks.add(toTask(records[i]));
+                } catch (NoDescriptionException e) {
+                    batch.failures.add(new Failure(firstRecordNumber + i, "the description or a date is missing"));
+                } catch (ParseException e) {
+                    batch.failures.add(new Failure(firstRecordNumber + i, "the date " + e.getMessage()
+                            + " couldn't be read"));
+                } catch (FormatException e) {
+                    batch.failures.add(new Failure(firstRecordNumber + i, "it isn't a todo, deadline or event "
+                            + "as Duke keeps them"));
+                }
+            }
+            return batch;
+        }
+    }
+
+    /**
+     * Stop files from being imported or exported, as when clients of the server run the commands,
+     * which would otherwise read and write files on the computer serving them.
+     *
+     * @param allowed Whether import and export may use files.
+     */
+    public static void setFilesAllowed(boolean allowed) {
+        areFilesAllowed = allowed;
+    }
+
+    public static boolean areFilesAllowed() {
+        return areFilesAllowed;
+    }
+
+    private static int fieldIndex(String name) {
+        for (int i = 0; i < FIELDS.length; i += 1) {
+            if (FIELDS[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Turn the fields of a record into a task.
+     *
+     * @param fields The fields in the order of FIELDS.
+     * @return The task.
+     * @throws NoDescriptionException If the description or a date the type needs is missing.
+     * @throws FormatException If the type or done is not valid, the description has a line break,
+     *         or an event ends before it starts.
+     * @throws ParseException If a date couldn't be parsed.
+     */
+    static Task toTask(String[] fields) throws NoDescriptionException, FormatException, ParseException {
+        final String type = fields[TYPE] == null ? "" : fields[TYPE].trim().toLowerCase(Locale.ROOT);
+        final String description = fields[DESCRIPTION] == null ? "" : fields[DESCRIPTION].trim();
+        if (description.isEmpty()) {
+            throw new NoDescriptionException();
+        }
+        if (description.indexOf('\n') != -1 || description.indexOf('\r') != -1) {
+            throw new FormatException();
+        }
+        final Task task;
+        switch (type) {
+        case "todo":
+        case "t":
+            task = new Todo(description);
+            break;
+        case "deadline":
+        case "d":
+            task = new Deadline(description, parseDate(fields[BY]));
+            break;
+        case "event":
+        case "e":
+            final LocalDate from = parseDate(fields[FROM]);
+            final LocalDate to = parseDate(fields[TO]);
+            if (to.isBefore(from)) {
+                throw new FormatException();
+            }
+            task = new Event(description, from, to);
+            break;
+        default:
+            throw new FormatException();
+        }
+        final String done = fields[DONE] == null ? "" : fields[DONE].trim().toLowerCase(Locale.ROOT);
+        if (done.equals("true")) {
+            task.markAsDone();
+        } else if (!done.isEmpty() && !done.equals("false")) {
+            throw new FormatException();
+        }
+        return task;
+    }
+
+    private static LocalDate parseDate(String date) throws NoDescriptionException, ParseException {
+        if (date == null || date.trim().isEmpty()) {
+            throw new NoDescriptionException();
+        }
+        return Parser.parseDate(date);
+    }
+
+    /**
+     * Add every task in the file to the end of the list, as one change that can be undone.
+     * Records that can't be turned into tasks are skipped, and a malformed file is imported up to where it goes wrong.
+     *
+     * @param tasks The list to add the tasks to.
+     * @param path The file to import.
+     * @param format The format of the file.
+     * @return What was imported.
+     * @throws IOException If the file couldn't be read.
+     */
+    public static Result importFile(TaskList tasks, Path path, Format format) throws IOException {
+        final long start = System.nanoTime();
+        final Result result = new Result();
+        result.bytes = Files.size(path);
+        final ArrayDeque<ConvertBatch> inFlight = new ArrayDeque<>();
+        try (Reader reader = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)) {
+            final CharInput input = new CharInput(reader);
+            final RecordReader records = format == Format.JSON ? new JsonReader(input) : new CsvReader(input);
+            String[][] batch = new String[BATCH_SIZE][];
+            int size = 0;
+            long recordNumber = 1;
+            try {
+                String[] record = records.next();
+                while (record != null) {
+                    batch[size] = record;
+                    size += 1;
+                    if (size == BATCH_SIZE) {
+                        if (inFlight.size() == MAX_BATCHES_IN_FLIGHT) {
+                            addBatch(tasks, inFlight.pollFirst().join(), result);
+                        }
+                        final ConvertBatch convert = new ConvertBatch(batch, size, recordNumber);
+                        convert.fork();
+                        inFlight.addLast(convert);
+                        recordNumber += size;
+                        batch = new String[BATCH_SIZE][];
+                        size = 0;
+                    }
+                    record = records.next();
+                }
+            } catch (MalformedFileException e) {
+                result.stoppedBecause = e.getMessage();
+            } finally {
+                while (!inFlight.isEmpty()) {
+                    addBatch(tasks, inFlight.pollFirst().join(), result);
+                }
+            }
+            addBatch(tasks, new ConvertBatch(batch, size, recordNumber).compute(), result);
+        }
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private static void addBatch(TaskList tasks, Batch batch, Result result) {
+        if (!batch.tasks.isEmpty()) {
+            tasks.addImported(batch.tasks, result.count > 0);
+            result.count += batch.tasks.size();
+        }
+        for (Failure failure : batch.failures) {
+            result.fail(failure);
+        }
+    }
+
+    /**
+     * Write every task in the snapshot to the file, replacing what was in it.
+     *
+     * @param tasks The tasks to export.
+     * @param path The file to write.
+     * @param format The format to write the file in.
+     * @return What was exported.
+     * @throws IOException If the file couldn't be written.
+     */
+    public static Result exportFile(TaskSnapshot tasks, Path path, Format format) throws IOException {
+        final long start = System.nanoTime();
+        final Result result = new Result();
+        try (FileOutputStream output = new FileOutputStream(path.toFile());
+                Writer outputWriter = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
+            final StringBuilder records = new StringBuilder(BUFFER_SIZE + 256);
+            if (format == Format.JSON) {
+                records.append('[');
+            } else {
+                records.append(String.join(",", FIELDS)).append('\n');
+            }
+            for (Task task : tasks) {
+                if (format == Format.JSON) {
+                    records.append(result.count == 0 ? "\n" : ",\n");
+                    appendJson(records, task);
+                } else {
+                    appendCsv(records, task);
+                    records.append('\n');
+                }
+                result.count += 1;
+                if (records.length() >= BUFFER_SIZE) {
+                    outputWriter.append(records);
+                    records.setLength(0);
+                }
+            }
+            if (format == Format.JSON) {
+                records.append("\n]\n");
+            }
+            outputWriter.append(records);
+        }
+        result.bytes = Files.size(path);
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private static String typeOf(Task task) {
+        return task instanceof Deadline ? "deadline" : task instanceof Event ? "event" : "todo";
+    }
+
+    private static void appendCsv(StringBuilder out, Task task) {
+        out.append(typeOf(task)).append(',').append(task.isDone).append(',');
+        final String description = task.description;
+        boolean isQuoted = !description.isEmpty()
+                && (description.charAt(0) == ' ' || description.charAt(description.length() - 1) == ' ');
+        for (int i = 0; i < description.length() && !isQuoted; i += 1) {
+            final char c = description.charAt(i);
+            isQuoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (isQuoted) {
+            out.append('"');
+            for (int i = 0; i < description.length(); i += 1) {
+                final char c = description.charAt(i);
+                if (c == '"') {
+                    out.append('"');
+                }
+                out.append(c);
+            }
+            out.append('"');
+        } else {
+            out.append(description);
+        }
+        if (task instanceof Deadline) {
+            out.append(',').append(((Deadline) task).by).append(",,");
+        } else if (task instanceof Event) {
+            out.append(",,").append(((Event) task).from).append(',').append(((Event) task).to);
+        } else {
+            out.append(",,,");
+        }
+    }
+
+    private static void appendJson(StringBuilder out, Task task) {
+        out.append("{\"type\":\"").append(typeOf(task)).append("\",\"done\":").append(task.isDone)
+                .append(",\"description\":\"");
+        final String description = task.description;
+        for (int i = 0; i < description.length(); i += 1) {
+            final char c = description.charAt(i);
+            switch (c) {
+            case '"':
+                out.append("\\\"");
+                break;
+            case '\\':
+                out.append("\\\\");
+                break;
+            case '\n':
+                out.append("\\n");
+                break;
+            case '\r':
+                out.append("\\r");
+                break;
+            case '\t':
+                out.append("\\t");
+                break;
+            default:
+                if (c < ' ') {
+                    out.append(String.format("\\u%04x", (int) c));
+                } else {
+                    out.append(c);
+                }
+                break;
+            }
+        }
+        out.append('"');
+        if (task instanceof Deadline) {
+            out.append(",\"by\":\"").append(((Deadline) task).by).append('"');
+        } else if (task instanceof Event) {
+            out.append(",\"from\":\"").append(((Event) task).from).append("\",\"to\":\"")
+                    .append(((Event) task).to).append('"');
+        }
+        out.append('}');
+    }
+}
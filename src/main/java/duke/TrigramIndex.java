@@ -0,0 +1,126 @@
+package duke;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * An index from every three character sequence in task descriptions to the ids of the tasks containing it.
+ * A task can only contain a keyword if it contains every trigram of the keyword,
+ * so intersecting those posting lists narrows find down to a few candidates that are then checked exactly.
+ * One thread may update it while others search it, since posting lists are replaced instead of changed.
+ */
+public class TrigramIndex {
+    /** Keywords shorter than this have no trigrams, and have to be found by going through the list. */
+    public static final int MIN_KEYWORD_LENGTH = 3;
+
+    private final ConcurrentHashMap<Long, PostingList> postings = new ConcurrentHashMap<>();
+
+    /**
+     * Add the trigrams of the task's description to the index.
+     *
+     * @param task The task that was added to the list.
+     */
+    public void add(Task task) {
+        for (long trigram : trigrams(task.description)) {
+            final PostingList ids = postings.get(trigram);
+            postings.put(trigram, ids == null ? PostingList.of(task.id) : ids.with(task.id));
+        }
+    }
+
+    /**
+     * Remove the trigrams of the task's description from the index.
+     *
+     * @param task The task that was removed from the list.
+     */
+    public void remove(Task task) {
+        for (long trigram : trigrams(task.description)) {
+            final PostingList ids = postings.get(trigram);
+            if (ids != null) {
+                final PostingList remaining = ids.without(task.id);
+                if (remaining.size() == 0) {
+                    postings.remove(trigram);
+                } else {
+                    postings.put(trigram, remaining);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove many tasks at once, going through each posting list only once however many of the tasks it holds.
+     *
+     * @param tasks The tasks that were removed from the list.
+     */
+    public void removeAll(List<Task> tasks) {
+        final Map<Long, IntStream.Builder> removed = new HashMap<>();
+        for (Task task : tasks) {
+            for (long trigram : trigrams(task.description)) {
+                removed.computeIfAbsent(trigram, key -> IntStream.builder()).add(task.id);
+            }
+        }
+        for (Map.Entry<Long, IntStream.Builder> entry : removed.entrySet()) {
+            final PostingList ids = postings.get(entry.getKey());
+            if (ids != null) {
+                final PostingList remaining = PostingList.difference(ids,
+                        PostingList.of(entry.getValue().build().toArray()));
+                if (remaining.size() == 0) {
+                    postings.remove(entry.getKey());
+                } else {
+                    postings.put(entry.getKey(), remaining);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the tasks that might contain the keyword.
+     * Every task containing the keyword is returned, but not every task returned contains it.
+     *
+     * @param keyword A keyword of at least three characters.
+     * @return The ids of the candidate tasks, in ascending order.
+     */
+    public PostingList candidates(String keyword) {
+        final long[] keywordTrigrams = trigrams(keyword);
+        final PostingList[] lists = new PostingList[keywordTrigrams.length];
+        for (int i = 0; i < keywordTrigrams.length; i += 1) {
+            lists[i] = postings.get(keywordTrigrams[i]);
+            if (lists[i] == null) {
+                return PostingList.EMPTY;
+            }
+        }
+        // Start from the rarest trigram so every intersection is as small as possible
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size(), b.size()));
+        PostingList result = lists[0];
+        for (int i = 1; i < lists.length && result.size() > 0; i += 1) {
+            result = PostingList.intersect(result, lists[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Pack every distinct trigram of the text into a long, with its three 16 bit characters 21 bits apart.
+     * Long.hashCode folds the upper half onto the lower half, so characters packed next to each other
+     * would cancel out in the hash, and ASCII trigrams would pile up in a few buckets of the map.
+     */
+    private static long[] trigrams(String text) {
+        if (text.length() < MIN_KEYWORD_LENGTH) {
+            return new long[0];
+        }
+        final long[] trigrams = new long[text.length() - 2];
+        for (int i = 0; i < trigrams.length; i += 1) {
+            trigrams[i] = ((long) text.charAt(i) << 42) | ((long) text.charAt(i + 1) << 21) | text.charAt(i + 2);
+        }
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i += 1) {
+            if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+}
@@ -1,52 +1,209 @@
 package duke;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.Iterator;
+import java.util.List;
 
 /**
  * A class containing different methods which interact with the user.
  * The methods show different kind of message for different situations.
  */
 public class Ui {
+    /** Every command is read through this reader, so input buffered ahead of a command is never lost. */
+    private static final BufferedReader input = new BufferedReader(new InputStreamReader(System.in));
+
     /**
      * Show a brief user guide to the users.
      */
     public static void showHelpMessage() {
         printLine();
-        System.out.println("First time using Duke?\n" +
+        Output.println("First time using Duke?\n" +
                 "No worries! Here is a simple guide for you to get familiar with Duke :)");
-        System.out.println("Format: \n" + ">> [todo] <something>, and the system will add a new todo to your list");
-        System.out.println("Example: \n" + ">> todo read book\n" + ">> Got it. I've added this task: read book");
-        System.out.println("Format: \n" + ">> [event] <something> [from:] <when> [to:] <when>" +
+        Output.println("Format: \n" + ">> [todo] <something>, and the system will add a new todo to your list");
+        Output.println("Example: \n" + ">> todo read book\n" + ">> Got it. I've added this task: read book");
+        Output.println("Format: \n" + ">> [event] <something> [from:] <when> [to:] <when>" +
                 ", and the system will add a new event to your list");
-        System.out.println("Please enter the <when> in yyyy-mm-dd format :)");
-        System.out.println("Example: \n" + ">> event read book from: 2022-02-02 to: 2022-02-03\n"
+        Output.println("Please enter the <when> in yyyy-mm-dd format :)");
+        Output.println("Example: \n" + ">> event read book from: 2022-02-02 to: 2022-02-03\n"
                 + ">> Got it. I've added this task: read book (from: 2022-02-02, to: 2022-02-03)");
-        System.out.println("Format: \n" + ">> [deadline] <something> [by:] <when>" +
+        Output.println("Format: \n" + ">> [deadline] <something> [by:] <when>" +
                 ", and the system will add a new deadline to your list");
-        System.out.println("Please enter the <when> in yyyy-mm-dd format :)");
-        System.out.println("Example: \n" + ">> deadline read book by: 2022-02-02\n"
+        Output.println("Please enter the <when> in yyyy-mm-dd format :)");
+        Output.println("Example: \n" + ">> deadline read book by: 2022-02-02\n"
                 + ">> Got it. I've added this task: read book (by: 2022-02-02)");
-        System.out.println("Format: \n" + ">> [find] <keyword>" +
+        Output.println("Format: \n" + ">> [list] [page] [size]" +
+                ", and the system will list a page of your tasks, or every task with list all");
+        Output.println("Example: \n" + ">> list 2\n"
+                + ">> Showing tasks 21-40 of 157.\n" + ">> Enter 'list from @19' to see the next tasks.");
+        Output.println("Format: \n" + ">> [list] <filters> [sort:<field>] [limit:<n>]" +
+                ", and the system will list the tasks matching every filter: type:T,D,E, done:yes or no, "
+                + "has:<keyword>, and by, from or to with :, <, <=, > or >= and a date");
+        Output.println("Example: \n" + ">> list type:D done:no by<2023-04-01 sort:by limit:5\n"
+                + ">> Below are the tasks that match type:D done:no by<2023-04-01 sort:by limit:5 ...");
+        Output.println("Format: \n" + ">> [find] <keyword>" +
                 ", and the system will list all items containing keyword in your list");
-        System.out.println("Example: \n" + ">> find book\n"
+        Output.println("Example: \n" + ">> find book\n"
                 + ">>  Below are the tasks containing book ...");
-        System.out.println("Format: \n" + ">> [mark] <index>" +
+        Output.println("Format: \n" + ">> [search] <query>" +
+                ", and the system will list the tasks whose words match the query, "
+                + "combined with AND, OR, NOT and brackets, where a word ending with * matches its prefix");
+        Output.println("Example: \n" + ">> search book AND NOT lib*\n"
+                + ">>  Below are the tasks that match book AND NOT lib* ...");
+        Output.println("Format: \n" + ">> [due] <when>" +
+                ", and the system will list the deadlines due on or before that day");
+        Output.println("Format: \n" + ">> [on] <when>" +
+                ", and the system will list the deadlines and events on that day");
+        Output.println("Format: \n" + ">> [between] <when> <when>" +
+                ", and the system will list the deadlines and events between the two days");
+        Output.println("Example: \n" + ">> between 2022-02-01 2022-02-07\n"
+                + ">> Below are the tasks between 2022-02-01 and 2022-02-07 ...");
+        Output.println("Format: \n" + ">> [mark] <index>" +
                 ", and the system will mark the item with the index in list");
-        System.out.println("Example: \n" + ">> mark 1 \n"
+        Output.println("Example: \n" + ">> mark 1 \n"
                 + ">> I've marked this task as done ੯•໒꒱❤︎:");
-        System.out.println("Format: \n" + ">> [unmark] <index>" +
+        Output.println("Format: \n" + ">> [unmark] <index>" +
                 ", and the system will unmark the item with the index in list");
-        System.out.println("Example: \n" + ">> unmark 1 \n"
+        Output.println("Example: \n" + ">> unmark 1 \n"
                 + ">> I've unmarked this task ∪･ω･∪:");
-        System.out.println("Format: \n" + ">> [delete] <index>" +
+        Output.println("Format: \n" + ">> [delete] <index>" +
                 ", and the system will delete the item with the index in list");
-        System.out.println("Example: \n" + ">> delete 1 \n"
+        Output.println("Example: \n" + ">> delete 1 \n"
                 + ">> I've deleted this task ∪･ω･∪:");
-        System.out.println("Format: \n" + ">> [bye]" +
+        Output.println("Mark, unmark and delete also take many tasks at once, such as 1-500,702 or all, "
+                + "and delete done removes every task that is done");
+        Output.println("Example: \n" + ">> delete 1-3,7 \n"
+                + ">> I've deleted 4 tasks ∪･ω･∪, now you have 12 tasks in your list.");
+        Output.println("Format: \n" + ">> [use] <name>" +
+                ", and the system will switch to the list with the name, creating it if it is new");
+        Output.println("Example: \n" + ">> use work \n"
+                + ">> Now using the list work, which has 3 tasks.");
+        Output.println("Format: \n" + ">> [lists]" +
+                ", and the system will show the names of all your lists");
+        Output.println("Format: \n" + ">> [undo] or [redo]" +
+                ", and the system will undo your last change to the list, or redo the change you undid");
+        Output.println("Example: \n" + ">> undo \n"
+                + ">> I've undone deleting [T][ ] read book ∪･ω･∪");
+        Output.println("Format: \n" + ">> [import] <file> [csv|json] or [export] <file> [csv|json]" +
+                ", and the system will add the tasks in the file to your list, or write your list to the file");
+        Output.println("Example: \n" + ">> export tasks.csv \n"
+                + ">> I've exported 57 tasks to tasks.csv in 3 ms ...");
+        Output.println("Deadlines due soon, overdue deadlines and events starting soon are reminded of "
+                + "after the command you enter");
+        Output.println("Format: \n" + ">> [stats]" +
+                ", and the system will show how often each command ran and how long it took");
+        Output.println("Format: \n" + ">> [bye]" +
                 ", and then Duke will say goodbye to you and close the program.");
-        System.out.println("Example: \n" + ">> bye \n" + ">> Bye. Hope to see you again soon!ﾉ~");
-        System.out.println("Hope it helps!! woof a nice day ੯•໒꒱❤︎");
+        Output.println("Example: \n" + ">> bye \n" + ">> Bye. Hope to see you again soon!ﾉ~");
+        Output.println("Hope it helps!! woof a nice day ੯•໒꒱❤︎");
+        printLine();
+    }
+
+    /**
+     * Show the list that the commands now work on.
+     *
+     * @param name The name of the list.
+     * @param size The number of tasks in the list.
+     */
+    public static void showListInUse(String name, int size) {
+        Output.println("Now using the list " + name + ", which has " + size + " tasks.");
+        printLine();
+    }
+
+    /**
+     * Show the names of the lists, along with the number of tasks in those that are loaded.
+     *
+     * @param names The names of the lists.
+     * @param currentName The name of the list in use, which is marked.
+     */
+    public static void printTaskLists(List<String> names, String currentName) {
+        Output.println("Here are your lists:");
+        for (String name : names) {
+            final int size = TaskLists.sizeIfLoaded(name);
+            Output.println((name.equals(currentName) ? "* " : "  ") + name
+                    + (size == -1 ? " (not loaded)" : " (" + size + " tasks)"));
+        }
+        printLine();
+    }
+
+    /**
+     * Show what undo or redo changed back.
+     *
+     * @param done How the change was handled, such as undone.
+     * @param action The command, such as undo.
+     * @param change What the change did, or null if there was nothing to change back.
+     * @param size The number of tasks in the list afterwards.
+     */
+    public static void showHistoryChange(String done, String action, String change, int size) {
+        if (change == null) {
+            Output.println("WOOFS!!! There is nothing to " + action + ".");
+        } else {
+            Output.println("I've " + done + " " + change.trim() + " ∪･ω･∪");
+            Output.println("Now you have " + size + " tasks in your list.");
+        }
+        printLine();
+    }
+
+    /**
+     * Show how many tasks were imported and how fast, along with the records that couldn't be imported.
+     *
+     * @param file The file entered by the user.
+     * @param result What was imported.
+     * @param size The number of tasks in the list after the import.
+     */
+    public static void showImport(String file, Transfer.Result result, int size) {
+        Output.println("I've imported " + result.count + " tasks from " + file + showThroughput(result) + " ∪･ω･∪");
+        for (Transfer.Failure failure : result.failures) {
+            Output.println("WOOFS!!! Record " + failure.recordNumber + " couldn't be imported: " + failure.reason + ".");
+        }
+        if (result.failureCount > result.failures.size()) {
+            Output.println("...and " + (result.failureCount - result.failures.size())
+                    + " more records couldn't be imported.");
+        }
+        if (result.stoppedBecause != null) {
+            Output.println("WOOFS!!! " + result.stoppedBecause + " The rest of the file couldn't be imported.");
+        }
+        Output.println("Now you have " + size + " tasks in your list.");
+        printLine();
+    }
+
+    /**
+     * Show how many tasks were exported and how fast.
+     *
+     * @param file The file entered by the user.
+     * @param result What was exported.
+     */
+    public static void showExport(String file, Transfer.Result result) {
+        Output.println("I've exported " + result.count + " tasks to " + file + showThroughput(result) + " ∪･ω･∪");
+        printLine();
+    }
+
+    private static String showThroughput(Transfer.Result result) {
+        final double seconds = Math.max(result.nanos, 1) / 1e9;
+        return String.format(" in %d ms (%.0f tasks/s, %.1f MB/s)",
+                result.nanos / 1000000, result.count / seconds, result.bytes / 1e6 / seconds);
+    }
+
+    /**
+     * Show the reminders that came up for the list since they were last shown, if there are any.
+     *
+     * @param reminders The reminders of the list in use.
+     */
+    public static void showReminders(Reminders reminders) {
+        final List<Reminders.Reminder> shown = new ArrayList<>(Reminders.MAX_SHOWN);
+        final int hidden = reminders.drain(shown);
+        if (shown.isEmpty()) {
+            return;
+        }
+        for (Reminders.Reminder reminder : shown) {
+            Output.println(reminder.kind.getMessage() + reminder.task);
+        }
+        if (hidden > 0) {
+            Output.println("...and " + hidden + " more reminders. Enter 'due " + Reminders.getHorizon()
+                    + "' to see the deadlines due by then.");
+        }
         printLine();
     }
 
@@ -54,7 +211,7 @@ public class Ui {
      * Print a separation line
      */
     public static void printLine() {
-        System.out.println("____________________________________________________________");
+        Output.printDecoration("____________________________________________________________");
     }
 
     /**
@@ -66,9 +223,9 @@ public class Ui {
                 + "| | | | | | | |/ / _ \\\n"
                 + "| |_| | |_| |   <  __/\n"
                 + "|____/ \\__,_|_|\\_\\___|\n";
-        System.out.println("Hello from\n" + logo);
+        Output.printDecoration("Hello from\n" + logo);
         printLine();
-        System.out.println("Hello! I'm Duke  U ´ᴥ` U\n" + "What can I do for you?");
+        Output.println("Hello! I'm Duke  U ´ᴥ` U\n" + "What can I do for you?");
         printLine();
     }
 
@@ -76,7 +233,20 @@ public class Ui {
      * Show error message when no previous file found
      */
     public static void showInitErrorMessage() {
-        System.out.println("No previous file found, Duke will try to create a file to store your data.");
+        Output.println("No previous file found, Duke will try to create a file to store your data.");
+    }
+
+    /**
+     * Show that the storage file couldn't be read, so it is left as it is and nothing will be saved to it.
+     *
+     * @param filepath The path of the storage file.
+     * @param reason Why the file couldn't be read.
+     */
+    public static void showReadOnlyMessage(String filepath, String reason) {
+        Output.println("WOOFS!!! Your file " + filepath + " couldn't be read: " + reason);
+        Output.println("It is left as it is, so the changes you make now won't be saved.");
+        Output.println("Please try to restore the file and start Duke again υ´• ﻌ •`υ");
+        printLine();
     }
 
     /**
@@ -84,34 +254,38 @@ public class Ui {
      */
     public static void showGoodByeMessage() {
         printLine();
-        System.out.println("Bye. Hope to see you again soon!ﾉ~");
+        Output.println("Bye. Hope to see you again soon!ﾉ~");
         printLine();
     }
 
     /**
-     * Scan in the user input and return it
+     * Read in the user input and return it.
+     * Blank lines and lines starting with # are skipped.
      *
-     * @return the user input string
+     * @return the user input string, or null if there is no more input
      */
     public static String getUserCommand() {
-        Scanner scan = new Scanner(System.in);
-        String s;
-        s = scan.nextLine();
-        while (s.trim().isEmpty() || s.trim().charAt(0) == '#') {
-            s = scan.nextLine();
+        try {
+            String s = input.readLine();
+            while (s != null && (s.trim().isEmpty() || s.trim().charAt(0) == '#')) {
+                s = input.readLine();
+            }
+            return s;
+        } catch (IOException e) {
+            Output.println("Something went wrong: " + e.getMessage());
+            return null;
         }
-        return s;
     }
 
     /**
      * Show successfully add task message to the user.
      *
-     * @param tasks The list of user's tasks
+     * @param tasks The list of user's tasks, with the added task at the end
      */
-    public static void showAddTaskMessage(ArrayList<Task> tasks) {
+    public static void showAddTaskMessage(List<Task> tasks) {
         printLine();
-        System.out.println("Got it. I've added this task: \n" + tasks.get(tasks.size()-1));
-        System.out.println("Now you have " + tasks.size() + " tasks in your list. ^ ^");
+        Output.println("Got it. I've added this task: \n" + tasks.get(tasks.size()-1));
+        Output.println("Now you have " + tasks.size() + " tasks in your list. ^ ^");
         printLine();
     }
 
@@ -120,12 +294,76 @@ public class Ui {
      *
      * @param tasks The list containing user's tasks.
      */
-    public static void printListOfTasks(ArrayList<Task> tasks) {
-        for (int i = 0; i < tasks.size(); i += 1) {
-            System.out.print(i + 1);
-            System.out.print(". ");
-            System.out.println(tasks.get(i));
+    public static void printListOfTasks(List<Task> tasks) {
+        int index = 1;
+        for (Task task : tasks) {
+            Output.printTask(index, task);
+            index += 1;
+        }
+        printLine();
+    }
+
+    /**
+     * Print a window of the tasks, and tell the user how to see the tasks after it.
+     * Only the tasks in the window are visited, so a page costs the same however long the list is.
+     *
+     * @param tasks The list containing user's tasks.
+     * @param from The 0-based index of the first task to print.
+     * @param count The most tasks to print.
+     */
+    public static void printTaskWindow(TaskSnapshot tasks, int from, int count) {
+        if (from >= tasks.size() && from > 0) {
+            Output.println("There are no more tasks to show, your list has " + tasks.size() + " tasks.");
+            printLine();
+            return;
+        }
+        final Iterator<Task> window = tasks.iterator(from);
+        int index = from;
+        while (window.hasNext() && index - from < count) {
+            index += 1;
+            Output.printTask(index, window.next());
+        }
+        if (from > 0 || window.hasNext()) {
+            Output.println("Showing tasks " + (from + 1) + "-" + index + " of " + tasks.size() + ".");
+        }
+        if (window.hasNext()) {
+            Output.println("Enter 'list from " + Parser.formatCursor(window.next().id) + "' to see the next tasks.");
+        }
+        printLine();
+    }
+
+    /**
+     * Print the tasks a query found along with their index in the list, and say whether more tasks match.
+     *
+     * @param result The tasks found.
+     */
+    public static void printQueryResult(ListQuery.Result result) {
+        for (ListQuery.Match match : result.matches) {
+            Output.printTask(match.index + 1, match.task);
+        }
+        if (result.hasMore && result.total != -1) {
+            Output.println("Showing the first " + result.matches.size() + " of " + result.total + " matching tasks.");
+        } else if (result.hasMore) {
+            Output.println("Showing the first " + result.matches.size() + " matching tasks, "
+                    + "add a larger limit: to see more.");
+        }
+        printLine();
+    }
+
+    /**
+     * Print the tasks with the given ids along with their index in the list.
+     * Ids of tasks that are not in the list are skipped.
+     *
+     * @param tasks The list containing user's tasks.
+     * @param ids The ids of the tasks to print, in ascending order.
+     */
+    public static void printTasksWithIds(TaskSnapshot tasks, PostingList ids) {
+        for (int i = 0; i < ids.size(); i += 1) {
+            final int index = tasks.indexOfId(ids.get(i));
+            if (index != -1) {
+                Output.printTask(index + 1, tasks.get(index));
+            }
         }
         printLine();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,226 @@
+package duke;
+
+import duke.exceptions.FormatException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.IntStream;
+
+/**
+ * An inverted index from the words in task descriptions to the ids of the tasks containing them.
+ * It answers boolean queries such as "book AND (read OR return) NOT lib*" without scanning the list.
+ * Words are runs of letters and digits, and are matched regardless of case.
+ * One thread may update it while others search it, since posting lists are replaced instead of changed.
+ */
+public class WordIndex {
+    private final ConcurrentSkipListMap<String, PostingList> postings = new ConcurrentSkipListMap<>();
+    private volatile PostingList allIds = PostingList.EMPTY;
+
+    /**
+     * Add the words in the task's description to the index.
+     *
+     * @param task The task that was added to the list.
+     */
+    public void add(Task task) {
+        allIds = allIds.with(task.id);
+        for (String word : tokenize(task.description)) {
+            final PostingList ids = postings.get(word);
+            postings.put(word, ids == null ? PostingList.of(task.id) : ids.with(task.id));
+        }
+    }
+
+    /**
+     * Remove the words in the task's description from the index.
+     *
+     * @param task The task that was removed from the list.
+     */
+    public void remove(Task task) {
+        allIds = allIds.without(task.id);
+        for (String word : tokenize(task.description)) {
+            final PostingList ids = postings.get(word);
+            if (ids != null) {
+                final PostingList remaining = ids.without(task.id);
+                if (remaining.size() == 0) {
+                    postings.remove(word);
+                } else {
+                    postings.put(word, remaining);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove many tasks at once, going through each posting list only once however many of the tasks it holds.
+     *
+     * @param tasks The tasks that were removed from the list.
+     */
+    public void removeAll(List<Task> tasks) {
+        final Map<String, IntStream.Builder> removed = new HashMap<>();
+        final IntStream.Builder removedIds = IntStream.builder();
+        for (Task task : tasks) {
+            removedIds.add(task.id);
+            for (String word : tokenize(task.description)) {
+                removed.computeIfAbsent(word, key -> IntStream.builder()).add(task.id);
+            }
+        }
+        allIds = PostingList.difference(allIds, PostingList.of(removedIds.build().toArray()));
+        for (Map.Entry<String, IntStream.Builder> entry : removed.entrySet()) {
+            final PostingList ids = postings.get(entry.getKey());
+            if (ids != null) {
+                final PostingList remaining = PostingList.difference(ids,
+                        PostingList.of(entry.getValue().build().toArray()));
+                if (remaining.size() == 0) {
+                    postings.remove(entry.getKey());
+                } else {
+                    postings.put(entry.getKey(), remaining);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the tasks matching a boolean query.
+     * Terms next to each other must both match, NOT binds tighter than AND, and AND binds tighter than OR.
+     * A term ending with * matches every word starting with it.
+     *
+     * @param query The query entered by the user.
+     * @return The ids of the matching tasks, in ascending order.
+     * @throws FormatException If the query is empty or its brackets don't match, the exception will be thrown.
+     */
+    public PostingList search(String query) throws FormatException {
+        final QueryParser parser = new QueryParser(splitQuery(query));
+        final PostingList result = parser.parseOr();
+        if (parser.hasNext()) {
+            throw new FormatException();
+        }
+        return result;
+    }
+
+    private PostingList lookup(String term) {
+        final String word = term.toLowerCase(Locale.ROOT);
+        if (!word.endsWith("*")) {
+            final PostingList ids = postings.get(word);
+            return ids == null ? PostingList.EMPTY : ids;
+        }
+        final String prefix = word.substring(0, word.length() - 1);
+        PostingList result = PostingList.EMPTY;
+        for (Map.Entry<String, PostingList> entry : postings.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            result = PostingList.union(result, entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Split a description into lower case words.
+     */
+    static List<String> tokenize(String description) {
+        final List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= description.length(); i += 1) {
+            final boolean isWordChar = i < description.length() && Character.isLetterOrDigit(description.charAt(i));
+            if (isWordChar && start == -1) {
+                start = i;
+            } else if (!isWordChar && start != -1) {
+                words.add(description.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Split a query into brackets, operators and terms. Prefix terms keep their trailing *.
+     */
+    private static List<String> splitQuery(String query) {
+        final List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= query.length(); i += 1) {
+            final char c = i < query.length() ? query.charAt(i) : ' ';
+            final boolean isTermChar = Character.isLetterOrDigit(c) || (c == '*' && start != -1);
+            if (isTermChar && start == -1) {
+                start = i;
+            } else if (!isTermChar && start != -1) {
+                tokens.add(query.substring(start, i));
+                start = -1;
+            }
+            if (c == '(' || c == ')') {
+                tokens.add(String.valueOf(c));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * A recursive descent parser that evaluates the query against the index as it goes.
+     */
+    private class QueryParser {
+        private final List<String> tokens;
+        private int position = 0;
+
+        QueryParser(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        boolean hasNext() {
+            return position < tokens.size();
+        }
+
+        private String peek() {
+            return hasNext() ? tokens.get(position) : "";
+        }
+
+        PostingList parseOr() throws FormatException {
+            PostingList result = parseAnd();
+            while (peek().equals("OR")) {
+                position += 1;
+                result = PostingList.union(result, parseAnd());
+            }
+            return result;
+        }
+
+        private PostingList parseAnd() throws FormatException {
+            PostingList result = parseNot();
+            while (hasNext() && !peek().equals("OR") && !peek().equals(")")) {
+                if (peek().equals("AND")) {
+                    position += 1;
+                }
+                result = PostingList.intersect(result, parseNot());
+            }
+            return result;
+        }
+
+        private PostingList parseNot() throws FormatException {
+            if (peek().equals("NOT")) {
+                position += 1;
+                return PostingList.difference(allIds, parseNot());
+            }
+            return parseTerm();
+        }
+
+        private PostingList parseTerm() throws FormatException {
+            if (!hasNext()) {
+                throw new FormatException();
+            }
+            final String token = tokens.get(position++);
+            if (token.equals("(")) {
+                final PostingList result = parseOr();
+                if (!peek().equals(")")) {
+                    throw new FormatException();
+                }
+                position += 1;
+                return result;
+            }
+            if (token.equals(")") || token.equals("AND") || token.equals("OR")) {
+                throw new FormatException();
+            }
+            return lookup(token);
+        }
+    }
+}
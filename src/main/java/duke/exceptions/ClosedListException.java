@@ -0,0 +1,6 @@
+package duke.exceptions;
+
+public class ClosedListException extends IllegalStateException {
+    public ClosedListException() {
+    }
+}
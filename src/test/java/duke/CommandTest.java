@@ -0,0 +1,107 @@
+package duke;
+
+import duke.exceptions.FormatException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandTest {
+    private static final Pattern TASK_LINE = Pattern.compile("(?m)^(\\d+)\\. \\[T]\\[[ X]] (t\\d+)$");
+    private static final Pattern CURSOR = Pattern.compile("list from (@[0-9a-z]+)");
+
+    @AfterEach
+    public void resetOutput() {
+        Output.reset();
+    }
+
+    private static String list(TaskList tasks, String commandArgs) throws Exception {
+        final StringWriter printed = new StringWriter();
+        Output.redirect(printed);
+        Command.listTasks(tasks, commandArgs);
+        Output.flush();
+        return printed.toString();
+    }
+
+    private static List<String> listedTasks(String printed) {
+        final List<String> listed = new ArrayList<>();
+        final Matcher matcher = TASK_LINE.matcher(printed);
+        while (matcher.find()) {
+            listed.add(matcher.group(2));
+        }
+        return listed;
+    }
+
+    private static String cursorIn(String printed) {
+        final Matcher matcher = CURSOR.matcher(printed);
+        assertTrue(matcher.find(), printed);
+        return matcher.group(1);
+    }
+
+    private static TaskList listOf(int size) {
+        final TaskList tasks = new TaskList();
+        for (int i = 1; i <= size; i += 1) {
+            tasks.add(new Todo("t" + i));
+        }
+        return tasks;
+    }
+
+    @Test
+    public void bareList_upToTheLimit_printsEveryTask() throws Exception {
+        final String printed = list(listOf(Command.UNPAGED_LIMIT), "");
+        assertEquals(Command.UNPAGED_LIMIT, listedTasks(printed).size());
+        assertFalse(printed.contains("list from"));
+    }
+
+    @Test
+    public void bareList_pastTheLimit_printsTheFirstPage() throws Exception {
+        final String printed = list(listOf(Command.UNPAGED_LIMIT + 1), "");
+        assertEquals(Command.PAGE_SIZE, listedTasks(printed).size());
+        assertTrue(printed.contains("Showing tasks 1-" + Command.PAGE_SIZE + " of " + (Command.UNPAGED_LIMIT + 1)));
+        assertEquals("@" + Integer.toString(Command.PAGE_SIZE, 36), cursorIn(printed));
+    }
+
+    @Test
+    public void listAll_printsEveryTask() throws Exception {
+        assertEquals(250, listedTasks(list(listOf(250), "all")).size());
+    }
+
+    @Test
+    public void pageAndSize() throws Exception {
+        final TaskList tasks = listOf(50);
+        assertEquals(List.of("t11", "t12", "t13", "t14", "t15"), listedTasks(list(tasks, "3 5")));
+        assertTrue(list(tasks, "9 10").contains("no more tasks"));
+        assertThrows(FormatException.class, () -> list(tasks, "0"));
+        assertThrows(FormatException.class, () -> list(tasks, "1 2 3"));
+    }
+
+    @Test
+    public void cursor_carriesOnAfterEarlierTasksAreDeleted() throws Exception {
+        final TaskList tasks = listOf(30);
+        final String cursor = cursorIn(list(tasks, "1 10"));
+        tasks.remove(list -> new int[] {0, 1, 2});
+
+        final String next = list(tasks, "from " + cursor + " 10");
+        assertEquals(List.of("t11", "t12", "t13", "t14", "t15", "t16", "t17", "t18", "t19", "t20"), listedTasks(next));
+        assertTrue(next.contains("8. [T][ ] t11"), "indices are the current ones");
+
+        tasks.remove(list -> new int[] {7, 8});
+        assertEquals(List.of("t13", "t14"), listedTasks(list(tasks, "from " + cursor + " 2")));
+    }
+
+    @Test
+    public void cursor_displayedIndex_throwsFormatException() {
+        final TaskList tasks = listOf(50);
+        assertThrows(FormatException.class, () -> list(tasks, "from 45"));
+        assertThrows(FormatException.class, () -> list(tasks, "from"));
+    }
+}
@@ -0,0 +1,208 @@
+package duke;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JournalTest {
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    public void commitQuickly() {
+        Journal.setCommitDelay(1);
+    }
+
+    @AfterEach
+    public void restoreCommitDelay() {
+        Journal.setCommitDelay(100);
+    }
+
+    private static Journal.Replay replay(Path path) throws IOException {
+        return Journal.replay(path, TaskSnapshot.of(new ArrayList<>()));
+    }
+
+    @Test
+    public void concurrentAppends_areAllReplayed() throws Exception {
+        final Path path = directory.resolve("tasks.journal");
+        final Journal journal = Journal.open(path, 0);
+        final ExecutorService threads = Executors.newFixedThreadPool(4);
+        final List<Future<?>> done = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread += 1) {
+            final int prefix = thread;
+            done.add(threads.submit(() -> {
+                for (int i = 0; i < 500; i += 1) {
+                    journal.append(Journal.ADD, 0, new Todo(prefix + "-" + i));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : done) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        threads.shutdown();
+        journal.close();
+
+        final Journal.Replay replay = replay(path);
+        assertEquals(Files.size(path), replay.validLength);
+        final Set<String> descriptions = new HashSet<>(TaskListTest.descriptions(replay.tasks));
+        assertEquals(2000, descriptions.size());
+        assertTrue(descriptions.contains("3-499"));
+    }
+
+    @Test
+    public void tornLastRecord_isCutOff() throws IOException {
+        final Path path = directory.resolve("tasks.journal");
+        Journal journal = Journal.open(path, 0);
+        journal.append(Journal.ADD, 0, new Todo("a"));
+        journal.append(Journal.ADD, 1, new Todo("b"));
+        journal.sync();
+        final long complete = Files.size(path);
+        journal.append(Journal.ADD, 2, new Todo("torn"));
+        journal.close();
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(file.length() - 2);
+        }
+
+        Journal.Replay replay = replay(path);
+        assertEquals(List.of("a", "b"), TaskListTest.descriptions(replay.tasks));
+        assertEquals(complete, replay.validLength);
+        assertNull(replay.failure);
+
+        journal = Journal.open(path, replay.validLength);
+        journal.append(Journal.MARK, 1, null);
+        journal.close();
+        replay = replay(path);
+        assertEquals(List.of("a", "b"), TaskListTest.descriptions(replay.tasks));
+        assertTrue(replay.tasks.get(1).isDone);
+        assertEquals(Files.size(path), replay.validLength);
+    }
+
+    @Test
+    public void corruptRecord_stopsReplay() throws IOException {
+        final Path path = directory.resolve("tasks.journal");
+        final Journal journal = Journal.open(path, 0);
+        journal.append(Journal.ADD, 0, new Todo("a"));
+        journal.sync();
+        final long first = Files.size(path);
+        journal.append(Journal.ADD, 1, new Todo("b"));
+        journal.append(Journal.ADD, 2, new Todo("c"));
+        journal.close();
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(file.length() - 1);
+            file.write('x');
+            file.seek(first + 14);
+            file.write('x');
+        }
+
+        final Journal.Replay replay = replay(path);
+        assertEquals(List.of("a"), TaskListTest.descriptions(replay.tasks));
+        assertEquals(first, replay.validLength);
+        assertNull(replay.failure);
+    }
+
+    @Test
+    public void bulkChanges_areReplayedWhole() throws IOException {
+        final Path path = directory.resolve("tasks.journal");
+        final Journal journal = Journal.open(path, 0);
+        for (String description : new String[] {"a", "b", "c", "d"}) {
+            journal.append(Journal.ADD, 0, new Todo(description));
+        }
+        journal.appendSet(Journal.MARK_SET, new int[] {0, 1, 3});
+        journal.appendSet(Journal.DELETE_SET, new int[] {0, 2});
+        journal.append(Journal.UNMARK, 0, null);
+        journal.close();
+
+        final Journal.Replay replay = replay(path);
+        assertNull(replay.failure);
+        assertEquals(List.of("b", "d"), TaskListTest.descriptions(replay.tasks));
+        assertFalse(replay.tasks.get(0).isDone);
+        assertTrue(replay.tasks.get(1).isDone);
+        assertEquals(Files.size(path), replay.validLength);
+    }
+
+    @Test
+    public void insertSet_putsDeletedTasksBack() throws IOException {
+        final Path path = directory.resolve("tasks.journal");
+        final Journal journal = Journal.open(path, 0);
+        for (String description : new String[] {"a", "b", "c", "d"}) {
+            journal.append(Journal.ADD, 0, new Todo(description));
+        }
+        journal.appendSet(Journal.MARK_SET, new int[] {0, 1, 3});
+        journal.appendSet(Journal.DELETE_SET, new int[] {0, 2, 3});
+        journal.appendInsertSet(new int[] {0, 2, 3}, new Task[] {new Todo("a").withDone(true), new Todo("c"),
+                new Todo("d").withDone(true)});
+        journal.append(Journal.UNMARK, 1, null);
+        journal.close();
+
+        final Journal.Replay replay = replay(path);
+        assertEquals(List.of("a", "b", "c", "d"), TaskListTest.descriptions(replay.tasks));
+        assertTrue(replay.tasks.get(0).isDone);
+        assertFalse(replay.tasks.get(1).isDone);
+        assertFalse(replay.tasks.get(2).isDone);
+        assertTrue(replay.tasks.get(3).isDone);
+        assertEquals(Files.size(path), replay.validLength);
+    }
+
+    @Test
+    public void recordThatDoesNotFit_isReportedAndKept() throws IOException {
+        final Path path = directory.resolve("tasks.journal");
+        final Journal journal = Journal.open(path, 0);
+        journal.append(Journal.ADD, 0, new Todo("a"));
+        journal.sync();
+        final long first = Files.size(path);
+        journal.append(Journal.DELETE, 5, null);
+        journal.append(Journal.ADD, 1, new Todo("b"));
+        journal.close();
+
+        final Journal.Replay replay = replay(path);
+        assertEquals(List.of("a"), TaskListTest.descriptions(replay.tasks));
+        assertEquals(first, replay.validLength);
+        assertNotNull(replay.failure);
+        assertTrue(replay.failure.contains("byte " + first), replay.failure);
+    }
+
+    @Test
+    public void descriptionsLikeTheTextFormat_areReplayedAsTheyWere() throws IOException {
+        final Path path = directory.resolve("tasks.journal");
+        final Journal journal = Journal.open(path, 0);
+        final Task[] tasks = {new Todo("fix [bug]"), new Deadline("pay by: cash", LocalDate.of(2030, 1, 1)),
+            new Event("go to: school", LocalDate.of(2030, 1, 2), LocalDate.of(2030, 1, 3)),
+            new Todo("[X] not done"), new Deadline("] to: [D][X] by:", LocalDate.of(2030, 1, 4))};
+        tasks[4].markAsDone();
+        for (int i = 0; i < tasks.length; i += 1) {
+            journal.append(Journal.ADD, i, tasks[i]);
+        }
+        journal.appendInsertSet(new int[] {5}, new Task[] {new Todo("put ] back by: then").withDone(true)});
+        journal.close();
+
+        final Journal.Replay replay = replay(path);
+        assertNull(replay.failure);
+        assertEquals(tasks.length + 1, replay.tasks.size());
+        for (int i = 0; i < tasks.length; i += 1) {
+            assertEquals(tasks[i].toString(), replay.tasks.get(i).toString());
+        }
+        assertEquals("[T][X] put ] back by: then", replay.tasks.get(5).toString());
+    }
+}
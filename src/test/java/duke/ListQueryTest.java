@@ -0,0 +1,118 @@
+package duke;
+
+import duke.exceptions.FormatException;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ListQueryTest {
+    private static final LocalDate DAY = LocalDate.of(2023, 4, 1);
+
+    /**
+     * Todos t0..t9, deadlines d0..d9 due a day apart from DAY backwards, and events e0..e9 a day long
+     * a day apart from DAY onwards, with every task at an even index done.
+     */
+    private static TaskList sampleList() {
+        final TaskList tasks = new TaskList();
+        for (int i = 0; i < 10; i += 1) {
+            tasks.add(new Todo("t" + i));
+            tasks.add(new Deadline("d" + i, DAY.minusDays(i)));
+            tasks.add(new Event("e" + i, DAY.plusDays(i), DAY.plusDays(i + 1)));
+        }
+        for (int i = 0; i < tasks.snapshot().size(); i += 2) {
+            tasks.setDone(i, true);
+        }
+        return tasks;
+    }
+
+    private static List<String> run(TaskList tasks, String query) throws Exception {
+        final List<String> found = new ArrayList<>();
+        for (ListQuery.Match match : ListQuery.parse(query).run(tasks).matches) {
+            assertEquals(match.task, tasks.snapshot().get(match.index));
+            found.add(match.task.description);
+        }
+        return found;
+    }
+
+    @Test
+    public void isQuery_onlyForFilters() {
+        assertTrue(ListQuery.isQuery("type:T"));
+        assertTrue(ListQuery.isQuery("by<2023-04-01"));
+        assertFalse(ListQuery.isQuery("2"));
+        assertFalse(ListQuery.isQuery("from @1a"));
+    }
+
+    @Test
+    public void parse_unknownOrBadWords_throwFormatException() {
+        for (String query : new String[] {"foo:bar", "limit:0", "limit:x", "sort:size", "done:maybe",
+                "type:X", "has:", "type<T", "by", "sort:"}) {
+            assertThrows(FormatException.class, () -> ListQuery.parse(query), query);
+        }
+        assertThrows(ParseException.class, () -> ListQuery.parse("by<someday"));
+    }
+
+    @Test
+    public void run_filtersByTypeDoneAndKeyword() throws Exception {
+        final TaskList tasks = sampleList();
+        assertEquals(List.of("t0", "t1", "t2"), run(tasks, "type:T limit:3"));
+        assertEquals(List.of("d0", "d2", "d4", "d6", "d8"), run(tasks, "type:D done:no"));
+        assertEquals(List.of("e3"), run(tasks, "has:e3"));
+        assertEquals(List.of("d3", "e3"), run(tasks, "TYPE:D,E HAS:3"));
+    }
+
+    @Test
+    public void run_dateRanges() throws Exception {
+        final TaskList tasks = sampleList();
+        assertEquals(List.of("d1", "d2"), run(tasks, "by>=2023-03-30 by<2023-04-01 sort:-by"));
+        assertEquals(List.of("d0"), run(tasks, "by:2023-04-01"));
+        assertEquals(List.of("e1", "e2"), run(tasks, "from>2023-04-01 to<=2023-04-04"));
+        assertEquals(List.of(), run(tasks, "by>2023-04-01 by<2023-03-01"));
+        assertEquals(List.of(), run(tasks, "type:T by<2023-05-01"));
+    }
+
+    @Test
+    public void run_sortAndLimit() throws Exception {
+        final TaskList tasks = sampleList();
+        final ListQuery.Result sorted = ListQuery.parse("type:E sort:-from limit:3").run(tasks);
+        assertEquals(10, sorted.total);
+        assertTrue(sorted.hasMore);
+        assertEquals(List.of("e9", "e8", "e7"), descriptions(sorted));
+
+        final ListQuery.Result all = ListQuery.parse("has:t sort:description").run(tasks);
+        assertEquals(10, all.total);
+        assertFalse(all.hasMore);
+        assertEquals("t0", all.matches.get(0).task.description);
+
+        final ListQuery.Result unsorted = ListQuery.parse("done:yes limit:2").run(tasks);
+        assertEquals(-1, unsorted.total);
+        assertTrue(unsorted.hasMore);
+    }
+
+    @Test
+    public void run_deadlinesByDay_matchesFullSort() throws Exception {
+        final TaskList tasks = sampleList();
+        final ListQuery walked = ListQuery.parse("type:D sort:by limit:4");
+        assertTrue(walked.walksDeadlinesByDay());
+        final ListQuery.Result result = walked.run(tasks);
+        assertEquals(-1, result.total);
+        assertTrue(result.hasMore);
+        assertEquals(List.of("d9", "d8", "d7", "d6"), descriptions(result));
+        assertEquals(List.of("d9", "d8", "d7", "d6"), run(tasks, "sort:by limit:4"));
+    }
+
+    private static List<String> descriptions(ListQuery.Result result) {
+        final List<String> descriptions = new ArrayList<>();
+        for (ListQuery.Match match : result.matches) {
+            descriptions.add(match.task.description);
+        }
+        return descriptions;
+    }
+}
@@ -0,0 +1,104 @@
+package duke;
+
+import duke.exceptions.FormatException;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParserTest {
+    @Test
+    public void isSelection_numbersAndCompleteRanges() {
+        assertTrue(Parser.isSelection("all"));
+        assertTrue(Parser.isSelection("done"));
+        assertTrue(Parser.isSelection("1-500,702"));
+        assertTrue(Parser.isSelection("1,3"));
+        assertTrue(Parser.isSelection("2-4"));
+        assertTrue(Parser.isSelection("1 - 2, 4"));
+    }
+
+    @Test
+    public void isSelection_singleIndexOrBrokenRange_isNotASelection() {
+        assertFalse(Parser.isSelection("3"));
+        assertFalse(Parser.isSelection("-1"));
+        assertFalse(Parser.isSelection("3-"));
+        assertFalse(Parser.isSelection("1,x"));
+        assertFalse(Parser.isSelection("1,,2"));
+        assertFalse(Parser.isSelection("1-2-3"));
+        assertFalse(Parser.isSelection("book"));
+    }
+
+    @Test
+    public void parseSelection_givesSortedIndicesWithoutRepeats() throws FormatException {
+        final TaskSnapshot tasks = snapshotOf(10);
+        assertArrayEquals(new int[] {0, 1, 2, 4, 6, 7, 8}, Parser.parseSelection("7-9,1-3,5,2").indicesIn(tasks));
+        assertArrayEquals(new int[] {9}, Parser.parseSelection("10-10").indicesIn(tasks));
+        assertEquals(10, Parser.parseSelection("all").indicesIn(tasks).length);
+    }
+
+    @Test
+    public void parseSelection_invalidForm_throwsFormatException() {
+        assertThrows(FormatException.class, () -> Parser.parseSelection("3-1"));
+        assertThrows(FormatException.class, () -> Parser.parseSelection("0-2"));
+        assertThrows(FormatException.class, () -> Parser.parseSelection("1,,2"));
+        assertThrows(FormatException.class, () -> Parser.parseSelection("a-b"));
+    }
+
+    @Test
+    public void parseSelection_pastTheEnd_throwsWhenChecked() throws FormatException {
+        final TaskList.Selection selection = Parser.parseSelection("1,11");
+        assertThrows(IndexOutOfBoundsException.class, () -> selection.indicesIn(snapshotOf(10)));
+    }
+
+    @Test
+    public void cursor_roundTrips() throws FormatException {
+        for (int id : new int[] {0, 35, 36, 1000000, Integer.MAX_VALUE}) {
+            assertEquals(id, Parser.parseCursor(Parser.formatCursor(id)));
+        }
+        assertEquals("@o", Parser.formatCursor(24));
+    }
+
+    @Test
+    public void parseCursor_displayedIndexOrGarbage_throwsFormatException() {
+        assertThrows(FormatException.class, () -> Parser.parseCursor("45"));
+        assertThrows(FormatException.class, () -> Parser.parseCursor("@"));
+        assertThrows(FormatException.class, () -> Parser.parseCursor("@-1"));
+        assertThrows(FormatException.class, () -> Parser.parseCursor("@!"));
+    }
+
+    @Test
+    public void parseDate_acceptsIsoDates() throws ParseException {
+        assertEquals(LocalDate.of(2023, 4, 1), Parser.parseDate("2023-04-01"));
+        assertThrows(ParseException.class, () -> Parser.parseDate("someday"));
+    }
+
+    @Test
+    public void parseDate_otherFormats() throws ParseException {
+        assertEquals(LocalDate.of(2023, 3, 4), Parser.parseDate("04/03/2023"));
+        assertEquals(LocalDate.of(2023, 3, 4), Parser.parseDate("Mar 4 2023"));
+        assertEquals(LocalDate.of(2023, 3, 4), Parser.parseDate("2023-03-04 18:00"));
+        assertEquals(LocalDate.of(2022, 12, 4), Parser.parseDate("2023-00-04"));
+    }
+
+    @Test
+    public void parseDate_outOfRange_throwsParseException() {
+        assertThrows(ParseException.class, () -> Parser.parseDate("2023-02-30"));
+        assertThrows(ParseException.class, () -> Parser.parseDate("31/04/2023"));
+        assertThrows(ParseException.class, () -> Parser.parseDate("Foo 4 2023"));
+        assertThrows(ParseException.class, () -> Parser.parseDate(""));
+    }
+
+    static TaskSnapshot snapshotOf(int size) {
+        final TaskList tasks = new TaskList();
+        for (int i = 1; i <= size; i += 1) {
+            tasks.add(new Todo("t" + i));
+        }
+        return tasks.snapshot();
+    }
+}
@@ -0,0 +1,180 @@
+package duke;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StorageTest {
+    @TempDir
+    Path directory;
+    private final StringWriter printed = new StringWriter();
+
+    @BeforeEach
+    public void quietly() {
+        Output.redirect(printed);
+        Journal.setCommitDelay(1);
+    }
+
+    @AfterEach
+    public void restore() {
+        Output.reset();
+        Journal.setCommitDelay(100);
+    }
+
+    private static TaskList load(Storage storage, Path path) {
+        final TaskList tasks = new TaskList();
+        storage.initializeStorage(tasks, path.toString());
+        return tasks;
+    }
+
+    private static List<String> printedTasks(TaskList tasks) {
+        final List<String> lines = new ArrayList<>();
+        for (Task task : tasks.snapshot()) {
+            lines.add(task.toString());
+        }
+        return lines;
+    }
+
+    @Test
+    public void savedTasks_areLoadedAgain() throws Exception {
+        final Path path = directory.resolve("duke.txt");
+        final Storage storage = new Storage();
+        final TaskList tasks = load(storage, path);
+        Command.execute(tasks, "todo a");
+        Command.execute(tasks, "todo b");
+        Command.execute(tasks, "mark 2");
+        storage.storeChanges(path.toString(), tasks);
+        assertFalse(Files.exists(directory.resolve("duke.txt.journal")));
+
+        final TaskList loaded = load(new Storage(), path);
+        assertEquals(printedTasks(tasks), printedTasks(loaded));
+    }
+
+    @Test
+    public void unreadableFile_isLeftUntouched() throws Exception {
+        final Path path = directory.resolve("duke.txt");
+        final Storage storage = new Storage();
+        final TaskList tasks = load(storage, path);
+        for (int i = 0; i < 100; i += 1) {
+            Command.execute(tasks, "todo task " + i);
+        }
+        storage.storeChanges(path.toString(), tasks);
+        final byte[] saved = Files.readAllBytes(path);
+        final byte[] truncated = Arrays.copyOf(saved, saved.length / 2);
+        Files.write(path, truncated);
+
+        final Storage readOnly = new Storage();
+        final TaskList partial = load(readOnly, path);
+        assertTrue(readOnly.isReadOnly());
+        assertTrue(partial.snapshot().isEmpty());
+        Command.execute(partial, "todo new");
+        readOnly.storeChanges(path.toString(), partial);
+
+        assertArrayEquals(truncated, Files.readAllBytes(path));
+        assertFalse(Files.exists(directory.resolve("duke.txt.journal")));
+    }
+
+    @Test
+    public void dateOutOfRange_makesTheListReadOnly() throws Exception {
+        final Path path = directory.resolve("duke.txt");
+        final Storage storage = new Storage();
+        final TaskList tasks = load(storage, path);
+        Command.execute(tasks, "deadline a by: 2030-01-01");
+        storage.storeChanges(path.toString(), tasks);
+        final byte[] saved = Files.readAllBytes(path);
+        Arrays.fill(saved, 24, 32, (byte) 0x7f);
+        Files.write(path, saved);
+
+        final Storage readOnly = new Storage();
+        load(readOnly, path);
+        assertTrue(readOnly.isReadOnly());
+    }
+
+    /**
+     * The changes after the last save are never saved, as if Duke crashed, so the next session has only
+     * the journal to go on.
+     */
+    @Test
+    public void undoneDelete_isRecoveredFromTheJournal() throws IOException {
+        final Path path = directory.resolve("duke.txt");
+        final Storage saved = new Storage();
+        final TaskList first = load(saved, path);
+        for (String description : new String[] {"a", "b", "c", "d", "e"}) {
+            first.add(new Todo(description));
+        }
+        saved.storeChanges(path.toString(), first);
+        final byte[] file = Files.readAllBytes(path);
+
+        final Storage crashed = new Storage();
+        final TaskList tasks = load(crashed, path);
+        tasks.setDone(3, true);
+        tasks.remove(list -> new int[] {1, 3, 4});
+        tasks.remove(0);
+        tasks.undo();
+        tasks.undo();
+        crashed.flushJournal();
+
+        final TaskList recovered = load(new Storage(), path);
+        assertEquals(List.of("a", "b", "c", "d", "e"), TaskListTest.descriptions(recovered.snapshot()));
+        assertTrue(recovered.snapshot().get(3).isDone);
+        Output.flush();
+        assertTrue(printed.toString().contains("Recovered the unsaved changes"));
+        assertArrayEquals(file, Files.readAllBytes(path), "the journal is replayed without rewriting the file");
+    }
+
+    @Test
+    public void descriptionsLikeTheTextFormat_surviveACrash() throws IOException {
+        final Path path = directory.resolve("duke.txt");
+        final Storage crashed = new Storage();
+        final TaskList tasks = load(crashed, path);
+        tasks.add(new Todo("first"));
+        tasks.add(new Deadline("fix [bug]", LocalDate.of(2030, 1, 1)));
+        tasks.add(new Todo("after one by: [X]"));
+        tasks.add(new Event("go to: school", LocalDate.of(2030, 1, 2), LocalDate.of(2030, 1, 3)));
+        crashed.flushJournal();
+
+        final TaskList recovered = load(new Storage(), path);
+        assertEquals(printedTasks(tasks), printedTasks(recovered));
+    }
+
+    @Test
+    public void journalChangeThatDoesNotFit_makesTheListReadOnly() throws Exception {
+        final Path path = directory.resolve("duke.txt");
+        final Path journalPath = directory.resolve("duke.txt.journal");
+        final Storage crashed = new Storage();
+        final TaskList tasks = load(crashed, path);
+        Command.execute(tasks, "todo a");
+        Command.execute(tasks, "todo b");
+        crashed.flushJournal();
+        final Journal journal = Journal.open(journalPath, Files.size(journalPath));
+        journal.append(Journal.DELETE, 5, null);
+        journal.append(Journal.ADD, 2, new Todo("c"));
+        journal.close();
+        final byte[] file = Files.readAllBytes(path);
+        final byte[] changes = Files.readAllBytes(journalPath);
+
+        final Storage readOnly = new Storage();
+        final TaskList recovered = load(readOnly, path);
+        assertTrue(readOnly.isReadOnly());
+        assertEquals(printedTasks(tasks), printedTasks(recovered));
+        Command.execute(recovered, "todo new");
+        readOnly.storeChanges(path.toString(), recovered);
+        assertArrayEquals(file, Files.readAllBytes(path));
+        assertArrayEquals(changes, Files.readAllBytes(journalPath));
+    }
+}
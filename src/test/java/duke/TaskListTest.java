@@ -0,0 +1,181 @@
+package duke;
+
+import duke.exceptions.ClosedListException;
+import duke.exceptions.FormatException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskListTest {
+    private static final int THREADS = 8;
+    private static final int TASKS_PER_THREAD = 400;
+
+    /**
+     * Every thread adds its own tasks, marking every third and deleting every fifth as it goes,
+     * while the others do the same. Each change finds its task under the lock, so no change may be lost.
+     */
+    @Test
+    public void concurrentChanges_noLostUpdates() throws Exception {
+        final TaskList tasks = new TaskList();
+        final ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> done = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread += 1) {
+            final int prefix = thread;
+            done.add(threads.submit(() -> {
+                start.await();
+                for (int i = 0; i < TASKS_PER_THREAD; i += 1) {
+                    final String name = prefix + "-" + i;
+                    tasks.add(new Todo(name));
+                    if (i % 3 == 0) {
+                        assertEquals(1, tasks.setDone(list -> indexOf(list, name), true));
+                    }
+                    if (i % 5 == 0) {
+                        assertEquals(1, tasks.remove(list -> indexOf(list, name)));
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : done) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        threads.shutdown();
+
+        final TaskSnapshot snapshot = tasks.snapshot();
+        final Map<String, Task> byName = new HashMap<>();
+        int lastId = -1;
+        int index = 0;
+        for (Task task : snapshot) {
+            assertTrue(task.id > lastId, "ids must increase along the list");
+            assertEquals(index, snapshot.indexOfId(task.id));
+            assertTrue(tasks.trigramIndex.candidates(task.description).contains(task.id), task.description);
+            lastId = task.id;
+            byName.put(task.description, task);
+            index += 1;
+        }
+        assertEquals(THREADS * (TASKS_PER_THREAD - TASKS_PER_THREAD / 5), snapshot.size());
+        for (int thread = 0; thread < THREADS; thread += 1) {
+            int lastIndex = -1;
+            for (int i = 0; i < TASKS_PER_THREAD; i += 1) {
+                final Task task = byName.get(thread + "-" + i);
+                if (i % 5 == 0) {
+                    assertNull(task);
+                    continue;
+                }
+                assertEquals(i % 3 == 0, task.isDone, task.description);
+                final int taskIndex = snapshot.indexOfId(task.id);
+                assertTrue(taskIndex > lastIndex, "a thread's tasks must stay in the order it added them");
+                lastIndex = taskIndex;
+            }
+        }
+    }
+
+    private static int[] indexOf(TaskSnapshot list, String description) {
+        int index = 0;
+        for (Task task : list) {
+            if (task.description.equals(description)) {
+                return new int[] {index};
+            }
+            index += 1;
+        }
+        return new int[0];
+    }
+
+    @Test
+    public void undoRedo_restoresEachVersion() {
+        final TaskList tasks = new TaskList();
+        tasks.add(new Todo("a"));
+        tasks.add(new Todo("b"));
+        tasks.add(new Todo("c"));
+        final TaskSnapshot added = tasks.snapshot();
+        tasks.remove(list -> new int[] {0, 2});
+        tasks.setDone(0, true);
+
+        assertEquals("marking [T][X] b", tasks.undo());
+        assertEquals(List.of("b"), descriptions(tasks.snapshot()));
+        assertFalse(tasks.snapshot().get(0).isDone);
+        assertEquals("deleting 2 tasks", tasks.undo());
+        assertEquals(descriptions(added), descriptions(tasks.snapshot()));
+        assertEquals(1, tasks.snapshot().indexOfId(added.get(1).id));
+
+        assertEquals("deleting 2 tasks", tasks.redo());
+        assertEquals(List.of("b"), descriptions(tasks.snapshot()));
+        assertEquals("marking [T][X] b", tasks.redo());
+        assertTrue(tasks.snapshot().get(0).isDone);
+        assertNull(tasks.redo());
+    }
+
+    @Test
+    public void undo_newChangeForgetsRedo() {
+        final TaskList tasks = new TaskList();
+        tasks.add(new Todo("a"));
+        tasks.undo();
+        tasks.add(new Todo("b"));
+        assertNull(tasks.redo());
+        assertEquals(List.of("b"), descriptions(tasks.snapshot()));
+    }
+
+    @Test
+    public void selectionPastTheEnd_changesNothing() throws FormatException {
+        final TaskList tasks = new TaskList();
+        tasks.add(new Todo("a"));
+        tasks.add(new Todo("b"));
+        tasks.add(new Todo("c"));
+        final TaskSnapshot before = tasks.snapshot();
+        assertThrows(IndexOutOfBoundsException.class, () -> tasks.remove(Parser.parseSelection("1-2,5")));
+        assertThrows(IndexOutOfBoundsException.class, () -> tasks.setDone(Parser.parseSelection("1,4"), true));
+        assertSame(before, tasks.snapshot());
+        assertEquals("adding [T][ ] c", tasks.undo(), "a failed selection must not be in the history");
+    }
+
+    @Test
+    public void selection_changesEverySelectedTask() throws FormatException {
+        final TaskList tasks = new TaskList();
+        for (int i = 1; i <= 6; i += 1) {
+            tasks.add(new Todo("t" + i));
+        }
+        assertEquals(3, tasks.setDone(Parser.parseSelection("2-3,5"), true));
+        assertEquals(1, tasks.setDone(Parser.parseSelection("1-2"), true));
+        assertEquals(4, tasks.remove(Parser.parseSelection("done")));
+        assertEquals(List.of("t4", "t6"), descriptions(tasks.snapshot()));
+        assertEquals(2, tasks.remove(Parser.parseSelection("all")));
+        assertTrue(tasks.snapshot().isEmpty());
+    }
+
+    @Test
+    public void close_rejectsLaterChanges() {
+        final TaskList tasks = new TaskList();
+        tasks.add(new Todo("a"));
+        assertTrue(tasks.close());
+        assertFalse(tasks.close());
+        assertThrows(ClosedListException.class, () -> tasks.add(new Todo("b")));
+        assertThrows(ClosedListException.class, () -> tasks.remove(0));
+        assertThrows(ClosedListException.class, tasks::undo);
+        assertEquals(1, tasks.snapshot().size());
+    }
+
+    static List<String> descriptions(List<Task> tasks) {
+        final List<String> descriptions = new ArrayList<>();
+        for (Task task : tasks) {
+            descriptions.add(task.description);
+        }
+        return descriptions;
+    }
+}
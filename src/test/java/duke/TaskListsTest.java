@@ -0,0 +1,51 @@
+package duke;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskListsTest {
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    public void smallBudget() {
+        Output.redirect(new StringWriter());
+        TaskLists.setDirectory(directory.toString());
+        TaskLists.setMemoryBudget(TaskLists.BYTES_PER_TASK * 3);
+    }
+
+    @AfterEach
+    public void restore() {
+        TaskLists.leave();
+        TaskLists.setMemoryBudget(256L << 20);
+        TaskLists.setDirectory("data");
+        Output.reset();
+    }
+
+    @Test
+    public void unusedList_isSavedAndLoadedAgain() {
+        final TaskList first = TaskLists.use("first");
+        first.add(new Todo("a"));
+        first.add(new Todo("b"));
+        final TaskList second = TaskLists.use("second");
+        second.add(new Todo("c"));
+        second.add(new Todo("d"));
+
+        TaskLists.use("third");
+        assertEquals(-1, TaskLists.sizeIfLoaded("first"));
+        assertEquals(2, TaskLists.sizeIfLoaded("second"));
+        assertTrue(Files.exists(directory.resolve("first.txt")));
+        assertEquals(List.of("a", "b"), TaskListTest.descriptions(TaskLists.use("first").snapshot()));
+        assertEquals(List.of("c", "d"), TaskListTest.descriptions(TaskLists.use("second").snapshot()));
+    }
+}
@@ -0,0 +1,176 @@
+package duke;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransferTest {
+    @TempDir
+    Path directory;
+
+    private Transfer.Result importText(TaskList tasks, String text, Transfer.Format format) throws IOException {
+        final Path path = directory.resolve(format == Transfer.Format.JSON ? "in.json" : "in.csv");
+        Files.writeString(path, text, StandardCharsets.UTF_8);
+        return Transfer.importFile(tasks, path, format);
+    }
+
+    @Test
+    public void csv_headerInAnyOrderAndQuotedFields() throws IOException {
+        final TaskList tasks = new TaskList();
+        final Transfer.Result result = importText(tasks, "Description,by,TYPE,done,notes\r\n"
+                + "\"read, then \"\"review\"\"\",2023-04-01,deadline,true,ignored\r\n"
+                + "plain,,todo,,\r\n"
+                + "\r\n"
+                + "\"two\nlines\",,todo,false,\r\n", Transfer.Format.CSV);
+
+        assertEquals(2, result.count);
+        assertEquals(1, result.failureCount);
+        assertEquals(3, result.failures.get(0).recordNumber);
+        assertNull(result.stoppedBecause);
+        final Task deadline = tasks.snapshot().get(0);
+        assertEquals("read, then \"review\"", deadline.description);
+        assertEquals(LocalDate.of(2023, 4, 1), ((Deadline) deadline).by);
+        assertTrue(deadline.isDone);
+        assertEquals(List.of("read, then \"review\"", "plain"), TaskListTest.descriptions(tasks.snapshot()));
+    }
+
+    @Test
+    public void csv_withoutHeader_usesExportOrder() throws IOException {
+        final TaskList tasks = new TaskList();
+        final Transfer.Result result = importText(tasks, "event,false,trip,,2023-04-01,2023-04-03\n"
+                + "event,false,backwards,,2023-04-03,2023-04-01\n"
+                + "deadline,false,no date,,,\n"
+                + "meeting,false,what,,,\n"
+                + "todo,maybe,unsure,,,\n"
+                + "deadline,false,bad date,someday,,", Transfer.Format.CSV);
+
+        assertEquals(1, result.count);
+        assertEquals(5, result.failureCount);
+        assertEquals(Transfer.MAX_FAILURES_SHOWN, result.failures.size());
+        assertEquals(2, result.failures.get(0).recordNumber);
+        assertTrue(result.failures.get(4).reason.contains("someday"));
+        final Event event = (Event) tasks.snapshot().get(0);
+        assertEquals(LocalDate.of(2023, 4, 3), event.to);
+    }
+
+    @Test
+    public void json_arrayWithEscapesAndUnknownKeys() throws IOException {
+        final TaskList tasks = new TaskList();
+        final Transfer.Result result = importText(tasks, "[\n"
+                + "  {\"type\": \"todo\", \"description\": \"caf\\u00e9 \\\"run\\\"\",\n"
+                + "   \"priority\": 3, \"tag\": null},\n"
+                + "  {\"type\": \"deadline\", \"done\": true, \"description\": \"tax\", \"by\": \"2023-04-30\"},\n"
+                + "  {}\n"
+                + "]\n", Transfer.Format.JSON);
+
+        assertEquals(2, result.count);
+        assertEquals(1, result.failureCount);
+        assertNull(result.stoppedBecause);
+        assertEquals("café \"run\"", tasks.snapshot().get(0).description);
+        assertTrue(tasks.snapshot().get(1).isDone);
+    }
+
+    @Test
+    public void json_linesOfObjects() throws IOException {
+        final TaskList tasks = new TaskList();
+        final Transfer.Result result = importText(tasks, "{\"type\":\"t\",\"description\":\"a\"}\n"
+                + "{\"type\":\"t\",\"description\":\"b\"}\n", Transfer.Format.JSON);
+
+        assertEquals(2, result.count);
+        assertEquals(List.of("a", "b"), TaskListTest.descriptions(tasks.snapshot()));
+    }
+
+    @Test
+    public void json_malformed_keepsRecordsBeforeIt() throws IOException {
+        final TaskList tasks = new TaskList();
+        final Transfer.Result result = importText(tasks, "[{\"type\":\"todo\",\"description\":\"kept\"},\n"
+                + "{\"type\":\"todo\",\"description\":\"nested\",\"tags\":[1]},\n"
+                + "{\"type\":\"todo\",\"description\":\"lost\"}]", Transfer.Format.JSON);
+
+        assertEquals(1, result.count);
+        assertNotNull(result.stoppedBecause);
+        assertEquals(List.of("kept"), TaskListTest.descriptions(tasks.snapshot()));
+    }
+
+    @Test
+    public void exportThenImport_givesTheSameTasks() throws IOException {
+        final TaskList tasks = new TaskList();
+        tasks.add(new Todo("say \"hi\", then \\leave"));
+        tasks.add(new Deadline("日本語 report", LocalDate.of(2023, 4, 1)));
+        tasks.add(new Event("trip", LocalDate.of(2023, 4, 1), LocalDate.of(2023, 4, 3)));
+        tasks.setDone(1, true);
+
+        for (Transfer.Format format : Transfer.Format.values()) {
+            final Path path = directory.resolve("out." + format.name().toLowerCase(Locale.ROOT));
+            assertEquals(3, Transfer.exportFile(tasks.snapshot(), path, format).count);
+            final TaskList imported = new TaskList();
+            final Transfer.Result result = Transfer.importFile(imported, path, Transfer.Format.ofFile(path));
+            assertEquals(3, result.count, format.name());
+            assertEquals(0, result.failureCount, format.name());
+            for (int i = 0; i < 3; i += 1) {
+                assertEquals(tasks.snapshot().get(i).toString(), imported.snapshot().get(i).toString());
+            }
+        }
+    }
+
+    @Test
+    public void descriptionsLikeTheStorageFormat_surviveSaveAndLoad() throws IOException {
+        Output.redirect(new StringWriter());
+        Journal.setCommitDelay(1);
+        try {
+            for (boolean text : new boolean[] {false, true}) {
+                Storage.setTextFormat(text);
+                final Path path = directory.resolve(text ? "text.txt" : "binary.txt");
+                final Storage saved = new Storage();
+                final TaskList tasks = new TaskList();
+                saved.initializeStorage(tasks, path.toString());
+                final Transfer.Result result = importText(tasks, "type,done,description,by,from,to\n"
+                        + "event,false,go to: school,,2030-01-02,2030-01-03\n"
+                        + "deadline,true,pay by: cash,2030-01-01,,\n"
+                        + "todo,false,fix [bug],,,\n"
+                        + "todo,false,[X] not done,,,\n"
+                        + "event,true,] from: [E][X] to:,,2030-01-04,2030-01-05\n", Transfer.Format.CSV);
+                assertEquals(5, result.count);
+                saved.storeChanges(path.toString(), tasks);
+
+                final Storage crashed = new Storage();
+                final TaskList loaded = new TaskList();
+                crashed.initializeStorage(loaded, path.toString());
+                assertEquals(printedTasks(tasks), printedTasks(loaded), text ? "text" : "binary");
+                loaded.add(new Todo("after one"));
+                loaded.add(new Todo("after two"));
+                crashed.flushJournal();
+
+                final TaskList recovered = new TaskList();
+                new Storage().initializeStorage(recovered, path.toString());
+                assertEquals(printedTasks(loaded), printedTasks(recovered), text ? "text" : "binary");
+            }
+        } finally {
+            Storage.setTextFormat(false);
+            Journal.setCommitDelay(100);
+            Output.reset();
+        }
+    }
+
+    private static List<String> printedTasks(TaskList tasks) {
+        final List<String> lines = new ArrayList<>();
+        for (Task task : tasks.snapshot()) {
+            lines.add(task.toString());
+        }
+        return lines;
+    }
+}
@@ -6,16 +6,25 @@ if not exist ..\bin mkdir ..\bin
 REM delete output from previous run
 if exist ACTUAL.TXT del ACTUAL.TXT
 
+REM start from an empty task list
+if exist duke.txt del duke.txt
+if exist duke.txt.journal del duke.txt.journal
+
 REM compile the code into the bin folder
-javac  -cp ..\src\main\java -Xlint:none -d ..\bin ..\src\main\java\*.java
+dir /s /b ..\src\main\java\*.java > sources.txt
+javac  -cp ..\src\main\java -Xlint:none -encoding UTF-8 -d ..\bin @sources.txt
 IF ERRORLEVEL 1 (
+    del sources.txt
     echo ********** BUILD FAILURE **********
     exit /b 1
 )
+del sources.txt
 REM no error here, errorlevel == 0
 
 REM run the program, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
-java -classpath ..\bin Duke < input.txt > ACTUAL.TXT
+java -Dstdout.encoding=UTF-8 -classpath ..\bin duke.Duke < input.txt > ACTUAL.TXT
+if exist duke.txt del duke.txt
+if exist duke.txt.journal del duke.txt.journal
 
 REM compare the output to the expected output
 FC ACTUAL.TXT EXPECTED.TXT
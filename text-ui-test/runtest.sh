@@ -12,15 +12,19 @@ then
     rm ACTUAL.TXT
 fi
 
+# start from an empty task list
+rm -f duke.txt duke.txt.journal
+
 # compile the code into the bin folder, terminates if error occurred
-if ! javac -cp ../src/main/java -Xlint:none -d ../bin ../src/main/java/*.java
+if ! javac -cp ../src/main/java -Xlint:none -encoding UTF-8 -d ../bin $(find ../src/main/java -name "*.java")
 then
     echo "********** BUILD FAILURE **********"
     exit 1
 fi
 
 # run the program, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
-java -classpath ../bin Duke < input.txt > ACTUAL.TXT
+java -Dstdout.encoding=UTF-8 -classpath ../bin duke.Duke < input.txt > ACTUAL.TXT
+rm -f duke.txt duke.txt.journal
 
 # convert to UNIX format
 cp EXPECTED.TXT EXPECTED-UNIX.TXT